@@ -0,0 +1,166 @@
+package org.ivanfranchin.kubelessplugin;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.monitor.logging.DefaultLog;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.logging.Logger;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks of the steps of the convert goal. Run them with {@code mvn verify -Pbenchmarks}; see {@code src/jmh/README.md}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(2)
+public class KubelessConvertMojoBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class InputJavaClassState {
+
+        @Param({"small", "large", "pathological"})
+        public String source;
+
+        @Param({"false", "true"})
+        public boolean fastValidation;
+
+        Path baseDir;
+        KubelessConvertMojo kubelessConvertMojo;
+        KubelessFunction function;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            baseDir = Files.createTempDirectory("kubeless-benchmark");
+            final SyntheticProject syntheticProject = SyntheticProject.create(baseDir).withPom(10, 0);
+            if ("small".equals(source)) {
+                syntheticProject.withHandler(FUNCTION_NAME, 0);
+            } else if ("large".equals(source)) {
+                syntheticProject.withHandler(FUNCTION_NAME, 2000);
+            } else {
+                syntheticProject.withPathologicalHandler(FUNCTION_NAME, 2000);
+            }
+            kubelessConvertMojo = createKubelessConvertMojo(syntheticProject);
+            kubelessConvertMojo.fastValidation = fastValidation;
+            function = new KubelessFunction(FUNCTION_NAME, syntheticProject.getInputJavaClassPath(FUNCTION_NAME).toFile(),
+                    baseDir.resolve("output").toFile());
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            deleteRecursively(baseDir);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ProjectPomState {
+
+        @Param({"10", "100", "1000", "5000"})
+        public int numberOfDependencies;
+
+        Path baseDir;
+        KubelessConvertMojo kubelessConvertMojo;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            baseDir = Files.createTempDirectory("kubeless-benchmark");
+            kubelessConvertMojo = createKubelessConvertMojo(SyntheticProject.create(baseDir).withPom(numberOfDependencies, 2));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            deleteRecursively(baseDir);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ProjectState {
+
+        Path baseDir;
+        KubelessConvertMojo kubelessConvertMojo;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            baseDir = Files.createTempDirectory("kubeless-benchmark");
+            kubelessConvertMojo = createKubelessConvertMojo(SyntheticProject.create(baseDir)
+                    .withPom(50, 1)
+                    .withHandler(FUNCTION_NAME, 50));
+            kubelessConvertMojo.inputJavaClassName = FUNCTION_NAME;
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            deleteRecursively(baseDir);
+        }
+    }
+
+    @Benchmark
+    public KubelessFunction validateInputJavaClass(InputJavaClassState state) throws MojoExecutionException {
+        state.kubelessConvertMojo.validateInputJavaClass(state.function);
+        return state.function;
+    }
+
+    @Benchmark
+    public List<Dependency> getProjectDependencies(ProjectPomState state) throws MojoExecutionException {
+        return state.kubelessConvertMojo.getProjectDependencies();
+    }
+
+    @Benchmark
+    public Model readPomTemplateFile(ProjectState state) throws MojoExecutionException {
+        return state.kubelessConvertMojo.readPomTemplateFile();
+    }
+
+    @Benchmark
+    public KubelessConvertMojo execute(ProjectState state) throws MojoExecutionException, MojoFailureException {
+        state.kubelessConvertMojo.execute();
+        return state.kubelessConvertMojo;
+    }
+
+    //-- Helper Methods
+
+    private static KubelessConvertMojo createKubelessConvertMojo(SyntheticProject syntheticProject) {
+        KubelessConvertMojo kubelessConvertMojo = new KubelessConvertMojo();
+        kubelessConvertMojo.outputDirectory = syntheticProject.getBaseDir().resolve("target/generated-sources/kubeless").toFile();
+        kubelessConvertMojo.setLog(new DefaultLog(new ConsoleLogger(Logger.LEVEL_DISABLED, "benchmark")));
+
+        MavenProject project = new MavenProject();
+        project.setFile(syntheticProject.getPomFile());
+        kubelessConvertMojo.project = project;
+
+        return kubelessConvertMojo;
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        try (Stream<Path> paths = Files.walk(path)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private static final String FUNCTION_NAME = "BenchmarkFunction";
+
+}
@@ -0,0 +1,70 @@
+package org.ivanfranchin.kubelessplugin;
+
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.File;
+import java.util.Map;
+
+/**
+ * Parameters of the conversion shared by the {@code convert} goal and the {@code convert-all} goal, which runs a
+ * {@code convert} goal per module. The goals only declare the parameters that select the input Java Classes and the
+ * output folders.
+ */
+public abstract class AbstractConvertMojo extends AbstractFunctionMojo {
+
+    @Parameter(property = "incremental", defaultValue = "false")
+    protected boolean incremental;
+
+    @Parameter(property = "pomTemplateFile")
+    protected File pomTemplateFile;
+
+    @Parameter(property = "functionManifest", defaultValue = FUNCTION_MANIFEST_NONE)
+    protected String functionManifest = FUNCTION_MANIFEST_NONE;
+
+    @Parameter(property = "functionCompressionThreshold", defaultValue = "0")
+    protected int functionCompressionThreshold;
+
+    @Parameter
+    protected Map<String, String> resourceRequests;
+
+    @Parameter(property = "dependencyBundle", defaultValue = DEPENDENCY_BUNDLE_NONE)
+    protected String dependencyBundle = DEPENDENCY_BUNDLE_NONE;
+
+    @Parameter(property = "nativeImage", defaultValue = "false")
+    protected boolean nativeImage;
+
+    @Parameter(property = "runtimeProfile", defaultValue = RUNTIME_PROFILE_NONE)
+    protected String runtimeProfile = RUNTIME_PROFILE_NONE;
+
+    @Parameter(property = "maxDependencyBytes", defaultValue = "0")
+    protected long maxDependencyBytes;
+
+    @Parameter(property = "maxClasses", defaultValue = "0")
+    protected int maxClasses;
+
+    @Parameter(property = "maxDependencyDepth", defaultValue = "0")
+    protected int maxDependencyDepth;
+
+    @Parameter(property = "dependencyBudgetAction", defaultValue = DEPENDENCY_BUDGET_WARN)
+    protected String dependencyBudgetAction = DEPENDENCY_BUDGET_WARN;
+
+    @Parameter(property = "outputCacheDirectory")
+    protected File outputCacheDirectory;
+
+    @Parameter(property = "outputCacheMaxMegabytes", defaultValue = DEFAULT_OUTPUT_CACHE_MAX_MEGABYTES)
+    protected long outputCacheMaxMegabytes = Long.parseLong(DEFAULT_OUTPUT_CACHE_MAX_MEGABYTES);
+
+    @Parameter(defaultValue = "${plugin.version}", readonly = true)
+    String pluginVersion;
+
+    OutputCache createOutputCache() {
+        return outputCacheDirectory != null ? new OutputCache(outputCacheDirectory, outputCacheMaxMegabytes * 1024 * 1024) : null;
+    }
+
+    static final String FUNCTION_MANIFEST_NONE = "none";
+    static final String DEPENDENCY_BUNDLE_NONE = "none";
+    static final String RUNTIME_PROFILE_NONE = "none";
+    static final String DEPENDENCY_BUDGET_WARN = "warn";
+    static final String DEFAULT_OUTPUT_CACHE_MAX_MEGABYTES = "1024";
+
+}
@@ -0,0 +1,104 @@
+package org.ivanfranchin.kubelessplugin;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parameters shared by every goal: the validation of the input Java Class, the selection of its dependencies and the
+ * values given to the function at runtime. The {@code cds} and {@code bench} goals only accept these, the conversion
+ * goals add the ones of {@link AbstractConvertMojo}.
+ */
+public abstract class AbstractFunctionMojo extends AbstractMojo {
+
+    @Parameter(property = "fastValidation", defaultValue = "false")
+    protected boolean fastValidation;
+
+    @Parameter(property = "useProjectModel", defaultValue = "false")
+    protected boolean useProjectModel;
+
+    @Parameter(property = "excludeScopes")
+    protected List<String> excludeScopes = new ArrayList<>(Collections.singletonList(TEST_SCOPE));
+
+    @Parameter(property = "includeDependencies")
+    protected List<String> includeDependencies = new ArrayList<>();
+
+    @Parameter(property = "excludeDependencies")
+    protected List<String> excludeDependencies = new ArrayList<>(Collections.singletonList(JVM_RUNTIME_DEPENDENCY));
+
+    @Parameter(property = "pruneDependencies", defaultValue = "false")
+    protected boolean pruneDependencies;
+
+    @Parameter(property = "localRepository", defaultValue = "${settings.localRepository}")
+    protected File localRepository;
+
+    @Parameter(property = "bundleExcludeDependencies")
+    protected List<String> bundleExcludeDependencies = new ArrayList<>(Collections.singletonList(PKG_NAME_IO_KUBELESS));
+
+    @Parameter(property = "functionRuntime", defaultValue = DEFAULT_FUNCTION_RUNTIME)
+    protected String functionRuntime = DEFAULT_FUNCTION_RUNTIME;
+
+    @Parameter(property = "functionNamespace")
+    protected String functionNamespace;
+
+    @Parameter(property = "functionTimeout", defaultValue = DEFAULT_FUNCTION_TIMEOUT)
+    protected String functionTimeout = DEFAULT_FUNCTION_TIMEOUT;
+
+    @Parameter
+    protected Map<String, String> resourceLimits;
+
+    @Parameter(defaultValue = "${session}", readonly = true)
+    MavenSession session;
+
+    /**
+     * Copies the parameters declared in the abstract classes shared by this goal and {@code target} to
+     * {@code target}, so a goal that delegates to another one passes every parameter, including the ones added later,
+     * without listing them.
+     */
+    void copyParametersTo(final AbstractFunctionMojo target) {
+        for (Class<?> type = getClass(); type != AbstractMojo.class; type = type.getSuperclass()) {
+            if (!Modifier.isAbstract(type.getModifiers()) || !type.isInstance(target)) {
+                continue;
+            }
+            for (Field field : type.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                    continue;
+                }
+                try {
+                    field.set(target, field.get(this));
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException("Unable to copy the parameter " + field.getName(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Memory limit of the function container, as given to the function in {@code io.kubeless.Context}.
+     */
+    String getFunctionMemoryLimit() {
+        return resourceLimits != null && resourceLimits.get("memory") != null ? resourceLimits.get("memory") : "0";
+    }
+
+    /**
+     * Namespace of the function, as given to the function in {@code io.kubeless.Event}.
+     */
+    String getFunctionNamespace() {
+        return functionNamespace != null && !functionNamespace.trim().isEmpty() ? functionNamespace.trim() : "default";
+    }
+
+    static final String TEST_SCOPE = "test";
+    static final String PKG_NAME_IO_KUBELESS = "io.kubeless";
+    static final String JVM_RUNTIME_DEPENDENCY = "de.inoio.kubeless:jvm-runtime";
+    static final String DEFAULT_FUNCTION_RUNTIME = "java1.8";
+    static final String DEFAULT_FUNCTION_TIMEOUT = "180";
+
+}
@@ -0,0 +1,73 @@
+package org.ivanfranchin.kubelessplugin;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Goals that compile the Kubeless Function informed in {@code inputJavaClassName} and call it in the Maven JVM with a
+ * {@link FunctionHarness}. The input Java Class is checked and its dependencies are selected by a {@code convert}
+ * goal that gets the parameters of {@link AbstractFunctionMojo}, so these goals do not accept the ones that only
+ * shape the outputs of the conversion.
+ */
+public abstract class AbstractHarnessMojo extends AbstractFunctionMojo {
+
+    @Parameter(property = "inputJavaClassName")
+    protected String inputJavaClassName;
+
+    @Parameter(property = "outputDirectory", defaultValue = "${project.build.directory}/generated-sources/kubeless", required = true)
+    protected File outputDirectory;
+
+    @Parameter(defaultValue = "${project}", required = true, readonly = true)
+    MavenProject project;
+
+    private KubelessConvertMojo kubelessConvertMojo;
+
+    /**
+     * Returns the function of {@code inputJavaClassName} once its input Java Class and the project {@code pom.xml}
+     * are checked as in the {@code convert} goal, with {@code outputDirectory} created.
+     */
+    KubelessFunction createFunction() throws MojoExecutionException {
+        if (inputJavaClassName == null || inputJavaClassName.trim().isEmpty()) {
+            throw new MojoExecutionException("The parameter inputJavaClassName must be informed");
+        }
+        kubelessConvertMojo = new KubelessConvertMojo();
+        copyParametersTo(kubelessConvertMojo);
+        kubelessConvertMojo.setLog(getLog());
+        kubelessConvertMojo.project = project;
+        kubelessConvertMojo.inputJavaClassName = inputJavaClassName;
+        kubelessConvertMojo.outputDirectory = outputDirectory;
+
+        final String name = inputJavaClassName.trim();
+        final KubelessFunction function = new KubelessFunction(name, kubelessConvertMojo.getInputJavaClassFile(name), outputDirectory);
+        kubelessConvertMojo.checkInputsExist(function);
+        kubelessConvertMojo.createOutputDirectory(function);
+        return function;
+    }
+
+    /**
+     * Jar artifacts of the dependencies of {@code function}, i.e, the ones of its output {@code pom.xml} with their
+     * transitive dependencies, resolved in the local repository, in order to {@code purpose}.
+     */
+    List<LocalRepositoryResolver.ResolvedArtifact> resolveDependencyJars(final KubelessFunction function,
+                                                                       final String purpose) throws MojoExecutionException {
+        return kubelessConvertMojo.resolveDependencies(function,
+                kubelessConvertMojo.getFunctionDependencies(function, kubelessConvertMojo.getProjectDependencies()), purpose)
+                .getArtifacts().stream()
+                .filter(artifact -> artifact.getFile().getName().endsWith(".jar"))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Jar of the {@code de.inoio.kubeless:jvm-runtime} dependency of the project, with the real {@code io.kubeless}
+     * classes the function is loaded with in the pod, found in the local repository in order to {@code purpose}.
+     */
+    File getRuntimeJar(final KubelessFunction function, final String purpose) throws MojoExecutionException {
+        return kubelessConvertMojo.getRuntimeJar(function, purpose);
+    }
+
+}
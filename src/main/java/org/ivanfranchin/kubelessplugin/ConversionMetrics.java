@@ -0,0 +1,190 @@
+package org.ivanfranchin.kubelessplugin;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Time spent, bytes read and written and number of dependencies handled in each phase of a conversion. Phases may
+ * be measured from several threads at once, and nested phases, e.g. {@code validateInputJavaClass} inside
+ * {@code checkInputsExist}, are counted in both. The metrics of each execution are also added to the metrics of the
+ * Maven session the execution belongs to, which are kept as long as the session object is alive.
+ */
+final class ConversionMetrics {
+
+    enum Phase {
+        COMPUTE_FINGERPRINT("computeFingerprint"),
+        CHECK_INPUTS_EXIST("checkInputsExist"),
+        VALIDATE_INPUT_JAVA_CLASS("validateInputJavaClass"),
+        CREATE_OUTPUT_DIRECTORY("createOutputDirectory"),
+        CREATE_OUTPUT_JAVA_CLASS_FILE("createOutputJavaClassFile"),
+        GET_PROJECT_DEPENDENCIES("getProjectDependencies"),
+        PRUNE_DEPENDENCIES("pruneDependencies"),
+        WRITE_OUTPUT_POM_FILE("writeOutputPomFile"),
+        ANALYZE_DEPENDENCY_BUDGET("analyzeDependencyBudget"),
+        CREATE_FUNCTION_MANIFEST_FILE("createFunctionManifestFile"),
+        CREATE_DEPENDENCY_BUNDLE("createDependencyBundle"),
+        CREATE_NATIVE_IMAGE_CONFIG("createNativeImageConfig"),
+        CREATE_RUNTIME_PROFILE("createRuntimeProfile");
+
+        private final String methodName;
+
+        Phase(String methodName) {
+            this.methodName = methodName;
+        }
+
+        String getMethodName() {
+            return methodName;
+        }
+    }
+
+    /**
+     * One run of a phase, recorded when closed.
+     */
+    final class Measurement implements AutoCloseable {
+
+        private final PhaseMetrics phaseMetrics;
+        private final long start = System.nanoTime();
+
+        private Measurement(PhaseMetrics phaseMetrics) {
+            this.phaseMetrics = phaseMetrics;
+        }
+
+        Measurement bytesRead(long bytes) {
+            phaseMetrics.bytesRead.add(bytes);
+            return this;
+        }
+
+        Measurement bytesWritten(long bytes) {
+            phaseMetrics.bytesWritten.add(bytes);
+            return this;
+        }
+
+        Measurement dependencies(long dependencies) {
+            phaseMetrics.dependencies.add(dependencies);
+            return this;
+        }
+
+        @Override
+        public void close() {
+            phaseMetrics.calls.increment();
+            phaseMetrics.nanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private static final class PhaseMetrics {
+
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder bytesRead = new LongAdder();
+        private final LongAdder bytesWritten = new LongAdder();
+        private final LongAdder dependencies = new LongAdder();
+
+        private void add(PhaseMetrics other) {
+            calls.add(other.calls.sum());
+            nanos.add(other.nanos.sum());
+            bytesRead.add(other.bytesRead.sum());
+            bytesWritten.add(other.bytesWritten.sum());
+            dependencies.add(other.dependencies.sum());
+        }
+
+        private Map<String, Object> toMap() {
+            final Map<String, Object> map = new LinkedHashMap<>();
+            map.put("calls", calls.sum());
+            map.put("timeMillis", toMillis(nanos.sum()));
+            map.put("bytesRead", bytesRead.sum());
+            map.put("bytesWritten", bytesWritten.sum());
+            map.put("dependencies", dependencies.sum());
+            return map;
+        }
+    }
+
+    private final Map<Phase, PhaseMetrics> phases = new EnumMap<>(Phase.class);
+    private final LongAdder wallNanos = new LongAdder();
+    private final AtomicInteger executions = new AtomicInteger();
+
+    ConversionMetrics() {
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, new PhaseMetrics());
+        }
+    }
+
+    Measurement measure(Phase phase) {
+        return new Measurement(phases.get(phase));
+    }
+
+    /**
+     * Ends an execution that started at {@code startNanos}, adding its metrics to the ones of {@code session}.
+     *
+     * @return the metrics of the session, including this execution
+     */
+    ConversionMetrics finish(long startNanos, Object session) {
+        wallNanos.add(System.nanoTime() - startNanos);
+        executions.incrementAndGet();
+        final ConversionMetrics sessionMetrics = forSession(session);
+        sessionMetrics.add(this);
+        return sessionMetrics;
+    }
+
+    static ConversionMetrics forSession(Object session) {
+        synchronized (SESSIONS) {
+            return SESSIONS.computeIfAbsent(session != null ? session : NO_SESSION, key -> new ConversionMetrics());
+        }
+    }
+
+    private void add(ConversionMetrics other) {
+        other.phases.forEach((phase, phaseMetrics) -> phases.get(phase).add(phaseMetrics));
+        wallNanos.add(other.wallNanos.sum());
+        executions.addAndGet(other.executions.get());
+    }
+
+    Map<String, Object> toMap() {
+        final Map<String, Object> phasesMap = new LinkedHashMap<>();
+        phases.forEach((phase, phaseMetrics) -> phasesMap.put(phase.getMethodName(), phaseMetrics.toMap()));
+        final Map<String, Object> map = new LinkedHashMap<>();
+        map.put("executions", executions.get());
+        map.put("wallTimeMillis", toMillis(wallNanos.sum()));
+        map.put("phases", phasesMap);
+        return map;
+    }
+
+    /**
+     * One line per phase that ran, for the Maven log.
+     */
+    List<String> getSummaryLines() {
+        final String rowFormat = "%-27s  %5s  %10s  %12s  %12s  %12s";
+        final List<String> lines = new ArrayList<>();
+        lines.add(String.format(rowFormat, "Phase", "Calls", "Time (ms)", "Read (B)", "Written (B)", "Dependencies"));
+        phases.forEach((phase, phaseMetrics) -> {
+            if (phaseMetrics.calls.sum() > 0) {
+                lines.add(String.format(rowFormat, phase.getMethodName(), phaseMetrics.calls.sum(),
+                        toMillis(phaseMetrics.nanos.sum()).setScale(1, RoundingMode.HALF_UP), phaseMetrics.bytesRead.sum(),
+                        phaseMetrics.bytesWritten.sum(), phaseMetrics.dependencies.sum()));
+            }
+        });
+        return lines;
+    }
+
+    int getExecutions() {
+        return executions.get();
+    }
+
+    long getCalls(Phase phase) {
+        return phases.get(phase).calls.sum();
+    }
+
+    private static BigDecimal toMillis(long nanos) {
+        return BigDecimal.valueOf(nanos, 6);
+    }
+
+    private static final Object NO_SESSION = new Object();
+    private static final Map<Object, ConversionMetrics> SESSIONS = new WeakHashMap<>();
+
+}
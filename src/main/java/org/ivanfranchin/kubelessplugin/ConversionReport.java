@@ -0,0 +1,67 @@
+package org.ivanfranchin.kubelessplugin;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Collects the outcome of each function of a conversion. It can be updated concurrently by the tasks of a pool.
+ */
+final class ConversionReport {
+
+    private final List<String> converted = new ArrayList<>();
+    private final List<String> upToDate = new ArrayList<>();
+    private final Map<String, String> skipped = new LinkedHashMap<>();
+    private final Map<String, String> failed = new LinkedHashMap<>();
+
+    synchronized void converted(String functionName) {
+        converted.add(functionName);
+    }
+
+    synchronized void upToDate(String functionName) {
+        upToDate.add(functionName);
+    }
+
+    synchronized void skipped(String functionName, String reason) {
+        skipped.put(functionName, reason);
+    }
+
+    synchronized void failed(String functionName, String reason) {
+        failed.put(functionName, reason);
+    }
+
+    synchronized List<String> getConverted() {
+        return new ArrayList<>(converted);
+    }
+
+    synchronized List<String> getUpToDate() {
+        return new ArrayList<>(upToDate);
+    }
+
+    synchronized Map<String, String> getSkipped() {
+        return new LinkedHashMap<>(skipped);
+    }
+
+    synchronized Map<String, String> getFailed() {
+        return new LinkedHashMap<>(failed);
+    }
+
+    synchronized boolean hasFailures() {
+        return !failed.isEmpty();
+    }
+
+    synchronized String getSummary() {
+        return String.format("Converted %d function(s), %d up to date, %d skipped, %d failed",
+                converted.size(), upToDate.size(), skipped.size(), failed.size());
+    }
+
+    synchronized String getFailureMessage() {
+        return failed.entrySet().stream()
+                .map(entry -> String.format("  %s: %s", entry.getKey(), entry.getValue()))
+                .collect(Collectors.joining(System.lineSeparator(),
+                        String.format("Unable to convert %d input Java Class(es):%n", failed.size()), ""));
+    }
+
+}
@@ -0,0 +1,140 @@
+package org.ivanfranchin.kubelessplugin;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * What the resolved dependencies of a function cost at cold start, the bytes of their jars, the number of their
+ * classes and the depth of the transitive closure, checked against budgets. A budget of {@code 0} or less is not
+ * checked.
+ */
+final class DependencyBudget {
+
+    static final class Contributor {
+
+        private final LocalRepositoryResolver.ResolvedArtifact artifact;
+        private final long bytes;
+        private final int numberOfClasses;
+
+        private Contributor(LocalRepositoryResolver.ResolvedArtifact artifact, long bytes, int numberOfClasses) {
+            this.artifact = artifact;
+            this.bytes = bytes;
+            this.numberOfClasses = numberOfClasses;
+        }
+
+        String getCoordinates() {
+            return artifact.getCoordinates();
+        }
+
+        long getBytes() {
+            return bytes;
+        }
+
+        int getNumberOfClasses() {
+            return numberOfClasses;
+        }
+
+        int getDepth() {
+            return artifact.getDepth();
+        }
+    }
+
+    private final long maxBytes;
+    private final int maxClasses;
+    private final int maxDepth;
+    private final List<Contributor> contributors = new ArrayList<>();
+    private long totalBytes;
+    private int totalClasses;
+    private int depth;
+
+    private DependencyBudget(long maxBytes, int maxClasses, int maxDepth) {
+        this.maxBytes = maxBytes;
+        this.maxClasses = maxClasses;
+        this.maxDepth = maxDepth;
+    }
+
+    static DependencyBudget analyze(LocalRepositoryResolver.Resolution resolution, long maxBytes, int maxClasses,
+                                    int maxDepth) throws IOException {
+        final DependencyBudget budget = new DependencyBudget(maxBytes, maxClasses, maxDepth);
+        for (LocalRepositoryResolver.ResolvedArtifact artifact : resolution.getArtifacts()) {
+            final Contributor contributor = new Contributor(artifact, artifact.getFile().length(),
+                    JarPackageIndex.getNumberOfClasses(artifact.getFile()));
+            budget.contributors.add(contributor);
+            budget.totalBytes += contributor.bytes;
+            budget.totalClasses += contributor.numberOfClasses;
+        }
+        budget.depth = resolution.getMaxDepth();
+        budget.contributors.sort(Comparator.comparingLong(Contributor::getBytes).reversed()
+                .thenComparing(Contributor::getCoordinates));
+        return budget;
+    }
+
+    long getTotalBytes() {
+        return totalBytes;
+    }
+
+    int getTotalClasses() {
+        return totalClasses;
+    }
+
+    int getDepth() {
+        return depth;
+    }
+
+    /**
+     * The dependencies, largest jar first.
+     */
+    List<Contributor> getContributors() {
+        return contributors;
+    }
+
+    /**
+     * One message per budget exceeded, empty when the dependencies are within all the budgets.
+     */
+    List<String> getViolations() {
+        final List<String> violations = new ArrayList<>();
+        if (maxBytes > 0 && totalBytes > maxBytes) {
+            violations.add(String.format("%d bytes of jars exceed maxDependencyBytes %d", totalBytes, maxBytes));
+        }
+        if (maxClasses > 0 && totalClasses > maxClasses) {
+            violations.add(String.format("%d classes exceed maxClasses %d", totalClasses, maxClasses));
+        }
+        if (maxDepth > 0 && depth > maxDepth) {
+            violations.add(String.format("a transitive closure depth of %d exceeds maxDependencyDepth %d", depth, maxDepth));
+        }
+        return violations;
+    }
+
+    /**
+     * The totals next to their budgets, the budgets exceeded and the {@code numberOfLargest} largest dependencies.
+     */
+    List<String> getReportLines(int numberOfLargest) {
+        final List<String> lines = new ArrayList<>();
+        lines.add(String.format("%-8s %12s  %s", "", "total", "budget"));
+        lines.add(String.format("%-8s %12d  %s", "bytes", totalBytes, describe(maxBytes)));
+        lines.add(String.format("%-8s %12d  %s", "classes", totalClasses, describe(maxClasses)));
+        lines.add(String.format("%-8s %12d  %s", "depth", depth, describe(maxDepth)));
+        for (String violation : getViolations()) {
+            lines.add("exceeded: " + violation);
+        }
+        if (!contributors.isEmpty()) {
+            lines.add(String.format("largest %d of %d dependencies:", Math.min(numberOfLargest, contributors.size()), contributors.size()));
+            final String rowFormat = "%12s  %6s  %7s  %5s  %s";
+            lines.add(String.format(rowFormat, "bytes", "share", "classes", "depth", "dependency"));
+            for (Contributor contributor : contributors.subList(0, Math.min(numberOfLargest, contributors.size()))) {
+                lines.add(String.format(rowFormat, contributor.bytes,
+                        totalBytes == 0 ? "-" : String.format(Locale.ROOT, "%.1f%%", contributor.bytes * 100.0 / totalBytes),
+                        contributor.numberOfClasses, contributor.getDepth(), contributor.getCoordinates()));
+            }
+        }
+        return lines;
+    }
+
+    private static String describe(long budget) {
+        return budget > 0 ? String.valueOf(budget) : "none";
+    }
+
+}
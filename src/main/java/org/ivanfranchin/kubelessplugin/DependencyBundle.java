@@ -0,0 +1,231 @@
+package org.ivanfranchin.kubelessplugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.GregorianCalendar;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Packs the resolved dependency jars of a function into a bundle the runtime can mount instead of resolving the
+ * dependencies when the pod starts. The bundle is either a {@code lib/} folder or a zip file with the same layout.
+ * Its name carries a digest of the coordinates and contents of the jars, so an existing bundle with the expected
+ * name is never written again, and bundles of previous dependency sets are deleted. The bundle has a manifest,
+ * {@code bundle-manifest.txt}, with one line per jar: coordinates, SHA-256 and file name. The same manifest, preceded
+ * by the name of the current bundle, is written to {@code dependency-bundle.txt} in the output folder of the function.
+ */
+final class DependencyBundle {
+
+    enum Layout {
+        DIRECTORY, ZIP
+    }
+
+    static final String BUNDLE_PREFIX = "dependency-bundle-";
+    static final String MANIFEST_FILE = "bundle-manifest.txt";
+    static final String POINTER_FILE = "dependency-bundle.txt";
+    private static final String POINTER_PREFIX = "bundle: ";
+
+    private final String name;
+    private final byte[] manifest;
+    private final Map<String, File> files;
+
+    private DependencyBundle(String name, byte[] manifest, Map<String, File> files) {
+        this.name = name;
+        this.manifest = manifest;
+        this.files = files;
+    }
+
+    /**
+     * Describes the bundle of {@code artifacts}, sorted by coordinates so the order of the dependencies in the
+     * generated pom.xml does not change the bundle.
+     */
+    static DependencyBundle of(List<LocalRepositoryResolver.ResolvedArtifact> artifacts, Layout layout) throws IOException {
+        final List<LocalRepositoryResolver.ResolvedArtifact> sortedArtifacts = new ArrayList<>(artifacts);
+        sortedArtifacts.sort(Comparator.comparing(LocalRepositoryResolver.ResolvedArtifact::getCoordinates));
+
+        final Set<String> fileNames = new HashSet<>();
+        final Set<String> duplicateFileNames = sortedArtifacts.stream()
+                .map(DependencyBundle::getFileName)
+                .filter(fileName -> !fileNames.add(fileName))
+                .collect(Collectors.toSet());
+
+        final StringBuilder manifest = new StringBuilder();
+        final Map<String, File> files = new LinkedHashMap<>();
+        for (LocalRepositoryResolver.ResolvedArtifact artifact : sortedArtifacts) {
+            final String fileName = duplicateFileNames.contains(getFileName(artifact))
+                    ? artifact.getGroupId() + "." + getFileName(artifact) : getFileName(artifact);
+            files.put(LIB_FOLDER + "/" + fileName, artifact.getFile());
+            manifest.append(String.format("%s %s %s/%s\n", artifact.getCoordinates(), getDigest(artifact.getFile()), LIB_FOLDER, fileName));
+        }
+        final byte[] manifestBytes = manifest.toString().getBytes(StandardCharsets.UTF_8);
+        final String digest = Fingerprint.toHex(Fingerprint.newSha256().digest(manifestBytes));
+        final String name = BUNDLE_PREFIX + digest.substring(0, DIGEST_LENGTH) + (layout == Layout.ZIP ? ".zip" : "");
+        return new DependencyBundle(name, manifestBytes, files);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    int getNumberOfJars() {
+        return files.size();
+    }
+
+    /**
+     * Jars of the bundle by their path in it, e.g. {@code lib/guava-28.2-jre.jar}, in the order of the manifest.
+     */
+    Map<String, File> getFiles() {
+        return Collections.unmodifiableMap(files);
+    }
+
+    /**
+     * Writes the bundle in {@code outputDirectory} unless it is already there, and deletes the bundles of other
+     * dependency sets.
+     *
+     * @return {@code true} if the bundle was written
+     */
+    boolean writeTo(File outputDirectory) throws IOException {
+        final Path target = outputDirectory.toPath().resolve(name);
+        boolean written = false;
+        if (!Files.exists(target)) {
+            if (name.endsWith(".zip")) {
+                OutputFiles.writeIfChanged(target, this::writeZip);
+            } else {
+                writeDirectory(target);
+            }
+            written = true;
+        }
+        deleteOtherBundles(outputDirectory.toPath(), name);
+        final byte[] pointer = (POINTER_PREFIX + name + "\n").getBytes(StandardCharsets.UTF_8);
+        final byte[] pointerFileContent = new byte[pointer.length + manifest.length];
+        System.arraycopy(pointer, 0, pointerFileContent, 0, pointer.length);
+        System.arraycopy(manifest, 0, pointerFileContent, pointer.length, manifest.length);
+        OutputFiles.writeIfChanged(outputDirectory.toPath().resolve(POINTER_FILE), pointerFileContent);
+        return written;
+    }
+
+    /**
+     * Builds the folder next to its final location and renames it, so a folder with the bundle name is complete.
+     */
+    private void writeDirectory(Path target) throws IOException {
+        final Path temporaryDirectory = Files.createTempDirectory(target.getParent(), name + ".");
+        try (FileHandles.Permit ignored = FileHandles.acquire()) {
+            Files.createDirectories(temporaryDirectory.resolve(LIB_FOLDER));
+            for (Map.Entry<String, File> entry : files.entrySet()) {
+                Files.copy(entry.getValue().toPath(), temporaryDirectory.resolve(entry.getKey()), StandardCopyOption.COPY_ATTRIBUTES);
+            }
+            Files.write(temporaryDirectory.resolve(MANIFEST_FILE), manifest);
+            try {
+                Files.move(temporaryDirectory, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                if (!Files.exists(target)) {
+                    throw e;
+                }
+                // another execution wrote the same bundle in the meantime
+            }
+        } finally {
+            OutputFiles.deleteRecursively(temporaryDirectory);
+        }
+    }
+
+    /**
+     * Entries are written in a fixed order with a fixed time and without compression, jars being compressed already,
+     * so the same dependency set always gives the same zip file.
+     */
+    private void writeZip(OutputStream outputStream) throws IOException {
+        final ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream);
+        zipOutputStream.setLevel(Deflater.NO_COMPRESSION);
+        putZipEntry(zipOutputStream, MANIFEST_FILE);
+        zipOutputStream.write(manifest);
+        zipOutputStream.closeEntry();
+        putZipEntry(zipOutputStream, LIB_FOLDER + "/");
+        zipOutputStream.closeEntry();
+        for (Map.Entry<String, File> entry : files.entrySet()) {
+            putZipEntry(zipOutputStream, entry.getKey());
+            Files.copy(entry.getValue().toPath(), zipOutputStream);
+            zipOutputStream.closeEntry();
+        }
+        zipOutputStream.finish();
+    }
+
+    private static void putZipEntry(ZipOutputStream zipOutputStream, String entryName) throws IOException {
+        final ZipEntry zipEntry = new ZipEntry(entryName);
+        zipEntry.setTime(ZIP_ENTRY_TIME);
+        zipOutputStream.putNextEntry(zipEntry);
+    }
+
+    /**
+     * Reads the name of the bundle the pointer file written by {@link #writeTo(File)} refers to.
+     */
+    static String readBundleName(Path pointerFile) throws IOException {
+        final List<String> lines = Files.readAllLines(pointerFile, StandardCharsets.UTF_8);
+        if (lines.isEmpty() || !lines.get(0).startsWith(POINTER_PREFIX)) {
+            throw new IOException("Invalid dependency bundle pointer file " + pointerFile);
+        }
+        return lines.get(0).substring(POINTER_PREFIX.length());
+    }
+
+    /**
+     * Deletes the bundles of {@code outputDirectory} but {@code name}.
+     */
+    static void deleteOtherBundles(Path outputDirectory, String name) throws IOException {
+        try (DirectoryStream<Path> bundles = Files.newDirectoryStream(outputDirectory, BUNDLE_PREFIX + "*")) {
+            for (Path bundle : bundles) {
+                if (!bundle.getFileName().toString().equals(name)) {
+                    OutputFiles.deleteRecursively(bundle);
+                }
+            }
+        }
+    }
+
+    private static String getFileName(LocalRepositoryResolver.ResolvedArtifact artifact) {
+        return artifact.getFile().getName();
+    }
+
+    /**
+     * SHA-256 of a jar, computed once per JVM for a given path, size and last modified time.
+     */
+    private static String getDigest(File file) throws IOException {
+        final String key = file.getAbsolutePath() + "@" + file.length() + "@" + file.lastModified();
+        synchronized (DIGESTS) {
+            final String digest = DIGESTS.get(key);
+            if (digest != null) {
+                return digest;
+            }
+        }
+        final String digest = Fingerprint.toHex(OutputFiles.digest(file.toPath()));
+        synchronized (DIGESTS) {
+            DIGESTS.put(key, digest);
+        }
+        return digest;
+    }
+
+    private static final Map<String, String> DIGESTS = new LinkedHashMap<String, String>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MAX_DIGESTS;
+        }
+    };
+    private static final int MAX_DIGESTS = 4096;
+    private static final String LIB_FOLDER = "lib";
+    private static final int DIGEST_LENGTH = 16;
+    // a local date, so the DOS date and time stored in the zip are the same in every time zone
+    static final long ZIP_ENTRY_TIME = new GregorianCalendar(2000, 0, 1).getTimeInMillis();
+
+}
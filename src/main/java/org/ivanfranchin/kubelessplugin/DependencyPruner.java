@@ -0,0 +1,143 @@
+package org.ivanfranchin.kubelessplugin;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.expr.FieldAccessExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import org.apache.maven.model.Dependency;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps only the dependencies that provide a package referenced by the input Java Class, either through its imports
+ * or through fully qualified names in its body. The packages of each dependency are read from its jar in the local
+ * repository. A dependency is kept, whatever its packages, when its scope is {@code runtime} (it is not meant to be
+ * referenced from code), when it is not a jar, or when its jar cannot be found.
+ */
+final class DependencyPruner {
+
+    static final class Result {
+
+        private final List<Dependency> keptDependencies = new ArrayList<>();
+        private final List<String> reportLines = new ArrayList<>();
+        private int droppedDependencies;
+
+        List<Dependency> getKeptDependencies() {
+            return keptDependencies;
+        }
+
+        List<String> getReportLines() {
+            return reportLines;
+        }
+
+        int getDroppedDependencies() {
+            return droppedDependencies;
+        }
+
+        private void kept(Dependency dependency, String reason) {
+            keptDependencies.add(dependency);
+            reportLines.add(String.format("kept    %s (%s)", toCoordinates(dependency), reason));
+        }
+
+        private void dropped(Dependency dependency) {
+            droppedDependencies++;
+            reportLines.add(String.format("dropped %s (no package referenced by the function)", toCoordinates(dependency)));
+        }
+    }
+
+    private final File localRepository;
+
+    DependencyPruner(File localRepository) {
+        this.localRepository = localRepository;
+    }
+
+    Result prune(CompilationUnit compilationUnit, List<Dependency> dependencies) throws IOException {
+        final Set<String> referencedNames = getReferencedNames(compilationUnit);
+        final Result result = new Result();
+        for (Dependency dependency : dependencies) {
+            if (RUNTIME_SCOPE.equals(dependency.getScope())) {
+                result.kept(dependency, "runtime scope");
+                continue;
+            }
+            if (dependency.getType() != null && !JAR_TYPE.equals(dependency.getType())) {
+                result.kept(dependency, "type " + dependency.getType());
+                continue;
+            }
+            final File jarFile = getJarFile(dependency);
+            if (!jarFile.isFile()) {
+                result.kept(dependency, "jar not found in local repository");
+                continue;
+            }
+            final String referencedPackage = findReferencedPackage(referencedNames, JarPackageIndex.getPackages(jarFile));
+            if (referencedPackage != null) {
+                result.kept(dependency, "provides " + referencedPackage);
+            } else {
+                result.dropped(dependency);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the dotted names the input Java Class refers to: imports, qualified types and qualified expressions,
+     * plus its own package, whose classes are used without import.
+     */
+    static Set<String> getReferencedNames(CompilationUnit compilationUnit) {
+        final Set<String> names = new HashSet<>();
+        compilationUnit.getPackageDeclaration().ifPresent(p -> names.add(p.getNameAsString()));
+        for (ImportDeclaration importDeclaration : compilationUnit.getImports()) {
+            names.add(importDeclaration.getNameAsString());
+        }
+        compilationUnit.findAll(ClassOrInterfaceType.class).stream()
+                .filter(type -> type.getScope().isPresent())
+                .forEach(type -> names.add(type.getScope().get().asString() + "." + type.getNameAsString()));
+        compilationUnit.findAll(FieldAccessExpr.class).forEach(expr -> names.add(expr.toString()));
+        compilationUnit.findAll(MethodCallExpr.class).stream()
+                .filter(expr -> expr.getScope().isPresent())
+                .forEach(expr -> names.add(expr.getScope().get().toString()));
+        return names;
+    }
+
+    /**
+     * Returns the first package of {@code packages} that is one of {@code referencedNames} or a prefix of one of them.
+     */
+    private static String findReferencedPackage(Set<String> referencedNames, Set<String> packages) {
+        for (String name : referencedNames) {
+            if (packages.contains(name)) {
+                return name;
+            }
+            int dot = name.lastIndexOf('.');
+            while (dot > 0) {
+                final String prefix = name.substring(0, dot);
+                if (packages.contains(prefix)) {
+                    return prefix;
+                }
+                dot = prefix.lastIndexOf('.');
+            }
+        }
+        return null;
+    }
+
+    private File getJarFile(Dependency dependency) {
+        final String classifier = dependency.getClassifier() == null || dependency.getClassifier().isEmpty()
+                ? "" : "-" + dependency.getClassifier();
+        final String path = String.join(File.separator, dependency.getGroupId().replace('.', File.separatorChar),
+                dependency.getArtifactId(), String.valueOf(dependency.getVersion()),
+                dependency.getArtifactId() + "-" + dependency.getVersion() + classifier + ".jar");
+        return new File(localRepository, path);
+    }
+
+    static String toCoordinates(Dependency dependency) {
+        return String.join(":", dependency.getGroupId(), dependency.getArtifactId(), String.valueOf(dependency.getVersion()));
+    }
+
+    private static final String RUNTIME_SCOPE = "runtime";
+    private static final String JAR_TYPE = "jar";
+
+}
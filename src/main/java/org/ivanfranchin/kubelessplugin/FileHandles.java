@@ -0,0 +1,62 @@
+package org.ivanfranchin.kubelessplugin;
+
+import java.io.Closeable;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Process-wide cap on the files the plugin has open at the same time, shared by every execution in the same JVM,
+ * e.g. the modules of a {@code mvn -T} build. Code that opens files holds a permit while they are open; a thread that
+ * already holds one does not need another, so nested reads and writes never wait on themselves and a thread keeps
+ * at most a few files open under its permit. The number of permits is {@value #DEFAULT_MAX_OPEN_FILES} unless the
+ * {@code kubeless.maxOpenFiles} system property says otherwise.
+ */
+final class FileHandles {
+
+    static final int DEFAULT_MAX_OPEN_FILES = 64;
+    static final int MAX_OPEN_FILES = Math.max(1, Integer.getInteger("kubeless.maxOpenFiles", DEFAULT_MAX_OPEN_FILES));
+
+    interface Permit extends Closeable {
+        @Override
+        void close();
+    }
+
+    private static final Semaphore PERMITS = new Semaphore(MAX_OPEN_FILES, true);
+    private static final ThreadLocal<int[]> HOLD_COUNT = ThreadLocal.withInitial(() -> new int[1]);
+    private static final Permit NESTED_PERMIT = () -> HOLD_COUNT.get()[0]--;
+
+    private FileHandles() {
+    }
+
+    /**
+     * Waits for a permit, unless the current thread already holds one. The permit is released when the returned
+     * {@link Permit} is closed, so it is meant for try-with-resources.
+     */
+    static Permit acquire() throws InterruptedIOException {
+        final int[] holdCount = HOLD_COUNT.get();
+        if (holdCount[0] > 0) {
+            holdCount[0]++;
+            return NESTED_PERMIT;
+        }
+        try {
+            PERMITS.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a file handle");
+        }
+        holdCount[0] = 1;
+        return () -> {
+            if (--holdCount[0] == 0) {
+                PERMITS.release();
+            }
+        };
+    }
+
+    /**
+     * The permits not held by any thread right now.
+     */
+    static int getAvailablePermits() {
+        return PERMITS.availablePermits();
+    }
+
+}
@@ -0,0 +1,81 @@
+package org.ivanfranchin.kubelessplugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Accumulates a SHA-256 digest over labelled inputs (files, classpath resources and plain values).
+ * Each entry is prefixed with its label, so moving the same bytes from one input to another changes the result.
+ */
+final class Fingerprint {
+
+    private final MessageDigest messageDigest;
+
+    Fingerprint() {
+        messageDigest = newSha256();
+    }
+
+    Fingerprint add(String label, String value) {
+        addLabel(label);
+        messageDigest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        return this;
+    }
+
+    Fingerprint add(String label, byte[] content) {
+        addLabel(label);
+        messageDigest.update(content);
+        return this;
+    }
+
+    Fingerprint add(String label, File file) throws IOException {
+        try (FileHandles.Permit ignored = FileHandles.acquire();
+             InputStream inputStream = Files.newInputStream(file.toPath())) {
+            return add(label, inputStream);
+        }
+    }
+
+    Fingerprint add(String label, InputStream inputStream) throws IOException {
+        addLabel(label);
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            messageDigest.update(buffer, 0, read);
+        }
+        return this;
+    }
+
+    String toHex() {
+        return toHex(messageDigest.digest());
+    }
+
+    private void addLabel(String label) {
+        messageDigest.update((byte) 0);
+        messageDigest.update(label.getBytes(StandardCharsets.UTF_8));
+        messageDigest.update((byte) 0);
+    }
+
+    static String toHex(byte[] bytes) {
+        final StringBuilder stringBuilder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            stringBuilder.append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+        }
+        return stringBuilder.toString();
+    }
+
+    static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available in this JVM", e);
+        }
+    }
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+}
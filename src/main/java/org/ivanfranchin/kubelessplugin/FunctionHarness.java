@@ -0,0 +1,263 @@
+package org.ivanfranchin.kubelessplugin;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs a Kubeless Function in the current JVM. The input Java Class is compiled against its dependency jars and
+ * against stand-ins of the {@code io.kubeless.Event} and {@code io.kubeless.Context} classes of the Kubeless runtime,
+ * the compiled classes are packed in jars, and the handler method is called through a class loader of its own, which
+ * records the name of every class the function asks for.
+ */
+final class FunctionHarness implements Closeable {
+
+    static final class CompilationException extends Exception {
+
+        CompilationException(String message) {
+            super(message);
+        }
+    }
+
+    private final List<File> classPath;
+    private final RecordingClassLoader classLoader;
+    private final MethodHandle handlerMethod;
+    private final Constructor<?> eventConstructor;
+    private final Object context;
+
+    private FunctionHarness(List<File> classPath, RecordingClassLoader classLoader, MethodHandle handlerMethod,
+                            Constructor<?> eventConstructor, Object context) {
+        this.classPath = classPath;
+        this.classLoader = classLoader;
+        this.handlerMethod = handlerMethod;
+        this.eventConstructor = eventConstructor;
+        this.context = context;
+    }
+
+    /**
+     * Compiles {@code function} in {@code workDirectory} and loads it. The jars are only written again when their
+     * content changes, so they keep their last modified time, which class data sharing archives check.
+     *
+     * @param contextValues function name, timeout, runtime and memory limit given to the handler
+     */
+    static FunctionHarness create(KubelessFunction function, List<File> dependencyJars, File workDirectory,
+                                  String... contextValues) throws IOException, CompilationException, ReflectiveOperationException {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new CompilationException("No Java compiler available, Maven must run on a JDK: " + System.getProperty("java.home"));
+        }
+        final Path workPath = workDirectory.toPath();
+        Files.createDirectories(workPath);
+
+        final Path stubSources = workPath.resolve("stubs-sources");
+        final List<File> stubFiles = new ArrayList<>();
+        for (String stubName : STUB_NAMES) {
+            final Path stubFile = stubSources.resolve(STUB_FOLDER).resolve(stubName + ".java");
+            Files.createDirectories(stubFile.getParent());
+            try (InputStream inputStream = FunctionHarness.class.getResourceAsStream("/stubs/" + STUB_FOLDER + "/" + stubName + ".java")) {
+                OutputFiles.writeIfChanged(stubFile, outputStream -> copy(inputStream, outputStream));
+            }
+            stubFiles.add(stubFile.toFile());
+        }
+        final Path stubClasses = workPath.resolve("stubs-classes");
+        compile(compiler, stubFiles, Collections.emptyList(), stubClasses);
+        final File stubsJar = workPath.resolve(STUBS_JAR).toFile();
+        writeJar(stubClasses, stubsJar.toPath());
+
+        final List<File> compileClassPath = new ArrayList<>(dependencyJars);
+        compileClassPath.add(stubsJar);
+        final Path functionClasses = workPath.resolve("function-classes");
+        compile(compiler, Collections.singletonList(function.getInputJavaClassFile()), compileClassPath, functionClasses);
+        final File functionJar = workPath.resolve(function.getName() + ".jar").toFile();
+        writeJar(functionClasses, functionJar.toPath());
+
+        final List<File> classPath = new ArrayList<>();
+        classPath.add(functionJar);
+        classPath.add(stubsJar);
+        classPath.addAll(dependencyJars);
+        final URL[] urls = new URL[classPath.size()];
+        for (int i = 0; i < urls.length; i++) {
+            urls[i] = classPath.get(i).toURI().toURL();
+        }
+        final RecordingClassLoader classLoader = new RecordingClassLoader(urls);
+        try {
+            final Class<?> functionClass = Class.forName(PKG_NAME_IO_KUBELESS + "." + function.getName(), true, classLoader);
+            final Class<?> eventClass = Class.forName(PKG_NAME_IO_KUBELESS + ".Event", true, classLoader);
+            final Class<?> contextClass = Class.forName(PKG_NAME_IO_KUBELESS + ".Context", true, classLoader);
+            final Method handlerMethod = functionClass.getMethod(function.getHandlerMethodName(), eventClass, contextClass);
+            final Object instance = functionClass.getConstructor().newInstance();
+            final Object context = contextClass.getConstructor(String.class, String.class, String.class, String.class)
+                    .newInstance((Object[]) Arrays.copyOf(contextValues, 4));
+            final MethodHandle boundHandlerMethod = MethodHandles.publicLookup().unreflect(handlerMethod).bindTo(instance)
+                    .asType(MethodType.methodType(Object.class, Object.class, Object.class));
+            return new FunctionHarness(classPath, classLoader, boundHandlerMethod,
+                    eventClass.getConstructor(String.class, String.class, String.class, String.class, String.class), context);
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            classLoader.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Creates the {@code io.kubeless.Event} given to {@link #invoke(Object)}, outside of the call so its cost is not
+     * counted in the invocation.
+     */
+    Object newEvent(String data, String eventId, String eventType, String eventTime, String eventNamespace)
+            throws ReflectiveOperationException {
+        return eventConstructor.newInstance(data, eventId, eventType, eventTime, eventNamespace);
+    }
+
+    /**
+     * Calls the handler method with {@code event}, with the class loader of the function as context class loader.
+     * The call goes through a method handle bound to the function instance, so it allocates nothing by itself.
+     *
+     * @throws InvocationTargetException if the handler method throws
+     */
+    String invoke(Object event) throws InvocationTargetException {
+        final Thread thread = Thread.currentThread();
+        final ClassLoader previousClassLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(classLoader);
+        try {
+            final Object result = (Object) handlerMethod.invokeExact(event, context);
+            return (String) result;
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        } finally {
+            thread.setContextClassLoader(previousClassLoader);
+        }
+    }
+
+    /**
+     * The function jar, the jar of the {@code io.kubeless} stand-ins and the dependency jars, in class path order.
+     */
+    List<File> getClassPath() {
+        return classPath;
+    }
+
+    /**
+     * The classes requested by the function so far, JDK classes included, in the order they were first loaded.
+     */
+    List<String> getLoadedClassNames() {
+        synchronized (classLoader.loadedClassNames) {
+            return new ArrayList<>(classLoader.loadedClassNames);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        classLoader.close();
+    }
+
+    /**
+     * Loads the classes of the function and its dependencies, delegating the other ones to the parent of the system
+     * class loader, so the classes of Maven and of the plugin are not visible to the function.
+     */
+    private static final class RecordingClassLoader extends URLClassLoader {
+
+        private final Set<String> loadedClassNames = new LinkedHashSet<>();
+
+        private RecordingClassLoader(URL[] urls) {
+            super(urls, ClassLoader.getSystemClassLoader().getParent());
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            final Class<?> loadedClass = super.loadClass(name, resolve);
+            synchronized (loadedClassNames) {
+                loadedClassNames.add(name);
+            }
+            return loadedClass;
+        }
+
+        static {
+            ClassLoader.registerAsParallelCapable();
+        }
+    }
+
+    private static void compile(JavaCompiler compiler, List<File> sourceFiles, List<File> classPath, Path classesDirectory)
+            throws IOException, CompilationException {
+        OutputFiles.deleteRecursively(classesDirectory);
+        Files.createDirectories(classesDirectory);
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, Locale.ROOT, StandardCharsets.UTF_8)) {
+            final List<String> options = new ArrayList<>(Arrays.asList("-d", classesDirectory.toString(), "-proc:none",
+                    "-encoding", StandardCharsets.UTF_8.name(), "-nowarn"));
+            options.add("-classpath");
+            options.add(classPath.stream().map(File::getAbsolutePath).collect(Collectors.joining(File.pathSeparator)));
+            final Boolean compiled = compiler.getTask(null, fileManager, diagnostics, options, null,
+                    fileManager.getJavaFileObjectsFromFiles(sourceFiles)).call();
+            if (!Boolean.TRUE.equals(compiled)) {
+                throw new CompilationException(diagnostics.getDiagnostics().stream()
+                        .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                        .map(diagnostic -> diagnostic.getMessage(Locale.ROOT))
+                        .collect(Collectors.joining(System.lineSeparator(), "Unable to compile " + sourceFiles + ":" + System.lineSeparator(), "")));
+            }
+        }
+    }
+
+    /**
+     * Packs {@code classesDirectory} with entries in a fixed order and with a fixed time, so the same classes always
+     * give the same jar.
+     */
+    private static void writeJar(Path classesDirectory, Path jarFile) throws IOException {
+        final List<Path> classFiles;
+        try (Stream<Path> paths = Files.walk(classesDirectory)) {
+            classFiles = paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        OutputFiles.writeIfChanged(jarFile, outputStream -> {
+            final JarOutputStream jarOutputStream = new JarOutputStream(outputStream);
+            for (Path classFile : classFiles) {
+                final JarEntry jarEntry = new JarEntry(classesDirectory.relativize(classFile).toString().replace(File.separatorChar, '/'));
+                jarEntry.setTime(DependencyBundle.ZIP_ENTRY_TIME);
+                jarOutputStream.putNextEntry(jarEntry);
+                Files.copy(classFile, jarOutputStream);
+                jarOutputStream.closeEntry();
+            }
+            jarOutputStream.finish();
+        });
+    }
+
+    private static void copy(InputStream inputStream, OutputStream outputStream) throws IOException {
+        final byte[] buffer = new byte[4096];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, read);
+        }
+    }
+
+    private static final String PKG_NAME_IO_KUBELESS = "io.kubeless";
+    private static final String STUB_FOLDER = "io/kubeless";
+    private static final List<String> STUB_NAMES = Arrays.asList("Event", "Context");
+    private static final String STUBS_JAR = "kubeless-stubs.jar";
+
+}
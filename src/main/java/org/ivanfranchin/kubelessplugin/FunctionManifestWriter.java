@@ -0,0 +1,299 @@
+package org.ivanfranchin.kubelessplugin;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a Kubeless {@code Function} custom resource, with the function source and its dependencies inline, so the
+ * function is deployed with a single {@code kubectl apply}. The resource is built as a tree of maps, lists and
+ * strings, which is then streamed as YAML or JSON.
+ */
+final class FunctionManifestWriter {
+
+    enum Format {
+        YAML("yaml"), JSON("json");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        String getExtension() {
+            return extension;
+        }
+    }
+
+    private FunctionManifestWriter() {
+    }
+
+    /**
+     * Builds the {@code Function} resource. When {@code compressionThreshold} is positive and the source is larger
+     * than it, the source is sent as a base64 encoded {@code .tar.gz} archive instead of plain text.
+     */
+    static Map<String, Object> build(String name, String namespace, String runtime, String handler, String timeout,
+                                     String sourceFileName, byte[] source, byte[] deps, int compressionThreshold,
+                                     Map<String, String> resourceRequests, Map<String, String> resourceLimits)
+            throws IOException {
+        final String functionName = toResourceName(name);
+
+        final Map<String, Object> labels = new LinkedHashMap<>();
+        labels.put("created-by", "kubeless");
+        labels.put("function", functionName);
+
+        final Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("name", functionName);
+        if (namespace != null && !namespace.trim().isEmpty()) {
+            metadata.put("namespace", namespace.trim());
+        }
+        metadata.put("labels", labels);
+
+        final Map<String, Object> spec = new LinkedHashMap<>();
+        spec.put("runtime", runtime);
+        spec.put("handler", handler);
+        spec.put("timeout", timeout);
+        if (compressionThreshold > 0 && source.length > compressionThreshold) {
+            final byte[] archive = toCompressedTar(sourceFileName, source);
+            spec.put("function-content-type", "base64+compressedtar");
+            spec.put("checksum", "sha256:" + Fingerprint.toHex(Fingerprint.newSha256().digest(archive)));
+            spec.put("function", Base64.getEncoder().encodeToString(archive));
+        } else {
+            spec.put("function-content-type", "text");
+            spec.put("checksum", "sha256:" + Fingerprint.toHex(Fingerprint.newSha256().digest(source)));
+            spec.put("function", new String(source, StandardCharsets.UTF_8));
+        }
+        spec.put("deps", new String(deps, StandardCharsets.UTF_8));
+        spec.put("service", buildService(labels));
+
+        final Map<String, Object> resources = new LinkedHashMap<>();
+        if (resourceRequests != null && !resourceRequests.isEmpty()) {
+            resources.put("requests", new TreeMap<String, Object>(resourceRequests));
+        }
+        if (resourceLimits != null && !resourceLimits.isEmpty()) {
+            resources.put("limits", new TreeMap<String, Object>(resourceLimits));
+        }
+        if (!resources.isEmpty()) {
+            spec.put("deployment", singletonMap("spec", singletonMap("template", singletonMap("spec",
+                    singletonMap("containers", Collections.singletonList(singletonMap("resources", resources)))))));
+        }
+
+        final Map<String, Object> function = new LinkedHashMap<>();
+        function.put("apiVersion", "kubeless.io/v1beta1");
+        function.put("kind", "Function");
+        function.put("metadata", metadata);
+        function.put("spec", spec);
+        return function;
+    }
+
+    static void write(Map<String, Object> resource, Format format, Writer writer) throws IOException {
+        if (format == Format.JSON) {
+            JsonWriter.write(resource, writer);
+        } else {
+            writeYamlMap(resource, writer, 0);
+        }
+        writer.write('\n');
+        writer.flush();
+    }
+
+    private static Map<String, Object> buildService(Map<String, Object> labels) {
+        final Map<String, Object> port = new LinkedHashMap<>();
+        port.put("name", "http-function-port");
+        port.put("port", FUNCTION_PORT);
+        port.put("protocol", "TCP");
+        port.put("targetPort", FUNCTION_PORT);
+
+        final Map<String, Object> service = new LinkedHashMap<>();
+        service.put("ports", Collections.singletonList(port));
+        service.put("selector", labels);
+        service.put("type", "ClusterIP");
+        return service;
+    }
+
+    /**
+     * Kubernetes names are lower case alphanumeric characters or {@code -}, starting and ending with an alphanumeric.
+     */
+    static String toResourceName(String name) {
+        final String resourceName = name.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-").replaceAll("^-+|-+$", "");
+        return resourceName.isEmpty() ? "function" : resourceName;
+    }
+
+    //-- YAML
+
+    private static void writeYamlMap(Map<?, ?> map, Writer writer, int indent) throws IOException {
+        boolean first = true;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (!first) {
+                writer.write('\n');
+                writeIndent(writer, indent);
+            }
+            first = false;
+            writer.write(String.valueOf(entry.getKey()));
+            writer.write(':');
+            writeYamlValue(entry.getValue(), writer, indent);
+        }
+    }
+
+    private static void writeYamlValue(Object value, Writer writer, int indent) throws IOException {
+        if (value instanceof Map) {
+            writer.write('\n');
+            writeIndent(writer, indent + 2);
+            writeYamlMap((Map<?, ?>) value, writer, indent + 2);
+        } else if (value instanceof List) {
+            for (Object item : (List<?>) value) {
+                writer.write('\n');
+                writeIndent(writer, indent);
+                writer.write("- ");
+                if (item instanceof Map) {
+                    writeYamlMap((Map<?, ?>) item, writer, indent + 2);
+                } else {
+                    writeYamlScalar(String.valueOf(item), writer, indent);
+                }
+            }
+        } else if (value instanceof Number) {
+            writer.write(' ');
+            writer.write(value.toString());
+        } else {
+            writer.write(' ');
+            writeYamlScalar(String.valueOf(value), writer, indent + 2);
+        }
+    }
+
+    /**
+     * Multi-line values are written as literal block scalars, so the function source stays readable in the manifest.
+     * Values a block scalar cannot hold exactly, e.g. with carriage returns or control characters, and values that
+     * could be read as another type are written as double quoted strings, whose escapes are the same as JSON ones.
+     */
+    private static void writeYamlScalar(String value, Writer writer, int indent) throws IOException {
+        if (value.indexOf('\n') >= 0 && isBlockSafe(value)) {
+            writeYamlBlock(value, writer, indent);
+        } else if (isPlainSafe(value)) {
+            writer.write(value);
+        } else {
+            JsonWriter.writeString(value, writer);
+        }
+    }
+
+    private static void writeYamlBlock(String value, Writer writer, int indent) throws IOException {
+        writer.write('|');
+        if (value.charAt(0) == ' ') {
+            writer.write('2');
+        }
+        if (!value.endsWith("\n")) {
+            writer.write('-');
+        } else if (value.endsWith("\n\n")) {
+            writer.write('+');
+        }
+        final String content = value.endsWith("\n") ? value.substring(0, value.length() - 1) : value;
+        int start = 0;
+        while (start <= content.length()) {
+            int end = content.indexOf('\n', start);
+            if (end < 0) {
+                end = content.length();
+            }
+            writer.write('\n');
+            if (end > start) {
+                writeIndent(writer, indent);
+                writer.write(content, start, end - start);
+            }
+            start = end + 1;
+        }
+    }
+
+    private static boolean isBlockSafe(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if ((c < 0x20 && c != '\n' && c != '\t') || c == 0x7F || c == '\uFEFF') {
+                return false;
+            }
+        }
+        return !value.startsWith("\n");
+    }
+
+    private static boolean isPlainSafe(String value) {
+        if (value.isEmpty() || !Character.isLetter(value.charAt(0))
+                || "true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)
+                || "null".equalsIgnoreCase(value) || "yes".equalsIgnoreCase(value) || "no".equalsIgnoreCase(value)
+                || "on".equalsIgnoreCase(value) || "off".equalsIgnoreCase(value)) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (!Character.isLetterOrDigit(c) && PLAIN_SAFE_CHARACTERS.indexOf(c) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeIndent(Writer writer, int indent) throws IOException {
+        for (int i = 0; i < indent; i++) {
+            writer.write(' ');
+        }
+    }
+
+    //-- Compression
+
+    /**
+     * Packs {@code content} as the only entry of a gzip compressed POSIX tar archive. Ownership and modification time
+     * are left at zero, so the same content always gives the same archive and checksum.
+     */
+    static byte[] toCompressedTar(String entryName, byte[] content) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+            final byte[] header = new byte[TAR_BLOCK_SIZE];
+            putTarField(header, 0, 100, entryName);
+            putTarField(header, 100, 8, "0000644");
+            putTarField(header, 108, 8, "0000000");
+            putTarField(header, 116, 8, "0000000");
+            putTarField(header, 124, 12, String.format("%011o", content.length));
+            putTarField(header, 136, 12, "00000000000");
+            header[156] = '0';
+            putTarField(header, 257, 6, "ustar");
+            putTarField(header, 263, 2, "00");
+            for (int i = 148; i < 156; i++) {
+                header[i] = ' ';
+            }
+            int checksum = 0;
+            for (byte b : header) {
+                checksum += b & 0xFF;
+            }
+            putTarField(header, 148, 8, String.format("%06o", checksum));
+            header[155] = ' ';
+
+            gzipOutputStream.write(header);
+            gzipOutputStream.write(content);
+            final int padding = (TAR_BLOCK_SIZE - content.length % TAR_BLOCK_SIZE) % TAR_BLOCK_SIZE;
+            gzipOutputStream.write(new byte[padding + 2 * TAR_BLOCK_SIZE]);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static void putTarField(byte[] header, int offset, int length, String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > length) {
+            throw new IOException(String.format("The tar entry field '%s' is longer than %d bytes", value, length));
+        }
+        System.arraycopy(bytes, 0, header, offset, bytes.length);
+    }
+
+    private static Map<String, Object> singletonMap(String key, Object value) {
+        final Map<String, Object> map = new LinkedHashMap<>();
+        map.put(key, value);
+        return map;
+    }
+
+    private static final String PLAIN_SAFE_CHARACTERS = ".-_/";
+    private static final int TAR_BLOCK_SIZE = 512;
+    private static final Integer FUNCTION_PORT = 8080;
+
+}
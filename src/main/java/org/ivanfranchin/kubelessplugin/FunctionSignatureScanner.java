@@ -0,0 +1,471 @@
+package org.ivanfranchin.kubelessplugin;
+
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checks whether a Java source declares a Kubeless Function by reading its tokens, without building an AST.
+ * <p>
+ * Only the package declaration, the top-level type declarations and the member declarations of the input Java Class
+ * are looked at; method bodies, initializers and nested types are skipped by counting braces. Once the Kubeless
+ * Function is found, the rest of the source is only read to check that its braces are balanced, so a source that
+ * JavaParser would reject is not reported {@link Status#VALID}. Whenever the source uses a construct the scanner does not handle on its own
+ * (unicode escapes, text blocks, varargs or array parameters, a private or protected top-level class, ...), the
+ * result is {@link Status#AMBIGUOUS} and the caller is expected to parse the source with JavaParser instead.
+ */
+final class FunctionSignatureScanner {
+
+    enum Status {
+        VALID, INVALID_PACKAGE, CLASS_NOT_FOUND, NO_KUBELESS_FUNCTION, AMBIGUOUS
+    }
+
+    static final class Result {
+
+        private final Status status;
+        private final String detail;
+
+        private Result(Status status, String detail) {
+            this.status = status;
+            this.detail = detail;
+        }
+
+        Status getStatus() {
+            return status;
+        }
+
+        /**
+         * The name of the handler method when the status is {@link Status#VALID}, the reason otherwise.
+         */
+        String getDetail() {
+            return detail;
+        }
+    }
+
+    private final PushbackReader reader;
+    private final String javaClassName;
+    private String pushedBackToken;
+
+    private FunctionSignatureScanner(Reader reader, String javaClassName) {
+        this.reader = new PushbackReader(reader, 2);
+        this.javaClassName = javaClassName;
+    }
+
+    static Result scan(Reader reader, String javaClassName) throws IOException {
+        try {
+            return new FunctionSignatureScanner(reader, javaClassName).scanCompilationUnit();
+        } catch (AmbiguousSourceException e) {
+            return new Result(Status.AMBIGUOUS, e.getMessage());
+        }
+    }
+
+    private Result scanCompilationUnit() throws IOException, AmbiguousSourceException {
+        String token = nextToken();
+        if ("@".equals(token)) {
+            throw new AmbiguousSourceException("annotated package declaration");
+        }
+        if (!"package".equals(token) || !PKG_NAME_IO_KUBELESS.equals(readQualifiedName()) || !";".equals(nextToken())) {
+            return new Result(Status.INVALID_PACKAGE, "package is not " + PKG_NAME_IO_KUBELESS);
+        }
+
+        final List<String> modifiers = new ArrayList<>();
+        while ((token = nextToken()) != null) {
+            if ("import".equals(token)) {
+                skipUntil(";");
+            } else if (";".equals(token)) {
+                modifiers.clear();
+            } else if ("@".equals(token)) {
+                if ("interface".equals(skipAnnotation())) {
+                    skipTypeDeclaration(nextToken());
+                    modifiers.clear();
+                }
+            } else if ("class".equals(token)) {
+                final String name = nextToken();
+                if (javaClassName.equals(name)) {
+                    if (modifiers.contains("private") || modifiers.contains("protected")) {
+                        throw new AmbiguousSourceException("top-level class declared " + modifiers);
+                    }
+                    return scanClassBody();
+                }
+                skipTypeDeclaration(name);
+                modifiers.clear();
+            } else if ("interface".equals(token) || "enum".equals(token)) {
+                skipTypeDeclaration(nextToken());
+                modifiers.clear();
+            } else if (TYPE_MODIFIERS.contains(token)) {
+                modifiers.add(token);
+            } else {
+                throw new AmbiguousSourceException("unexpected token '" + token + "' at top level");
+            }
+        }
+        return new Result(Status.CLASS_NOT_FOUND, "class " + javaClassName + " is not declared");
+    }
+
+    private Result scanClassBody() throws IOException, AmbiguousSourceException {
+        skipUntil("{");
+
+        final List<String> member = new ArrayList<>();
+        String token;
+        while ((token = nextToken()) != null) {
+            if ("}".equals(token)) {
+                return new Result(Status.NO_KUBELESS_FUNCTION, "no method matches the Kubeless Function signature");
+            } else if (";".equals(token)) {
+                member.clear();
+            } else if ("{".equals(token)) {
+                skipBalanced("{", "}");
+                member.clear();
+            } else if ("@".equals(token)) {
+                if ("interface".equals(skipAnnotation())) {
+                    skipTypeDeclaration(nextToken());
+                    member.clear();
+                }
+            } else if ("=".equals(token)) {
+                skipFieldInitializer();
+                member.clear();
+            } else if ("class".equals(token) || "interface".equals(token) || "enum".equals(token)) {
+                skipTypeDeclaration(nextToken());
+                member.clear();
+            } else if ("(".equals(token)) {
+                final List<String> parameterTypes = readParameterTypes();
+                final String methodName = getKubelessFunctionName(member, parameterTypes);
+                if (methodName != null) {
+                    skipMethodRest();
+                    checkBalancedBraces();
+                    return new Result(Status.VALID, methodName);
+                }
+                skipMethodRest();
+                member.clear();
+            } else {
+                member.add(token);
+            }
+        }
+        throw new AmbiguousSourceException("unexpected end of source in class " + javaClassName);
+    }
+
+    /**
+     * Returns the name of the method declared by {@code member} if it is a Kubeless Function, i.e, a public method
+     * that returns {@code String} and takes {@code io.kubeless.Event} and {@code io.kubeless.Context}.
+     */
+    private static String getKubelessFunctionName(List<String> member, List<String> parameterTypes) {
+        int index = 0;
+        boolean isPublic = false;
+        while (index < member.size() && MEMBER_MODIFIERS.contains(member.get(index))) {
+            isPublic |= "public".equals(member.get(index));
+            index++;
+        }
+        if (index < member.size() && "<".equals(member.get(index))) {
+            int depth = 0;
+            do {
+                final String token = member.get(index++);
+                if ("<".equals(token)) {
+                    depth++;
+                } else if (">".equals(token)) {
+                    depth--;
+                }
+            } while (depth > 0 && index < member.size());
+        }
+        if (member.size() - index < 2) {
+            return null;
+        }
+        final String returnType = String.join("", member.subList(index, member.size() - 1));
+        final boolean isKubelessFunction = isPublic && "String".equals(returnType)
+                && parameterTypes.size() == 2
+                && EVENT_TYPES.contains(parameterTypes.get(0))
+                && CONTEXT_TYPES.contains(parameterTypes.get(1));
+        return isKubelessFunction ? member.get(member.size() - 1) : null;
+    }
+
+    private List<String> readParameterTypes() throws IOException, AmbiguousSourceException {
+        final List<String> parameterTypes = new ArrayList<>();
+        List<String> parameter = new ArrayList<>();
+        int angleDepth = 0;
+        String token;
+        while (!")".equals(token = requireToken())) {
+            if ("@".equals(token)) {
+                skipAnnotation();
+            } else if ("(".equals(token) || "[".equals(token)) {
+                throw new AmbiguousSourceException("complex parameter declaration");
+            } else if ("<".equals(token)) {
+                angleDepth++;
+                parameter.add(token);
+            } else if (">".equals(token)) {
+                angleDepth--;
+                parameter.add(token);
+            } else if (",".equals(token) && angleDepth == 0) {
+                parameterTypes.add(toParameterType(parameter));
+                parameter = new ArrayList<>();
+            } else if (!"final".equals(token)) {
+                parameter.add(token);
+            }
+        }
+        if (!parameter.isEmpty()) {
+            parameterTypes.add(toParameterType(parameter));
+        }
+        return parameterTypes;
+    }
+
+    private static String toParameterType(List<String> parameter) throws AmbiguousSourceException {
+        if (parameter.size() < 2) {
+            throw new AmbiguousSourceException("parameter without type or name");
+        }
+        final String type = String.join("", parameter.subList(0, parameter.size() - 1));
+        if (type.endsWith("...")) {
+            throw new AmbiguousSourceException("varargs parameter");
+        }
+        return type;
+    }
+
+    /**
+     * Skips what follows the parameters of a method or constructor: the throws clause, an annotation default value,
+     * and then either the body or the closing semicolon.
+     */
+    private void skipMethodRest() throws IOException, AmbiguousSourceException {
+        String token;
+        while (!";".equals(token = requireToken())) {
+            if ("{".equals(token)) {
+                skipBalanced("{", "}");
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads the rest of the source, from within the body of the input Java Class, and checks that the braces close
+     * that body and are balanced.
+     */
+    private void checkBalancedBraces() throws IOException, AmbiguousSourceException {
+        int depth = 1;
+        String token;
+        while ((token = nextToken()) != null) {
+            if ("{".equals(token)) {
+                depth++;
+            } else if ("}".equals(token) && --depth < 0) {
+                throw new AmbiguousSourceException("unbalanced '}' after the Kubeless Function");
+            }
+        }
+        if (depth != 0) {
+            throw new AmbiguousSourceException("unbalanced '{' after the Kubeless Function");
+        }
+    }
+
+    private void skipFieldInitializer() throws IOException, AmbiguousSourceException {
+        String token;
+        while (!";".equals(token = requireToken())) {
+            if ("{".equals(token)) {
+                skipBalanced("{", "}");
+            } else if ("(".equals(token)) {
+                skipBalanced("(", ")");
+            }
+        }
+    }
+
+    private void skipTypeDeclaration(String name) throws IOException, AmbiguousSourceException {
+        if (javaClassName.equals(name)) {
+            throw new AmbiguousSourceException(name + " is not declared as a class");
+        }
+        skipUntil("{");
+        skipBalanced("{", "}");
+    }
+
+    /**
+     * Skips the name of an annotation, whose {@code @} was already read, and its arguments. Returns the name.
+     */
+    private String skipAnnotation() throws IOException, AmbiguousSourceException {
+        final String name = readQualifiedName();
+        final String token = nextToken();
+        if ("(".equals(token)) {
+            skipBalanced("(", ")");
+        } else {
+            pushBack(token);
+        }
+        return name;
+    }
+
+    private String readQualifiedName() throws IOException, AmbiguousSourceException {
+        final StringBuilder name = new StringBuilder(requireToken());
+        String token;
+        while (".".equals(token = nextToken())) {
+            name.append('.').append(requireToken());
+        }
+        pushBack(token);
+        return name.toString();
+    }
+
+    private void skipUntil(String expected) throws IOException, AmbiguousSourceException {
+        String token;
+        while (!expected.equals(token = requireToken())) {
+            if ("{".equals(token) || "}".equals(token)) {
+                throw new AmbiguousSourceException("unexpected '" + token + "' while looking for '" + expected + "'");
+            }
+        }
+    }
+
+    /**
+     * Skips tokens until the one that closes the group whose opening token was already read.
+     */
+    private void skipBalanced(String open, String close) throws IOException, AmbiguousSourceException {
+        int depth = 1;
+        while (depth > 0) {
+            final String token = requireToken();
+            if (open.equals(token)) {
+                depth++;
+            } else if (close.equals(token)) {
+                depth--;
+            }
+        }
+    }
+
+    //-- Tokenizer
+
+    private void pushBack(String token) {
+        pushedBackToken = token;
+    }
+
+    private String requireToken() throws IOException, AmbiguousSourceException {
+        final String token = nextToken();
+        if (token == null) {
+            throw new AmbiguousSourceException("unexpected end of source");
+        }
+        return token;
+    }
+
+    /**
+     * Returns the next token, skipping whitespaces and comments, or {@code null} at the end of the source.
+     * String and character literals are returned as {@code ""} and {@code ''}, and the varargs ellipsis as a single
+     * {@code ...} token; any other punctuation character is a token of its own.
+     */
+    private String nextToken() throws IOException, AmbiguousSourceException {
+        if (pushedBackToken != null) {
+            final String token = pushedBackToken;
+            pushedBackToken = null;
+            return token;
+        }
+        int c;
+        while ((c = read()) != -1) {
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            if (c == '/') {
+                final int next = read();
+                if (next == '/') {
+                    skipLineComment();
+                    continue;
+                } else if (next == '*') {
+                    skipBlockComment();
+                    continue;
+                }
+                unread(next);
+                return "/";
+            }
+            if (c == '"') {
+                skipLiteral('"');
+                return "\"\"";
+            }
+            if (c == '\'') {
+                skipLiteral('\'');
+                return "''";
+            }
+            if (Character.isJavaIdentifierStart(c)) {
+                return readWhile(c, true);
+            }
+            if (Character.isDigit(c)) {
+                return readWhile(c, false);
+            }
+            if (c == '.') {
+                final int second = read();
+                if (second == '.') {
+                    if (read() != '.') {
+                        throw new AmbiguousSourceException("unexpected '..'");
+                    }
+                    return "...";
+                }
+                unread(second);
+            }
+            return String.valueOf((char) c);
+        }
+        return null;
+    }
+
+    private String readWhile(int first, boolean identifier) throws IOException, AmbiguousSourceException {
+        final StringBuilder token = new StringBuilder().append((char) first);
+        int c;
+        while ((c = read()) != -1 && (identifier ? Character.isJavaIdentifierPart(c) : Character.isLetterOrDigit(c) || c == '_' || c == '.')) {
+            token.append((char) c);
+        }
+        unread(c);
+        return token.toString();
+    }
+
+    private void skipLineComment() throws IOException, AmbiguousSourceException {
+        int c;
+        while ((c = read()) != -1 && c != '\n' && c != '\r') {
+            // skip
+        }
+    }
+
+    private void skipBlockComment() throws IOException, AmbiguousSourceException {
+        int previous = 0;
+        int c;
+        while ((c = read()) != -1) {
+            if (previous == '*' && c == '/') {
+                return;
+            }
+            previous = c;
+        }
+        throw new AmbiguousSourceException("unterminated comment");
+    }
+
+    private void skipLiteral(char quote) throws IOException, AmbiguousSourceException {
+        int c;
+        while ((c = read()) != quote) {
+            if (c == -1 || c == '\n' || c == '\r') {
+                throw new AmbiguousSourceException(quote == '"' ? "unterminated string literal or text block" : "unterminated character literal");
+            }
+            if (c == '\\' && read() == -1) {
+                throw new AmbiguousSourceException("unterminated literal");
+            }
+        }
+    }
+
+    private int read() throws IOException, AmbiguousSourceException {
+        final int c = reader.read();
+        if (c == '\\') {
+            final int next = reader.read();
+            if (next == 'u') {
+                throw new AmbiguousSourceException("unicode escape");
+            }
+            if (next != -1) {
+                reader.unread(next);
+            }
+        }
+        return c;
+    }
+
+    private void unread(int c) throws IOException {
+        if (c != -1) {
+            reader.unread(c);
+        }
+    }
+
+    private static final class AmbiguousSourceException extends Exception {
+
+        AmbiguousSourceException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    private static final String PKG_NAME_IO_KUBELESS = "io.kubeless";
+    private static final Set<String> EVENT_TYPES = new HashSet<>(Arrays.asList("Event", "io.kubeless.Event"));
+    private static final Set<String> CONTEXT_TYPES = new HashSet<>(Arrays.asList("Context", "io.kubeless.Context"));
+    private static final Set<String> TYPE_MODIFIERS = new HashSet<>(Arrays.asList(
+            "public", "protected", "private", "abstract", "static", "final", "strictfp"));
+    private static final Set<String> MEMBER_MODIFIERS = new HashSet<>(Arrays.asList(
+            "public", "protected", "private", "abstract", "static", "final", "strictfp", "synchronized", "native",
+            "transient", "volatile", "default"));
+
+}
@@ -0,0 +1,94 @@
+package org.ivanfranchin.kubelessplugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Process-wide index of the Java packages that contain classes in a jar, and of the number of those classes. Jars are
+ * read once, the index being keyed by path, size and last modified time; at most {@link #MAX_ENTRIES} jars are kept,
+ * least recently used first out.
+ */
+final class JarPackageIndex {
+
+    static final int MAX_ENTRIES = 1024;
+
+    private static final Map<String, JarContent> CACHE = new LinkedHashMap<String, JarContent>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, JarContent> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private static final class JarContent {
+
+        private final Set<String> packages;
+        private final int numberOfClasses;
+
+        private JarContent(Set<String> packages, int numberOfClasses) {
+            this.packages = packages;
+            this.numberOfClasses = numberOfClasses;
+        }
+    }
+
+    private JarPackageIndex() {
+    }
+
+    static Set<String> getPackages(File jarFile) throws IOException {
+        return getContent(jarFile).packages;
+    }
+
+    /**
+     * Classes of the jar, without the ones in {@code META-INF}, e.g. of the later Java versions of a multi-release
+     * jar, and without the {@code module-info} and {@code package-info} classes.
+     */
+    static int getNumberOfClasses(File jarFile) throws IOException {
+        return getContent(jarFile).numberOfClasses;
+    }
+
+    private static JarContent getContent(File jarFile) throws IOException {
+        final String key = jarFile.getAbsolutePath() + "@" + jarFile.length() + "@" + jarFile.lastModified();
+        JarContent content;
+        synchronized (CACHE) {
+            content = CACHE.get(key);
+        }
+        if (content == null) {
+            content = readContent(jarFile);
+            synchronized (CACHE) {
+                CACHE.put(key, content);
+            }
+        }
+        return content;
+    }
+
+    private static JarContent readContent(File file) throws IOException {
+        final Set<String> packages = new HashSet<>();
+        int numberOfClasses = 0;
+        try (FileHandles.Permit ignored = FileHandles.acquire();
+             JarFile jarFile = new JarFile(file)) {
+            final Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                final String name = entries.nextElement().getName();
+                if (!name.endsWith(".class") || name.startsWith("META-INF/")) {
+                    continue;
+                }
+                final int lastSlash = name.lastIndexOf('/');
+                if (lastSlash > 0) {
+                    packages.add(name.substring(0, lastSlash).replace('/', '.'));
+                }
+                if (!name.endsWith("module-info.class") && !name.endsWith("package-info.class")) {
+                    numberOfClasses++;
+                }
+            }
+        }
+        return new JarContent(Collections.unmodifiableSet(packages), numberOfClasses);
+    }
+
+}
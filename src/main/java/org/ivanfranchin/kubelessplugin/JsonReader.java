@@ -0,0 +1,212 @@
+package org.ivanfranchin.kubelessplugin;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses JSON into the tree {@link JsonWriter} writes: maps keeping the order of their entries, lists, numbers
+ * ({@link Long} when integral, {@link BigDecimal} otherwise), booleans, strings and nulls.
+ */
+final class JsonReader {
+
+    private final Reader reader;
+    private int next;
+    private int position;
+
+    private JsonReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    static Object read(Reader reader) throws IOException {
+        final JsonReader jsonReader = new JsonReader(reader);
+        jsonReader.advance();
+        final Object value = jsonReader.readValue();
+        jsonReader.skipWhitespace();
+        if (jsonReader.next != -1) {
+            throw jsonReader.error("Unexpected content after the JSON value");
+        }
+        return value;
+    }
+
+    private Object readValue() throws IOException {
+        skipWhitespace();
+        switch (next) {
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '"':
+                return readString();
+            case 't':
+                readLiteral("true");
+                return Boolean.TRUE;
+            case 'f':
+                readLiteral("false");
+                return Boolean.FALSE;
+            case 'n':
+                readLiteral("null");
+                return null;
+            default:
+                if (next == '-' || (next >= '0' && next <= '9')) {
+                    return readNumber();
+                }
+                throw error(next == -1 ? "Unexpected end of the JSON" : "Unexpected character '" + (char) next + "'");
+        }
+    }
+
+    private Map<String, Object> readObject() throws IOException {
+        final Map<String, Object> map = new LinkedHashMap<>();
+        advance();
+        skipWhitespace();
+        if (next == '}') {
+            advance();
+            return map;
+        }
+        while (true) {
+            skipWhitespace();
+            if (next != '"') {
+                throw error("Expected a string as object key");
+            }
+            final String key = readString();
+            skipWhitespace();
+            expect(':');
+            map.put(key, readValue());
+            skipWhitespace();
+            if (next == ',') {
+                advance();
+            } else {
+                expect('}');
+                return map;
+            }
+        }
+    }
+
+    private List<Object> readArray() throws IOException {
+        final List<Object> list = new ArrayList<>();
+        advance();
+        skipWhitespace();
+        if (next == ']') {
+            advance();
+            return list;
+        }
+        while (true) {
+            list.add(readValue());
+            skipWhitespace();
+            if (next == ',') {
+                advance();
+            } else {
+                expect(']');
+                return list;
+            }
+        }
+    }
+
+    private String readString() throws IOException {
+        final StringBuilder stringBuilder = new StringBuilder();
+        advance();
+        while (next != '"') {
+            if (next == -1 || next < 0x20) {
+                throw error("Unterminated string");
+            }
+            if (next == '\\') {
+                advance();
+                switch (next) {
+                    case 'b':
+                        stringBuilder.append('\b');
+                        break;
+                    case 'f':
+                        stringBuilder.append('\f');
+                        break;
+                    case 'n':
+                        stringBuilder.append('\n');
+                        break;
+                    case 'r':
+                        stringBuilder.append('\r');
+                        break;
+                    case 't':
+                        stringBuilder.append('\t');
+                        break;
+                    case 'u':
+                        int codeUnit = 0;
+                        for (int i = 0; i < 4; i++) {
+                            advance();
+                            final int digit = Character.digit(next, 16);
+                            if (digit < 0) {
+                                throw error("Invalid unicode escape");
+                            }
+                            codeUnit = codeUnit * 16 + digit;
+                        }
+                        stringBuilder.append((char) codeUnit);
+                        break;
+                    case '"':
+                    case '\\':
+                    case '/':
+                        stringBuilder.append((char) next);
+                        break;
+                    default:
+                        throw error("Invalid escape sequence");
+                }
+            } else {
+                stringBuilder.append((char) next);
+            }
+            advance();
+        }
+        advance();
+        return stringBuilder.toString();
+    }
+
+    private Number readNumber() throws IOException {
+        final StringBuilder stringBuilder = new StringBuilder();
+        while (next == '-' || next == '+' || next == '.' || next == 'e' || next == 'E' || (next >= '0' && next <= '9')) {
+            stringBuilder.append((char) next);
+            advance();
+        }
+        try {
+            final BigDecimal number = new BigDecimal(stringBuilder.toString());
+            final String text = stringBuilder.toString();
+            if (text.indexOf('.') < 0 && text.indexOf('e') < 0 && text.indexOf('E') < 0) {
+                return number.longValueExact();
+            }
+            return number;
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw error("Invalid number " + stringBuilder);
+        }
+    }
+
+    private void readLiteral(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (next != literal.charAt(i)) {
+                throw error("Invalid literal, expected " + literal);
+            }
+            advance();
+        }
+    }
+
+    private void expect(char c) throws IOException {
+        if (next != c) {
+            throw error("Expected '" + c + "'");
+        }
+        advance();
+    }
+
+    private void skipWhitespace() throws IOException {
+        while (next == ' ' || next == '\t' || next == '\n' || next == '\r') {
+            advance();
+        }
+    }
+
+    private void advance() throws IOException {
+        next = reader.read();
+        position++;
+    }
+
+    private IOException error(String message) {
+        return new IOException(String.format("%s at character %d", message, position));
+    }
+
+}
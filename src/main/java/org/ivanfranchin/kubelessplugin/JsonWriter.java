@@ -0,0 +1,97 @@
+package org.ivanfranchin.kubelessplugin;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams a tree of maps, lists, numbers, booleans, strings and nulls as indented JSON. Map entries keep their iteration order.
+ */
+final class JsonWriter {
+
+    private JsonWriter() {
+    }
+
+    static void write(Object value, Writer writer) throws IOException {
+        write(value, writer, 0);
+    }
+
+    private static void write(Object value, Writer writer, int indent) throws IOException {
+        if (value instanceof Map) {
+            writer.write('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                writer.write(first ? "\n" : ",\n");
+                first = false;
+                writeIndent(writer, indent + 2);
+                writeString(String.valueOf(entry.getKey()), writer);
+                writer.write(": ");
+                write(entry.getValue(), writer, indent + 2);
+            }
+            if (!first) {
+                writer.write('\n');
+                writeIndent(writer, indent);
+            }
+            writer.write('}');
+        } else if (value instanceof List) {
+            writer.write('[');
+            boolean first = true;
+            for (Object item : (List<?>) value) {
+                writer.write(first ? "\n" : ",\n");
+                first = false;
+                writeIndent(writer, indent + 2);
+                write(item, writer, indent + 2);
+            }
+            if (!first) {
+                writer.write('\n');
+                writeIndent(writer, indent);
+            }
+            writer.write(']');
+        } else if (value == null) {
+            writer.write("null");
+        } else if (value instanceof Number || value instanceof Boolean) {
+            writer.write(value.toString());
+        } else {
+            writeString(String.valueOf(value), writer);
+        }
+    }
+
+    static void writeString(String value, Writer writer) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c == 0x7F || c == '\u2028' || c == '\u2029' || c == '\uFEFF') {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+            }
+        }
+        writer.write('"');
+    }
+
+    private static void writeIndent(Writer writer, int indent) throws IOException {
+        for (int i = 0; i < indent; i++) {
+            writer.write(' ');
+        }
+    }
+
+}
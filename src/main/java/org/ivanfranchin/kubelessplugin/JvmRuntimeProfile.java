@@ -0,0 +1,269 @@
+package org.ivanfranchin.kubelessplugin;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * JVM options of a Kubeless Function for a runtime profile and the memory and CPU limits of its pod: the heap as a
+ * percentage of the container memory, left after the metaspace, code cache and threads, the garbage collector, the
+ * tiered compilation and the metaspace sized from the number of dependencies. Every choice is recorded with its
+ * reason, so the build log tells why a flag is there. The options only use flags of Java 8u191 and later, which
+ * read the limits of the container.
+ */
+final class JvmRuntimeProfile {
+
+    enum Goal {
+        LATENCY("latency", 70),
+        THROUGHPUT("throughput", 75),
+        MINIMAL_MEMORY("minimal-memory", 60);
+
+        private final String value;
+        private final int maxHeapPercentage;
+
+        Goal(String value, int maxHeapPercentage) {
+            this.value = value;
+            this.maxHeapPercentage = maxHeapPercentage;
+        }
+
+        String getValue() {
+            return value;
+        }
+
+        static Goal of(String value) {
+            for (Goal goal : values()) {
+                if (goal.value.equalsIgnoreCase(value.trim())) {
+                    return goal;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final Goal goal;
+    private final List<String> javaOptions = new ArrayList<>();
+    private final List<String> mavenOptions = new ArrayList<>();
+    private final List<String> choices = new ArrayList<>();
+    private final String limits;
+
+    private JvmRuntimeProfile(Goal goal, String limits) {
+        this.goal = goal;
+        this.limits = limits;
+    }
+
+    /**
+     * @param memoryLimit          memory limit of the pod, as a Kubernetes quantity, or {@code null} when unknown
+     * @param cpuLimit             CPU limit of the pod, as a Kubernetes quantity, or {@code null} when unknown
+     * @param numberOfDependencies dependencies of the function, i.e, of its pom.xml
+     * @throws IllegalArgumentException if a limit is not a valid quantity
+     */
+    static JvmRuntimeProfile compute(Goal goal, String memoryLimit, String cpuLimit, int numberOfDependencies) {
+        final long memoryMegabytes = memoryLimit == null ? 0 : toMegabytes(memoryLimit);
+        final int processors = cpuLimit == null ? 0 : toProcessors(cpuLimit);
+        final JvmRuntimeProfile profile = new JvmRuntimeProfile(goal, String.format("memory limit %s, CPU limit %s, %d dependencies",
+                memoryLimit == null ? "none" : memoryLimit, cpuLimit == null ? "none" : cpuLimit, numberOfDependencies));
+
+        profile.choose("-XX:+ExitOnOutOfMemoryError", "a JVM out of memory exits, so Kubernetes restarts the pod");
+        if (processors > 0) {
+            profile.choose("-XX:ActiveProcessorCount=" + processors, String.format(
+                    "the CPU limit %s rounds up to %d processor(s), which size the GC and compiler threads", cpuLimit, processors));
+        }
+
+        // metaspace: a base for the JDK and the runtime, plus the classes the dependencies load
+        final long metaspaceMegabytes = roundUp(METASPACE_BASE_MEGABYTES + METASPACE_PER_DEPENDENCY_MEGABYTES * numberOfDependencies, 16);
+        final long maxMetaspaceMegabytes = goal == Goal.MINIMAL_MEMORY ? metaspaceMegabytes + metaspaceMegabytes / 2 : metaspaceMegabytes * 2;
+        profile.choose("-XX:MetaspaceSize=" + metaspaceMegabytes + "m", String.format(
+                "%d dependencies are expected to fill about %d MB of metaspace, no full GC before it is reached",
+                numberOfDependencies, metaspaceMegabytes));
+        profile.choose("-XX:MaxMetaspaceSize=" + maxMetaspaceMegabytes + "m", "a class loading leak fails fast instead of taking the heap room");
+
+        // compilation: functions live for a few requests, C1 alone compiles them sooner and with less CPU
+        final long codeCacheMegabytes;
+        if (goal == Goal.THROUGHPUT) {
+            codeCacheMegabytes = DEFAULT_CODE_CACHE_ESTIMATE_MEGABYTES;
+            if (processors > 0 && processors <= 2) {
+                profile.choose("-XX:CICompilerCount=2", "full tiered compilation for the peak throughput, with the fewest compiler threads on "
+                        + processors + " processor(s)");
+            } else {
+                profile.choices.add("full tiered compilation for the peak throughput");
+            }
+        } else {
+            codeCacheMegabytes = goal == Goal.LATENCY ? 48 : 24;
+            profile.choose("-XX:TieredStopAtLevel=1", "short-lived function: C1 only, compiled code sooner and no C2 compiler threads");
+            profile.choose("-XX:ReservedCodeCacheSize=" + codeCacheMegabytes + "m", "C1 code needs a smaller code cache");
+        }
+        if (goal == Goal.MINIMAL_MEMORY) {
+            profile.choose("-Xss512k", "smaller thread stacks, a function uses few and shallow threads");
+        }
+
+        // heap: what is left of the container memory after the non-heap memory, up to the percentage of the profile
+        int heapPercentage = goal.maxHeapPercentage;
+        if (memoryMegabytes > 0) {
+            final long nonHeapMegabytes = metaspaceMegabytes + codeCacheMegabytes + OTHER_NON_HEAP_MEGABYTES;
+            final int availablePercentage = (int) ((memoryMegabytes - nonHeapMegabytes) * 100 / memoryMegabytes);
+            heapPercentage = Math.max(MIN_HEAP_PERCENTAGE, Math.min(goal.maxHeapPercentage, availablePercentage));
+            profile.choose("-XX:MaxRAMPercentage=" + heapPercentage, String.format(
+                    "heap at %d%% of the memory limit %s (%d MB), about %d MB of non-heap memory are expected",
+                    heapPercentage, memoryLimit, memoryMegabytes, nonHeapMegabytes));
+        } else {
+            profile.choose("-XX:MaxRAMPercentage=" + heapPercentage, String.format(
+                    "heap at %d%% of the memory the container reports, no memory limit is set", heapPercentage));
+        }
+        if (goal == Goal.MINIMAL_MEMORY) {
+            final int initialPercentage = Math.min(MINIMAL_INITIAL_HEAP_PERCENTAGE, heapPercentage);
+            profile.choose("-XX:InitialRAMPercentage=" + initialPercentage, "the heap starts small and grows with the load");
+            profile.choose("-XX:MinHeapFreeRatio=10", "the heap grows when less than 10% of it is free");
+            profile.choose("-XX:MaxHeapFreeRatio=20", "the heap shrinks back after a burst, when more than 20% of it is free");
+        } else {
+            profile.choose("-XX:InitialRAMPercentage=" + heapPercentage, "the whole heap is committed at start, no resizing under load");
+        }
+
+        // garbage collector
+        if (goal == Goal.MINIMAL_MEMORY) {
+            profile.choose("-XX:+UseSerialGC", "the serial collector has the smallest footprint");
+        } else if (processors == 1) {
+            profile.choose("-XX:+UseSerialGC", "with one processor, a concurrent or parallel collector only adds overhead");
+        } else if (goal == Goal.THROUGHPUT) {
+            profile.choose("-XX:+UseParallelGC", "the parallel collector spends the least CPU on garbage collection");
+        } else if (memoryMegabytes > 0 && memoryMegabytes < G1_MIN_MEMORY_MEGABYTES) {
+            profile.choose("-XX:+UseSerialGC", String.format(
+                    "below %d MB, the pauses of the serial collector on the small heap are shorter than the overhead of G1",
+                    G1_MIN_MEMORY_MEGABYTES));
+        } else {
+            profile.choose("-XX:+UseG1GC", "G1 keeps the pauses short on a larger heap");
+            profile.choose("-XX:MaxGCPauseMillis=" + LATENCY_MAX_GC_PAUSE_MILLIS, "pause goal of the latency profile");
+        }
+
+        // the Kubeless Java runtime builds the function with Maven in the same pod, a short run of its own
+        if (processors > 0) {
+            profile.mavenOptions.add("-XX:ActiveProcessorCount=" + processors);
+        }
+        profile.mavenOptions.add("-XX:MaxRAMPercentage=" + heapPercentage);
+        profile.mavenOptions.add("-XX:TieredStopAtLevel=1");
+        profile.mavenOptions.add("-XX:+UseSerialGC");
+        profile.choices.add("MAVEN_OPTS: the build in the pod is short-lived, C1 only and the serial collector, same heap percentage");
+        return profile;
+    }
+
+    List<String> getJavaOptions() {
+        return Collections.unmodifiableList(javaOptions);
+    }
+
+    List<String> getMavenOptions() {
+        return Collections.unmodifiableList(mavenOptions);
+    }
+
+    /**
+     * The options with the reason each one was chosen, in the order they were chosen.
+     */
+    List<String> getChoices() {
+        return Collections.unmodifiableList(choices);
+    }
+
+    String getDescription() {
+        return String.format("runtime profile %s, %s", goal.getValue(), limits);
+    }
+
+    /**
+     * Environment file, e.g. for {@code docker run --env-file} or {@code kubectl create configmap --from-env-file}.
+     */
+    byte[] getEnvFile(String functionName) {
+        final StringBuilder envFile = new StringBuilder(getHeader(functionName))
+                .append("JAVA_OPTS=").append(String.join(" ", javaOptions)).append('\n')
+                .append("MAVEN_OPTS=").append(String.join(" ", mavenOptions)).append('\n');
+        return envFile.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Shell snippet exporting the options, sourced before starting the JVM or Maven.
+     */
+    byte[] getShellSnippet(String functionName) {
+        final StringBuilder snippet = new StringBuilder(getHeader(functionName))
+                .append("export JAVA_OPTS=\"").append(String.join(" ", javaOptions)).append("\"\n")
+                .append("export MAVEN_OPTS=\"").append(String.join(" ", mavenOptions)).append("\"\n");
+        return snippet.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String getHeader(String functionName) {
+        final StringBuilder header = new StringBuilder()
+                .append("# JVM options of the Kubeless Function ").append(functionName).append(", ").append(getDescription()).append('\n');
+        for (String choice : choices) {
+            header.append("#   ").append(choice).append('\n');
+        }
+        return header.toString();
+    }
+
+    private void choose(String option, String reason) {
+        javaOptions.add(option);
+        choices.add(option + ": " + reason);
+    }
+
+    /**
+     * Megabytes of a Kubernetes memory quantity, e.g. {@code 256Mi}, {@code 1G} or {@code 134217728}.
+     */
+    static long toMegabytes(String quantity) {
+        final Matcher matcher = MEMORY_QUANTITY.matcher(quantity.trim());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException(String.format("Invalid memory quantity '%s'", quantity));
+        }
+        final BigDecimal bytes = new BigDecimal(matcher.group(1)).multiply(BigDecimal.valueOf(getMultiplier(matcher.group(2))));
+        return bytes.divide(BigDecimal.valueOf(1024L * 1024L), 0, RoundingMode.DOWN).longValueExact();
+    }
+
+    /**
+     * Processors of a Kubernetes CPU quantity, e.g. {@code 500m} or {@code 1.5}, rounded up as the JVM does.
+     */
+    static int toProcessors(String quantity) {
+        final Matcher matcher = CPU_QUANTITY.matcher(quantity.trim());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException(String.format("Invalid CPU quantity '%s'", quantity));
+        }
+        BigDecimal cpus = new BigDecimal(matcher.group(1));
+        if (matcher.group(2) != null) {
+            cpus = cpus.divide(BigDecimal.valueOf(1000));
+        }
+        return Math.max(1, cpus.setScale(0, RoundingMode.CEILING).intValueExact());
+    }
+
+    private static long getMultiplier(String suffix) {
+        switch (suffix == null ? "" : suffix) {
+            case "":
+                return 1L;
+            case "k":
+                return 1000L;
+            case "M":
+                return 1000L * 1000L;
+            case "G":
+                return 1000L * 1000L * 1000L;
+            case "Ki":
+                return 1024L;
+            case "Mi":
+                return 1024L * 1024L;
+            case "Gi":
+                return 1024L * 1024L * 1024L;
+            default:
+                throw new IllegalArgumentException("Unsupported memory suffix " + suffix);
+        }
+    }
+
+    private static long roundUp(long value, long multiple) {
+        return (value + multiple - 1) / multiple * multiple;
+    }
+
+    private static final Pattern MEMORY_QUANTITY = Pattern.compile("([0-9]+(?:\\.[0-9]+)?)(k|M|G|Ki|Mi|Gi)?");
+    private static final Pattern CPU_QUANTITY = Pattern.compile("([0-9]+(?:\\.[0-9]+)?)(m)?");
+    private static final long METASPACE_BASE_MEGABYTES = 40;
+    private static final long METASPACE_PER_DEPENDENCY_MEGABYTES = 4;
+    private static final long DEFAULT_CODE_CACHE_ESTIMATE_MEGABYTES = 48;
+    private static final long OTHER_NON_HEAP_MEGABYTES = 32;
+    private static final int MIN_HEAP_PERCENTAGE = 25;
+    private static final int MINIMAL_INITIAL_HEAP_PERCENTAGE = 10;
+    private static final long G1_MIN_MEMORY_MEGABYTES = 512;
+    private static final int LATENCY_MAX_GC_PAUSE_MILLIS = 50;
+
+}
@@ -0,0 +1,389 @@
+package org.ivanfranchin.kubelessplugin;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Measures the throughput and latency of the Kubeless Function informed in {@code inputJavaClassName} in the Maven
+ * JVM. The function is compiled and loaded as in the {@code cds} goal, then called in a loop by {@code benchThreads}
+ * threads with the payloads of {@code payloadDirectory}, first during {@code warmupMillis}, so the JIT compiler has
+ * compiled it, then during {@code measurementMillis}, when the latency of each call is recorded. The results are
+ * logged and written as JSON, and the build fails when one of the thresholds is exceeded.
+ */
+@Mojo(name = "bench", threadSafe = true)
+public class KubelessBenchMojo extends AbstractHarnessMojo {
+
+    @Parameter(property = "payloadDirectory")
+    protected File payloadDirectory;
+
+    @Parameter(property = "benchThreads", defaultValue = "1")
+    protected int benchThreads = 1;
+
+    @Parameter(property = "virtualThreads", defaultValue = "false")
+    protected boolean virtualThreads;
+
+    @Parameter(property = "warmupMillis", defaultValue = "5000")
+    protected long warmupMillis = DEFAULT_WARMUP_MILLIS;
+
+    @Parameter(property = "measurementMillis", defaultValue = "10000")
+    protected long measurementMillis = DEFAULT_MEASUREMENT_MILLIS;
+
+    @Parameter(property = "benchResultFile")
+    protected File benchResultFile;
+
+    @Parameter(property = "minThroughput", defaultValue = "0")
+    protected double minThroughput;
+
+    @Parameter(property = "maxP50Millis", defaultValue = "0")
+    protected double maxP50Millis;
+
+    @Parameter(property = "maxP99Millis", defaultValue = "0")
+    protected double maxP99Millis;
+
+    @Parameter(property = "maxP999Millis", defaultValue = "0")
+    protected double maxP999Millis;
+
+    @Parameter(property = "maxBytesPerInvocation", defaultValue = "0")
+    protected long maxBytesPerInvocation;
+
+    private boolean onVirtualThreads;
+
+    /**
+     * Phase of the benchmark, shared by the workers.
+     */
+    private static final class BenchState {
+
+        private volatile int phase = WARMUP;
+    }
+
+    /**
+     * Calls the function in a loop until the benchmark stops, recording the calls made during the measurement.
+     */
+    private static final class Worker implements Runnable {
+
+        private final FunctionHarness harness;
+        private final Object[] events;
+        private final int firstEvent;
+        private final BenchState state;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private long errors;
+        private Throwable firstError;
+        private long allocatedBytes = -1;
+
+        private Worker(FunctionHarness harness, Object[] events, int firstEvent, BenchState state) {
+            this.harness = harness;
+            this.events = events;
+            this.firstEvent = firstEvent;
+            this.state = state;
+        }
+
+        @Override
+        public void run() {
+            int eventIndex = firstEvent;
+            boolean measuring = false;
+            long allocatedBytesAtStart = -1;
+            while (true) {
+                final int phase = state.phase;
+                if (phase == STOP) {
+                    break;
+                }
+                if (phase == MEASURE && !measuring) {
+                    measuring = true;
+                    allocatedBytesAtStart = getAllocatedBytes();
+                }
+                final Object event = events[eventIndex];
+                eventIndex = eventIndex + 1 == events.length ? 0 : eventIndex + 1;
+                final long start = System.nanoTime();
+                try {
+                    harness.invoke(event);
+                } catch (InvocationTargetException e) {
+                    if (measuring) {
+                        errors++;
+                    }
+                    if (firstError == null) {
+                        firstError = e.getCause();
+                    }
+                }
+                final long nanos = System.nanoTime() - start;
+                if (measuring) {
+                    histogram.record(nanos);
+                }
+            }
+            final long allocatedBytesAtEnd = getAllocatedBytes();
+            if (measuring && allocatedBytesAtStart >= 0 && allocatedBytesAtEnd >= 0) {
+                allocatedBytes = allocatedBytesAtEnd - allocatedBytesAtStart;
+            }
+        }
+    }
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (benchThreads < 1) {
+            throw new MojoExecutionException(String.format("Invalid benchThreads '%d', it must be at least 1", benchThreads));
+        }
+        if (warmupMillis < 0) {
+            throw new MojoExecutionException(String.format("Invalid warmupMillis '%d', it must be at least 0", warmupMillis));
+        }
+        if (measurementMillis < 1) {
+            throw new MojoExecutionException(String.format("Invalid measurementMillis '%d', it must be at least 1", measurementMillis));
+        }
+        final KubelessFunction function = createFunction();
+        final String name = function.getName();
+        final List<File> dependencyJars = resolveDependencyJars(function, "run the benchmark").stream()
+                .map(LocalRepositoryResolver.ResolvedArtifact::getFile)
+                .collect(Collectors.toList());
+        final List<String> payloads = readPayloads();
+
+        final Map<String, Object> result;
+        try (FunctionHarness harness = FunctionHarness.create(function, dependencyJars, new File(outputDirectory, BENCH_FOLDER),
+                name, functionTimeout, functionRuntime, getFunctionMemoryLimit())) {
+            result = runBenchmark(function, harness, payloads);
+        } catch (FunctionHarness.CompilationException e) {
+            throw new MojoExecutionException(e.getMessage());
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new MojoExecutionException("Unable to load the Kubeless Function " + name, e);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to compile the Kubeless Function " + name, e);
+        }
+        writeResultFile(function, result);
+        checkThresholds(function, result);
+    }
+
+    private Map<String, Object> runBenchmark(final KubelessFunction function, final FunctionHarness harness,
+                                             final List<String> payloads) throws MojoExecutionException, ReflectiveOperationException {
+        final BenchState state = new BenchState();
+        final List<Worker> workers = new ArrayList<>();
+        for (int i = 0; i < benchThreads; i++) {
+            final Object[] events = new Object[payloads.size()];
+            for (int j = 0; j < events.length; j++) {
+                events[j] = harness.newEvent(payloads.get(j), "bench-" + j, BENCH_EVENT_TYPE, BENCH_EVENT_TIME, getFunctionNamespace());
+            }
+            workers.add(new Worker(harness, events, i % events.length, state));
+        }
+
+        final ExecutorService executorService = newExecutorService();
+        getLog().info(String.format("Benchmarking %s.%s on %d %s thread(s) with %d payload(s), %d ms of warmup and %d ms of measurement",
+                function.getName(), function.getHandlerMethodName(), benchThreads, onVirtualThreads ? "virtual" : "platform",
+                payloads.size(), warmupMillis, measurementMillis));
+        final long measurementNanos;
+        try {
+            final List<Future<?>> futures = workers.stream().map(executorService::submit).collect(Collectors.toList());
+            Thread.sleep(warmupMillis);
+            state.phase = MEASURE;
+            final long start = System.nanoTime();
+            Thread.sleep(measurementMillis);
+            state.phase = STOP;
+            measurementNanos = System.nanoTime() - start;
+            for (Future<?> future : futures) {
+                future.get(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while benchmarking the Kubeless Function", e);
+        } catch (ExecutionException e) {
+            throw new MojoExecutionException("Unable to benchmark the Kubeless Function", e.getCause());
+        } catch (TimeoutException e) {
+            throw new MojoExecutionException(String.format("The Kubeless Function %s did not return within %d s after the end of the benchmark",
+                    function.getName(), STOP_TIMEOUT_SECONDS), e);
+        } finally {
+            state.phase = STOP;
+            executorService.shutdownNow();
+        }
+
+        final LatencyHistogram histogram = new LatencyHistogram();
+        long errors = 0;
+        Throwable firstError = null;
+        long allocatedBytes = 0;
+        for (Worker worker : workers) {
+            histogram.add(worker.histogram);
+            errors += worker.errors;
+            firstError = firstError != null ? firstError : worker.firstError;
+            allocatedBytes = allocatedBytes >= 0 && worker.allocatedBytes >= 0 ? allocatedBytes + worker.allocatedBytes : -1;
+        }
+        final long operations = histogram.getTotalCount();
+        final BigDecimal throughput = BigDecimal.valueOf(operations * 1e9 / measurementNanos).setScale(1, RoundingMode.HALF_UP);
+        final Long bytesPerInvocation = allocatedBytes >= 0 && operations > 0 ? allocatedBytes / operations : null;
+
+        final Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("min", toMicros(histogram.getMinNanos()));
+        latency.put("mean", toMicros(Math.round(histogram.getMeanNanos())));
+        latency.put("p50", toMicros(histogram.getValueAtPercentile(50)));
+        latency.put("p90", toMicros(histogram.getValueAtPercentile(90)));
+        latency.put("p99", toMicros(histogram.getValueAtPercentile(99)));
+        latency.put("p999", toMicros(histogram.getValueAtPercentile(99.9)));
+        latency.put("max", toMicros(histogram.getMaxNanos()));
+
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("function", function.getName());
+        result.put("handler", function.getName() + "." + function.getHandlerMethodName());
+        result.put("threads", benchThreads);
+        result.put("virtualThreads", onVirtualThreads);
+        result.put("payloads", payloads.size());
+        result.put("warmupMillis", warmupMillis);
+        result.put("measurementMillis", toMillis(measurementNanos));
+        result.put("operations", operations);
+        result.put("errors", errors);
+        result.put("throughput", throughput);
+        result.put("latencyMicros", latency);
+        result.put("allocatedBytesPerInvocation", bytesPerInvocation);
+
+        getLog().info(String.format("%d invocation(s) in %s ms, %s ops/s", operations, toMillis(measurementNanos), throughput));
+        getLog().info("Latency (us): " + latency.entrySet().stream()
+                .map(entry -> entry.getKey() + " " + entry.getValue())
+                .collect(Collectors.joining(", ")));
+        getLog().info(bytesPerInvocation != null ? String.format("Allocated %d bytes per invocation", bytesPerInvocation)
+                : "Allocated bytes per invocation are not available on this JVM");
+        if (errors > 0) {
+            getLog().warn(String.format("%d invocation(s) failed, the first one with: %s", errors, firstError));
+        }
+        return result;
+    }
+
+    /**
+     * Virtual threads, when asked for, are created through reflection, so the plugin still runs on Java 8.
+     */
+    private ExecutorService newExecutorService() {
+        onVirtualThreads = false;
+        if (virtualThreads) {
+            try {
+                final ExecutorService executorService = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                onVirtualThreads = true;
+                return executorService;
+            } catch (ReflectiveOperationException e) {
+                getLog().warn("Virtual threads need Java 21 or later, the benchmark runs on platform threads");
+            }
+        }
+        final AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(benchThreads, runnable -> {
+            final Thread thread = new Thread(runnable, "kubeless-bench-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private List<String> readPayloads() throws MojoExecutionException {
+        if (payloadDirectory == null) {
+            return Collections.singletonList("");
+        }
+        if (!payloadDirectory.isDirectory()) {
+            throw new MojoExecutionException(String.format("The payload directory informed does not exist: %s", payloadDirectory));
+        }
+        try (Stream<Path> paths = Files.list(payloadDirectory.toPath())) {
+            final List<String> payloads = new ArrayList<>();
+            for (Path path : paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList())) {
+                payloads.add(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+            }
+            if (payloads.isEmpty()) {
+                throw new MojoExecutionException(String.format("The payload directory informed has no files: %s", payloadDirectory));
+            }
+            return payloads;
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to read the payloads in " + payloadDirectory, e);
+        }
+    }
+
+    private void writeResultFile(final KubelessFunction function, final Map<String, Object> result) throws MojoExecutionException {
+        final File resultFile = benchResultFile != null ? benchResultFile : new File(outputDirectory, function.getName() + "-bench.json");
+        try {
+            Files.createDirectories(resultFile.getAbsoluteFile().getParentFile().toPath());
+            OutputFiles.writeIfChanged(resultFile.toPath(), outputStream -> {
+                final Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+                JsonWriter.write(result, writer);
+                writer.write('\n');
+                writer.flush();
+            });
+            getLog().info("Created successfully file: " + resultFile);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to write the benchmark results", e);
+        }
+    }
+
+    private void checkThresholds(final KubelessFunction function, final Map<String, Object> result) throws MojoFailureException {
+        final List<String> violations = new ArrayList<>();
+        final BigDecimal throughput = (BigDecimal) result.get("throughput");
+        if (minThroughput > 0 && throughput.doubleValue() < minThroughput) {
+            violations.add(String.format("throughput %s ops/s below %s", throughput, BigDecimal.valueOf(minThroughput).toPlainString()));
+        }
+        final Map<?, ?> latency = (Map<?, ?>) result.get("latencyMicros");
+        checkLatency(violations, "p50", (BigDecimal) latency.get("p50"), maxP50Millis);
+        checkLatency(violations, "p99", (BigDecimal) latency.get("p99"), maxP99Millis);
+        checkLatency(violations, "p999", (BigDecimal) latency.get("p999"), maxP999Millis);
+        final Long bytesPerInvocation = (Long) result.get("allocatedBytesPerInvocation");
+        if (maxBytesPerInvocation > 0 && bytesPerInvocation != null && bytesPerInvocation > maxBytesPerInvocation) {
+            violations.add(String.format("%d bytes allocated per invocation above %d", bytesPerInvocation, maxBytesPerInvocation));
+        }
+        if (!violations.isEmpty()) {
+            throw new MojoFailureException(String.format("The benchmark of %s exceeded its thresholds: %s",
+                    function.getName(), String.join(", ", violations)));
+        }
+    }
+
+    private static void checkLatency(final List<String> violations, final String percentile, final BigDecimal micros,
+                                     final double maxMillis) {
+        final BigDecimal millis = micros.movePointLeft(3);
+        if (maxMillis > 0 && millis.doubleValue() > maxMillis) {
+            violations.add(String.format("%s latency %s ms above %s ms", percentile, millis.toPlainString(), BigDecimal.valueOf(maxMillis).toPlainString()));
+        }
+    }
+
+    /**
+     * Bytes allocated so far by the current thread, or {@code -1} when the JVM does not tell, e.g. for virtual threads.
+     */
+    private static long getAllocatedBytes() {
+        final java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            final com.sun.management.ThreadMXBean hotSpotThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+            if (hotSpotThreadMXBean.isThreadAllocatedMemorySupported() && hotSpotThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+                return hotSpotThreadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    private static BigDecimal toMillis(final long nanos) {
+        return BigDecimal.valueOf(nanos, 6).setScale(3, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal toMicros(final long nanos) {
+        return BigDecimal.valueOf(nanos, 3);
+    }
+
+    private static final int WARMUP = 0;
+    private static final int MEASURE = 1;
+    private static final int STOP = 2;
+    private static final long DEFAULT_WARMUP_MILLIS = 5000;
+    private static final long DEFAULT_MEASUREMENT_MILLIS = 10000;
+    private static final long STOP_TIMEOUT_SECONDS = 60;
+    private static final String BENCH_FOLDER = "bench";
+    private static final String BENCH_EVENT_TYPE = "application/json";
+    private static final String BENCH_EVENT_TIME = "2000-01-01T00:00:00Z";
+
+}
@@ -0,0 +1,284 @@
+package org.ivanfranchin.kubelessplugin;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Trains a class data sharing (AppCDS) archive for the Kubeless Function informed in {@code inputJavaClassName}. The
+ * input Java Class is compiled against its dependencies, resolved in the local repository, and its handler method is
+ * called {@code trainingInvocations} times with the content of {@code samplePayloadFile} as event data. The classes
+ * the function loaded, added to the default class list of the JDK, are written to {@code <Java Class name>.classlist}
+ * and dumped to {@code <Java Class name>.jsa} by a forked JVM, next to {@code <Java Class name>-cds-flags.txt} with the
+ * JVM flags that use the archive. The function is trained with the {@code io.kubeless} stand-ins of the plugin, but
+ * the archive is dumped against the class path of the Kubeless JVM runtime image: the {@code de.inoio.kubeless:jvm-runtime}
+ * jar, the function jar and its dependencies. These jars are copied next to the archive, so the archive and the flags
+ * only hold paths relative to {@code outputDirectory}.
+ */
+@Mojo(name = "cds", threadSafe = true)
+public class KubelessCdsMojo extends AbstractHarnessMojo {
+
+    @Parameter(property = "samplePayloadFile")
+    protected File samplePayloadFile;
+
+    @Parameter(property = "trainingInvocations", defaultValue = "10")
+    protected int trainingInvocations = DEFAULT_TRAINING_INVOCATIONS;
+
+    @Parameter(property = "cdsArchive", defaultValue = "true")
+    protected boolean cdsArchive = true;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (trainingInvocations < 1) {
+            throw new MojoExecutionException(String.format("Invalid trainingInvocations '%d', it must be at least 1", trainingInvocations));
+        }
+        final KubelessFunction function = createFunction();
+        final String name = function.getName();
+        final List<LocalRepositoryResolver.ResolvedArtifact> dependencyJars = resolveDependencyJars(function, TRAINING_PURPOSE);
+        final File runtimeJar = getRuntimeJar(function, TRAINING_PURPOSE);
+        final String payload = readSamplePayload();
+
+        final List<String> loadedClassNames;
+        final List<File> classPath;
+        try (FunctionHarness harness = FunctionHarness.create(function,
+                dependencyJars.stream().map(LocalRepositoryResolver.ResolvedArtifact::getFile).collect(Collectors.toList()),
+                new File(outputDirectory, CDS_FOLDER),
+                name, functionTimeout, functionRuntime, getFunctionMemoryLimit())) {
+            long firstInvocationNanos = 0;
+            long otherInvocationsNanos = 0;
+            for (int i = 1; i <= trainingInvocations; i++) {
+                final Object event = harness.newEvent(payload, "cds-training-" + i, SAMPLE_EVENT_TYPE, SAMPLE_EVENT_TIME, getFunctionNamespace());
+                final long start = System.nanoTime();
+                final String result = harness.invoke(event);
+                if (i == 1) {
+                    firstInvocationNanos = System.nanoTime() - start;
+                    getLog().debug(String.format("%s.%s returned: %s", name, function.getHandlerMethodName(), result));
+                } else {
+                    otherInvocationsNanos += System.nanoTime() - start;
+                }
+            }
+            getLog().info(String.format("Invoked %s.%s %d time(s), first invocation in %.1f ms", name,
+                    function.getHandlerMethodName(), trainingInvocations, firstInvocationNanos / 1e6)
+                    + (trainingInvocations > 1 ? String.format(", the next ones in %.3f ms on average",
+                    otherInvocationsNanos / 1e6 / (trainingInvocations - 1)) : ""));
+            loadedClassNames = harness.getLoadedClassNames();
+            classPath = harness.getClassPath();
+        } catch (FunctionHarness.CompilationException e) {
+            throw new MojoExecutionException(e.getMessage());
+        } catch (InvocationTargetException e) {
+            throw new MojoExecutionException(String.format("The Kubeless Function %s.%s failed on the sample payload",
+                    name, function.getHandlerMethodName()), e.getCause());
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new MojoExecutionException("Unable to load the Kubeless Function " + name, e);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to compile the Kubeless Function " + name, e);
+        }
+
+        final File classListFile = new File(outputDirectory, name + ".classlist");
+        final File archiveFile = new File(outputDirectory, name + ".jsa");
+        final String classPathValue = String.join(File.pathSeparator, copyClassPath(function, runtimeJar, classPath.get(0), dependencyJars));
+        writeClassList(function, loadedClassNames, classListFile);
+        if (!cdsArchive) {
+            getLog().info("Skipping the class data sharing archive, cdsArchive is false");
+        } else if (System.getProperty("java.specification.version").startsWith("1.")) {
+            getLog().warn("Skipping the class data sharing archive, application classes can only be archived from Java 10 on");
+        } else {
+            dumpArchive(classListFile, archiveFile, classPathValue);
+        }
+        writeJvmFlags(function, classListFile, archiveFile, classPathValue);
+    }
+
+    private String readSamplePayload() throws MojoExecutionException {
+        if (samplePayloadFile == null) {
+            return "";
+        }
+        try {
+            return new String(Files.readAllBytes(samplePayloadFile.toPath()), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to read the sample payload " + samplePayloadFile, e);
+        }
+    }
+
+    /**
+     * Writes the classes loaded by the function after the default class list of the JDK, which holds the classes
+     * loaded when any application starts, in the internal form the JVM expects.
+     */
+    private void writeClassList(final KubelessFunction function, final List<String> loadedClassNames,
+                                final File classListFile) throws MojoExecutionException {
+        try {
+            final Set<String> lines = new LinkedHashSet<>();
+            final Path defaultClassList = Paths.get(System.getProperty("java.home"), "lib", "classlist");
+            if (Files.isRegularFile(defaultClassList)) {
+                Files.readAllLines(defaultClassList, StandardCharsets.UTF_8).stream()
+                        .filter(line -> !line.trim().isEmpty() && !line.startsWith("#"))
+                        .forEach(lines::add);
+            }
+            final int defaultClasses = lines.size();
+            loadedClassNames.forEach(className -> lines.add(className.replace('.', '/')));
+            final byte[] content = (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8);
+            if (OutputFiles.writeIfChanged(classListFile.toPath(), content)) {
+                getLog().info("Created successfully file: " + classListFile);
+            } else {
+                getLog().info("File is up to date: " + classListFile);
+            }
+            getLog().info(String.format("The class list has %d entries, %d from the default class list of the JDK and %d more loaded by %s",
+                    lines.size(), defaultClasses, lines.size() - defaultClasses, function.getName()));
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to write the class list", e);
+        }
+    }
+
+    /**
+     * Copies the class path of the runtime image to {@code outputDirectory}: the Kubeless JVM runtime jar, which holds
+     * the real {@code io.kubeless} classes, to the {@code lib/} folder, the function jar to
+     * {@code <Java Class name>.jar} and the dependency jars to the {@code lib/} folder, with the file names of the
+     * dependency bundle. Returns their paths relative to {@code outputDirectory} in the order of the class path of
+     * the image, the runtime first. The archive records the class path as given, so it is used wherever the folder is
+     * deployed, e.g. in the pod, when the JVM starts in it. The copies get the last modified time of the entries of a
+     * zip dependency bundle, as the JVM checks it along with the size of each jar.
+     */
+    private List<String> copyClassPath(final KubelessFunction function, final File runtimeJar, final File functionJar,
+                                       final List<LocalRepositoryResolver.ResolvedArtifact> dependencyJars) throws MojoExecutionException {
+        try {
+            final Map<String, File> files = new LinkedHashMap<>();
+            files.put(LIB_FOLDER + "/" + runtimeJar.getName(), runtimeJar);
+            files.put(function.getName() + ".jar", functionJar);
+            files.putAll(DependencyBundle.of(dependencyJars, DependencyBundle.Layout.DIRECTORY).getFiles());
+
+            final Path outputPath = outputDirectory.toPath();
+            final Path libPath = Files.createDirectories(outputPath.resolve(LIB_FOLDER));
+            try (Stream<Path> paths = Files.list(libPath)) {
+                for (Path path : paths.collect(Collectors.toList())) {
+                    if (path.getFileName().toString().endsWith(".jar") && !files.containsKey(LIB_FOLDER + "/" + path.getFileName())) {
+                        Files.delete(path);
+                    }
+                }
+            }
+            for (Map.Entry<String, File> entry : files.entrySet()) {
+                final Path target = outputPath.resolve(entry.getKey());
+                OutputFiles.copyIfChanged(entry.getValue().toPath(), target);
+                Files.setLastModifiedTime(target, FileTime.fromMillis(DependencyBundle.ZIP_ENTRY_TIME));
+            }
+            getLog().info(String.format("Copied the %d jar(s) of the class path to %s", files.size(), outputDirectory));
+            return new ArrayList<>(files.keySet());
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to copy the class path of the class data sharing archive", e);
+        }
+    }
+
+    /**
+     * Dumps the archive with a forked JVM of the same JDK, the one that will be able to use it, started in
+     * {@code outputDirectory} so every path it records is relative. The archive is dumped to a temporary file first,
+     * so an existing archive is only replaced by a complete one.
+     */
+    private void dumpArchive(final File classListFile, final File archiveFile, final String classPathValue) throws MojoExecutionException {
+        final File workDirectory = new File(outputDirectory, CDS_FOLDER);
+        final File logFile = new File(workDirectory, "cds-dump.log");
+        final File temporaryArchiveFile = new File(workDirectory, archiveFile.getName() + ".tmp");
+        final List<String> command = new ArrayList<>();
+        command.add(getJavaExecutable());
+        command.add("-Xshare:dump");
+        command.add("-XX:SharedClassListFile=" + classListFile.getName());
+        command.add("-XX:SharedArchiveFile=" + CDS_FOLDER + "/" + temporaryArchiveFile.getName());
+        command.add("-cp");
+        command.add(classPathValue);
+        try {
+            Files.deleteIfExists(temporaryArchiveFile.toPath());
+            final long start = System.nanoTime();
+            final Process process = new ProcessBuilder(command)
+                    .directory(outputDirectory)
+                    .redirectErrorStream(true)
+                    .redirectOutput(logFile)
+                    .start();
+            if (!process.waitFor(DUMP_TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+                process.destroyForcibly();
+                throw new MojoExecutionException(String.format("Timed out creating the class data sharing archive, see %s", logFile));
+            }
+            if (process.exitValue() != 0 || !temporaryArchiveFile.isFile()) {
+                throw new MojoExecutionException(String.format("Unable to create the class data sharing archive, the JVM exited with %d, see %s",
+                        process.exitValue(), logFile));
+            }
+            Files.move(temporaryArchiveFile.toPath(), archiveFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            getLog().info(String.format("Created successfully class data sharing archive of %d bytes in %d ms: %s",
+                    archiveFile.length(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), archiveFile));
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to create the class data sharing archive", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while creating the class data sharing archive", e);
+        }
+    }
+
+    /**
+     * Writes the flags as a JVM argument file, so they can be passed with {@code java @<file>}. The archive is only
+     * used by the JDK build that dumped it, with the same class path, relative to {@code outputDirectory}.
+     */
+    private void writeJvmFlags(final KubelessFunction function, final File classListFile, final File archiveFile,
+                               final String classPathValue) throws MojoExecutionException {
+        final File flagsFile = new File(outputDirectory, function.getName() + "-cds-flags.txt");
+        final List<String> lines = new ArrayList<>();
+        lines.add(String.format("# Class data sharing flags of %s, for Java %s (%s %s)", function.getName(),
+                System.getProperty("java.version"), System.getProperty("java.vm.name"), System.getProperty("java.vm.version")));
+        lines.add("# The archive is only used by the same JDK build with exactly the same class path, so the runtime image must");
+        lines.add("# start the Kubeless JVM runtime in the folder of this file, e.g. with the dependency bundle unpacked in it, with");
+        lines.add(String.format("# java @%s %s, i.e. with", flagsFile.getName(), RUNTIME_MAIN_CLASS));
+        lines.add("# -cp " + classPathValue);
+        lines.add("# the runtime jar first, then the function jar and its dependencies. The archive is created with");
+        lines.add(String.format("# java -Xshare:dump -XX:SharedClassListFile=%s -XX:SharedArchiveFile=%s -cp %s",
+                classListFile.getName(), archiveFile.getName(), classPathValue));
+        lines.add("-Xshare:auto");
+        lines.add("-XX:SharedArchiveFile=" + quote(archiveFile.getName()));
+        lines.add("-cp " + quote(classPathValue));
+        try {
+            if (OutputFiles.writeIfChanged(flagsFile.toPath(), (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8))) {
+                getLog().info("Created successfully file: " + flagsFile);
+            } else {
+                getLog().info("File is up to date: " + flagsFile);
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to write the class data sharing flags", e);
+        }
+        getLog().info(String.format("Recommended JVM flags, starting in %s: -Xshare:auto -XX:SharedArchiveFile=%s -cp %s",
+                outputDirectory, archiveFile.getName(), classPathValue));
+    }
+
+    private static String quote(final String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static String getJavaExecutable() {
+        final boolean windows = System.getProperty("os.name").toLowerCase(Locale.ROOT).startsWith("windows");
+        return Paths.get(System.getProperty("java.home"), "bin", windows ? "java.exe" : "java").toString();
+    }
+
+    private static final int DEFAULT_TRAINING_INVOCATIONS = 10;
+    private static final long DUMP_TIMEOUT_MINUTES = 10;
+    private static final String CDS_FOLDER = "cds";
+    private static final String LIB_FOLDER = "lib";
+    private static final String TRAINING_PURPOSE = "train the class data sharing archive";
+    private static final String RUNTIME_MAIN_CLASS = "io.kubeless.Handler";
+    private static final String SAMPLE_EVENT_TYPE = "application/json";
+    private static final String SAMPLE_EVENT_TIME = "2000-01-01T00:00:00Z";
+
+}
@@ -0,0 +1,166 @@
+package org.ivanfranchin.kubelessplugin;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Converts the input Java Classes of every module of the reactor, running the modules concurrently.
+ */
+@Mojo(name = "convert-all", aggregator = true, threadSafe = true)
+public class KubelessConvertAllMojo extends AbstractConvertMojo {
+
+    @Parameter(property = "inputJavaClassNames")
+    protected List<String> inputJavaClassNames = new ArrayList<>(Collections.singletonList("*"));
+
+    @Parameter(property = "outputFolder", defaultValue = "generated-sources/kubeless", required = true)
+    protected String outputFolder;
+
+    @Parameter(property = "threads", defaultValue = "0")
+    protected int threads;
+
+    @Parameter(defaultValue = "${reactorProjects}", required = true, readonly = true)
+    List<MavenProject> reactorProjects;
+
+    private OutputCache outputCache;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        final List<MavenProject> modules = reactorProjects.stream()
+                .filter(this::hasInputJavaClasses)
+                .collect(Collectors.toList());
+        if (modules.isEmpty()) {
+            getLog().info("No module of the reactor has Java Classes in " + KubelessConvertMojo.FOLDER_PATH_IO_KUBELESS);
+            return;
+        }
+
+        final List<String> sharedExcludeScopes = Collections.unmodifiableList(new ArrayList<>(excludeScopes));
+        outputCache = createOutputCache();
+        final List<Callable<ModuleResult>> tasks = modules.stream()
+                .map(module -> (Callable<ModuleResult>) () -> convertModule(module, sharedExcludeScopes))
+                .collect(Collectors.toList());
+
+        final List<ModuleResult> results = new ArrayList<>();
+        final ExecutorService executorService = Executors.newFixedThreadPool(getThreads(modules.size()));
+        try {
+            for (Future<ModuleResult> future : executorService.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while converting the modules", e);
+        } catch (ExecutionException e) {
+            throw new MojoExecutionException("Unable to convert the modules", e.getCause());
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        logSummary(results);
+        if (outputCache != null) {
+            getLog().info(outputCache.getSummary());
+        }
+
+        final List<ModuleResult> failedResults = results.stream()
+                .filter(ModuleResult::hasFailed)
+                .collect(Collectors.toList());
+        if (!failedResults.isEmpty()) {
+            final String errorMessage = failedResults.stream()
+                    .map(result -> String.format("[%s]%n%s", result.moduleName, result.getFailureMessage()))
+                    .collect(Collectors.joining(System.lineSeparator(),
+                            String.format("Unable to convert %d module(s):%n", failedResults.size()), ""));
+            throw new MojoExecutionException(errorMessage);
+        }
+    }
+
+    private boolean hasInputJavaClasses(final MavenProject module) {
+        final File inputJavaClassDirectory = new File(module.getBasedir(), KubelessConvertMojo.FOLDER_PATH_IO_KUBELESS);
+        final String[] fileNames = inputJavaClassDirectory.list((dir, name) -> name.endsWith(".java"));
+        return fileNames != null && fileNames.length > 0;
+    }
+
+    private ModuleResult convertModule(final MavenProject module, final List<String> sharedExcludeScopes) {
+        final long start = System.nanoTime();
+        final KubelessConvertMojo kubelessConvertMojo = new KubelessConvertMojo();
+        copyParametersTo(kubelessConvertMojo);
+        kubelessConvertMojo.setLog(getLog());
+        kubelessConvertMojo.project = module;
+        kubelessConvertMojo.inputJavaClassNames = inputJavaClassNames;
+        kubelessConvertMojo.outputDirectory = new File(module.getBuild().getDirectory(), outputFolder);
+        kubelessConvertMojo.parallelism = 1;
+        kubelessConvertMojo.excludeScopes = sharedExcludeScopes;
+        kubelessConvertMojo.outputCache = outputCache;
+        try {
+            final ConversionReport report = kubelessConvertMojo.convertMultipleFunctions();
+            return new ModuleResult(module.getArtifactId(), report, null, System.nanoTime() - start);
+        } catch (MojoExecutionException e) {
+            return new ModuleResult(module.getArtifactId(), null, e.getMessage(), System.nanoTime() - start);
+        }
+    }
+
+    private void logSummary(final List<ModuleResult> results) {
+        final int moduleWidth = Math.max("Module".length(), results.stream().mapToInt(result -> result.moduleName.length()).max().orElse(0));
+        final String rowFormat = "%-" + moduleWidth + "s  %9s  %10s  %7s  %6s  %9s";
+
+        getLog().info("Kubeless conversion summary");
+        getLog().info(String.format(rowFormat, "Module", "Converted", "Up to date", "Skipped", "Failed", "Time (ms)"));
+        for (ModuleResult result : results) {
+            if (result.report != null) {
+                getLog().info(String.format(rowFormat, result.moduleName,
+                        result.report.getConverted().size(), result.report.getUpToDate().size(),
+                        result.report.getSkipped().size(), result.report.getFailed().size(), result.getMillis()));
+            } else {
+                getLog().info(String.format(rowFormat, result.moduleName, "-", "-", "-", "error", result.getMillis()));
+            }
+        }
+
+        getLog().info("Kubeless conversion metrics of the session");
+        ConversionMetrics.forSession(session).getSummaryLines().forEach(getLog()::info);
+    }
+
+    private int getThreads(final int numberOfModules) {
+        final int maxThreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return Math.max(1, Math.min(maxThreads, numberOfModules));
+    }
+
+    private static final class ModuleResult {
+
+        private final String moduleName;
+        private final ConversionReport report;
+        private final String errorMessage;
+        private final long nanos;
+
+        private ModuleResult(String moduleName, ConversionReport report, String errorMessage, long nanos) {
+            this.moduleName = moduleName;
+            this.report = report;
+            this.errorMessage = errorMessage;
+            this.nanos = nanos;
+        }
+
+        private boolean hasFailed() {
+            return errorMessage != null || report.hasFailures();
+        }
+
+        private String getFailureMessage() {
+            return errorMessage != null ? errorMessage : report.getFailureMessage();
+        }
+
+        private long getMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+    }
+
+}
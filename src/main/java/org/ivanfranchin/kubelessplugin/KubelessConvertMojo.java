@@ -1,87 +1,233 @@
 package org.ivanfranchin.kubelessplugin;
 
+import com.github.javaparser.JavaParser;
 import com.github.javaparser.ParseProblemException;
-import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
 import com.github.javaparser.ast.AccessSpecifier;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.Modifier;
 import com.github.javaparser.ast.PackageDeclaration;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 import com.github.javaparser.ast.body.MethodDeclaration;
+import org.apache.maven.model.BuildBase;
 import org.apache.maven.model.Dependency;
 import org.apache.maven.model.Model;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.model.Profile;
+import org.apache.maven.model.Resource;
 import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
 import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
-import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Mojo(name = "convert", defaultPhase = LifecyclePhase.PROCESS_RESOURCES, threadSafe = true)
-public class KubelessConvertMojo extends AbstractMojo {
+public class KubelessConvertMojo extends AbstractConvertMojo {
 
-    @Parameter(property = "inputJavaClassName", required = true)
+    @Parameter(property = "inputJavaClassName")
     protected String inputJavaClassName;
 
+    @Parameter(property = "inputJavaClassNames")
+    protected List<String> inputJavaClassNames;
+
     @Parameter(property = "outputDirectory", defaultValue = "${project.build.directory}/generated-sources/kubeless", required = true)
     protected File outputDirectory;
 
+    @Parameter(property = "parallelism", defaultValue = "0")
+    protected int parallelism;
+
     @Parameter(defaultValue = "${project}", required = true, readonly = true)
     MavenProject project;
 
+    // one reader and one writer per execution: they keep no state between calls, but executions of parallel
+    // modules then never share them
+    private final MavenXpp3Reader mavenXpp3Reader = new MavenXpp3Reader();
+    private final MavenXpp3Writer mavenXpp3Writer = new MavenXpp3Writer();
+    private ConversionMetrics metrics = new ConversionMetrics();
+    private ConversionMetrics sessionMetrics;
+    OutputCache outputCache;
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
-        checkInputsExist();
-        createOutputDirectory();
-        createOutputJavaClassFile();
-        createOutputPomFile();
+        outputCache = createOutputCache();
+        if (inputJavaClassNames != null && !inputJavaClassNames.isEmpty()) {
+            final ConversionReport report = convertMultipleFunctions();
+            getLog().info(report.getSummary());
+            logMetricsSummary();
+            logOutputCacheSummary();
+            if (report.hasFailures()) {
+                throw new MojoExecutionException(report.getFailureMessage());
+            }
+            return;
+        }
+        if (inputJavaClassName == null || inputJavaClassName.trim().isEmpty()) {
+            throw new MojoExecutionException("One of the parameters inputJavaClassName or inputJavaClassNames must be informed");
+        }
+
+        final long start = System.nanoTime();
+        metrics = new ConversionMetrics();
+        final KubelessFunction function = new KubelessFunction(inputJavaClassName, getInputJavaClassFile(inputJavaClassName), outputDirectory);
+        String fingerprint = null;
+        if (incremental) {
+            fingerprint = computeFingerprint(function);
+            if (isUpToDate(function, fingerprint)) {
+                getLog().info("Skipping conversion, outputs are up to date: " + function.getOutputDirectory());
+                finishMetrics(start);
+                logMetricsSummary();
+                return;
+            }
+        }
+        String outputCacheKey = null;
+        List<Dependency> projectDependencies = null;
+        if (outputCache != null) {
+            checkInputJavaClassExists(function);
+            checkInputPomExists();
+            projectDependencies = getProjectDependencies();
+            outputCacheKey = computeOutputCacheKey(function, projectDependencies);
+            if (restoreFromOutputCache(function, outputCacheKey)) {
+                if (fingerprint != null) {
+                    writeFingerprintFile(function, fingerprint);
+                }
+                finishMetrics(start);
+                logMetricsSummary();
+                logOutputCacheSummary();
+                return;
+            }
+        }
+        checkInputsExist(function);
+        createOutputDirectory(function);
+        createOutputJavaClassFile(function);
+        final Model outputPom = createOutputPomFile(function, readPomTemplateFile(),
+                projectDependencies != null ? projectDependencies : getProjectDependencies());
+        analyzeDependencyBudget(function, outputPom.getDependencies());
+        createFunctionManifestFile(function);
+        final File bundleFile = createDependencyBundle(function, outputPom.getDependencies());
+        createNativeImageConfig(function, outputPom.getDependencies());
+        createRuntimeProfile(function, outputPom.getDependencies());
+        if (outputCacheKey != null) {
+            storeInOutputCache(function, outputCacheKey, bundleFile);
+        }
+        if (fingerprint != null) {
+            writeFingerprintFile(function, fingerprint);
+        }
+        finishMetrics(start);
+        logMetricsSummary();
+        logOutputCacheSummary();
+    }
+
+    protected void checkInputsExist(final KubelessFunction function) throws MojoExecutionException {
+        try (ConversionMetrics.Measurement ignored = metrics.measure(ConversionMetrics.Phase.CHECK_INPUTS_EXIST)) {
+            checkInputJavaClassExists(function);
+            validateInputJavaClass(function);
+            checkInputPomExists();
+        }
     }
 
-    protected void checkInputsExist() throws MojoExecutionException {
-        if (!getInputJavaClassFile().exists()) {
+    private void checkInputJavaClassExists(final KubelessFunction function) throws MojoExecutionException {
+        if (!function.getInputJavaClassFile().exists()) {
             String errorMessage = String.format("The input Java Class informed does not exist in %s", getInputJavaClassDirectory());
             throw new MojoExecutionException(errorMessage);
         }
-        validateInputJavaClass();
-        if (!getInputPomFile().exists()) {
+    }
+
+    private void checkInputPomExists() throws MojoExecutionException {
+        if (!useProjectModel && !getInputPomFile().exists()) {
             String errorMessage = String.format("The input pom.xml file is not present in %s", getInputPomDirectory());
             throw new MojoExecutionException(errorMessage);
         }
     }
 
-    private void validateInputJavaClass() throws MojoExecutionException {
+    void validateInputJavaClass(final KubelessFunction function) throws MojoExecutionException {
+        try (ConversionMetrics.Measurement measurement = metrics.measure(ConversionMetrics.Phase.VALIDATE_INPUT_JAVA_CLASS)) {
+            measurement.bytesRead(function.getInputJavaClassFile().length());
+            validateInputJavaClassSource(function);
+        }
+    }
+
+    private void validateInputJavaClassSource(final KubelessFunction function) throws MojoExecutionException {
+        // a function validated again, e.g. by the watch goal, must not keep the syntax tree of its previous content
+        function.setCompilationUnit(null);
+        if (fastValidation) {
+            final FunctionSignatureScanner.Result result = scanInputJavaClass(function);
+            switch (result.getStatus()) {
+                case VALID:
+                    function.setHandlerMethodName(result.getDetail());
+                    return;
+                case INVALID_PACKAGE:
+                    throw new MojoExecutionException(getInvalidPackageMessage());
+                case CLASS_NOT_FOUND:
+                    throw new MojoExecutionException(INVALID_JAVA_CLASS_MESSAGE);
+                case NO_KUBELESS_FUNCTION:
+                    throw new MojoExecutionException(NO_KUBELESS_FUNCTION_MESSAGE);
+                default:
+                    getLog().debug(String.format("Parsing %s with JavaParser, the fast validation is not conclusive: %s",
+                            function.getInputJavaClassFile(), result.getDetail()));
+            }
+        }
+        parseInputJavaClass(function);
+    }
+
+    private FunctionSignatureScanner.Result scanInputJavaClass(final KubelessFunction function) throws MojoExecutionException {
+        try (FileHandles.Permit ignored = FileHandles.acquire();
+             Reader reader = Files.newBufferedReader(function.getInputJavaClassFile().toPath(), StandardCharsets.UTF_8)) {
+            return FunctionSignatureScanner.scan(reader, function.getName());
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to read input Java Class", e);
+        }
+    }
+
+    private void parseInputJavaClass(final KubelessFunction function) throws MojoExecutionException {
         try {
-            final CompilationUnit compilationUnit = StaticJavaParser.parse(getInputJavaClassFile());
+            final CompilationUnit compilationUnit = readCompilationUnit(function);
+            if (pruneDependencies || nativeImage) {
+                function.setCompilationUnit(compilationUnit);
+            }
 
             Optional<PackageDeclaration> packageDeclarationOptional = compilationUnit.getPackageDeclaration();
             boolean hasValidPackage = packageDeclarationOptional.isPresent() &&
                     packageDeclarationOptional.get().getName().asString().equals(PKG_NAME_IO_KUBELESS);
             if (!hasValidPackage) {
-                String errorMessage = String.format("The input Java Class must be in %s and belong to package %s",
-                        project.getBasedir(), PKG_NAME_IO_KUBELESS);
-                throw new MojoExecutionException(errorMessage);
+                throw new MojoExecutionException(getInvalidPackageMessage());
             }
 
-            ClassOrInterfaceDeclaration classOrInterfaceDeclaration = compilationUnit.getClassByName(inputJavaClassName)
-                    .orElseThrow(() -> new MojoExecutionException("The input Java Class informed is not a valid Java Class"));
+            ClassOrInterfaceDeclaration classOrInterfaceDeclaration = compilationUnit.getClassByName(function.getName())
+                    .orElseThrow(() -> new MojoExecutionException(INVALID_JAVA_CLASS_MESSAGE));
 
             AccessSpecifier accessSpecifier = classOrInterfaceDeclaration.getAccessSpecifier();
             if (accessSpecifier.equals(AccessSpecifier.PRIVATE) || accessSpecifier.equals(AccessSpecifier.PROTECTED)) {
@@ -100,21 +246,42 @@ public class KubelessConvertMojo extends AbstractMojo {
                         String type = methodDeclaration.getParameter(1).getTypeAsString();
                         return type.equals("io.kubeless.Context") || type.equals("Context");
                     })
-                    .findAny();
+                    .findFirst();
 
             if (!anyMethodOptional.isPresent()) {
-                throw new MojoExecutionException("The input Java Class informed does not implement any Kubeless Function, i.e, one method that takes io.kubeless.Event and io.kubeless.Context as parameters and returns a String");
+                throw new MojoExecutionException(NO_KUBELESS_FUNCTION_MESSAGE);
             }
-        } catch (FileNotFoundException e) {
+            function.setHandlerMethodName(anyMethodOptional.get().getNameAsString());
+        } catch (IOException e) {
             throw new MojoExecutionException("Unable to read input Java Class", e);
         } catch (ParseProblemException e) {
             throw new MojoExecutionException("Unable to parse input Java Class", e);
         }
     }
 
-    private void createOutputDirectory() throws MojoExecutionException {
-        try {
-            final Path path = Paths.get(outputDirectory.toURI());
+    /**
+     * Parses the input Java Class from a reader closed as soon as the parsing ends, whatever its outcome. Each call
+     * gets a parser of its own, so executions running in parallel share no parser state. Comments are not attributed
+     * to the nodes: nothing reads them, and attributing them takes time and memory quadratic in the size of the class.
+     */
+    private CompilationUnit readCompilationUnit(final KubelessFunction function) throws IOException {
+        try (FileHandles.Permit ignored = FileHandles.acquire();
+             Reader reader = Files.newBufferedReader(function.getInputJavaClassFile().toPath(), StandardCharsets.UTF_8)) {
+            final ParseResult<CompilationUnit> result = new JavaParser(new ParserConfiguration().setAttributeComments(false)).parse(reader);
+            if (!result.isSuccessful() || !result.getResult().isPresent()) {
+                throw new ParseProblemException(result.getProblems());
+            }
+            return result.getResult().get();
+        }
+    }
+
+    private String getInvalidPackageMessage() {
+        return String.format("The input Java Class must be in %s and belong to package %s", project.getBasedir(), PKG_NAME_IO_KUBELESS);
+    }
+
+    void createOutputDirectory(final KubelessFunction function) throws MojoExecutionException {
+        try (ConversionMetrics.Measurement ignored = metrics.measure(ConversionMetrics.Phase.CREATE_OUTPUT_DIRECTORY)) {
+            final Path path = Paths.get(function.getOutputDirectory().toURI());
             if (!path.toFile().exists()) {
                 Files.createDirectories(path);
                 getLog().info("Created successfully directory: " + path);
@@ -124,29 +291,119 @@ public class KubelessConvertMojo extends AbstractMojo {
         }
     }
 
-    private void createOutputJavaClassFile() throws MojoExecutionException {
-        try {
-            Files.write(getOutputJavaClassFile().toPath(), Files.readAllBytes(getInputJavaClassFile().toPath()));
-            getLog().info("Created successfully file: " + getOutputJavaClassFile());
+    void createOutputJavaClassFile(final KubelessFunction function) throws MojoExecutionException {
+        try (ConversionMetrics.Measurement measurement = metrics.measure(ConversionMetrics.Phase.CREATE_OUTPUT_JAVA_CLASS_FILE)) {
+            measurement.bytesRead(function.getInputJavaClassFile().length());
+            if (OutputFiles.copyIfChanged(function.getInputJavaClassFile().toPath(), function.getOutputJavaClassFile().toPath())) {
+                measurement.bytesWritten(function.getOutputJavaClassFile().length());
+                getLog().info("Created successfully file: " + function.getOutputJavaClassFile());
+            } else {
+                getLog().info("File is up to date: " + function.getOutputJavaClassFile());
+            }
         } catch (IOException e) {
             throw new MojoExecutionException("Unable to write output Java Class", e);
         }
     }
 
-    private void createOutputPomFile() throws MojoExecutionException {
-        final Model model = readPomTemplateFile();
-        model.getDependencies().addAll(getProjectDependencies());
-        writeOutputPomFile(model);
+    /**
+     * Writes the output {@code pom.xml} built on {@code model}, a copy of the template owned by the caller, e.g. the one
+     * returned by {@link #readPomTemplateFile()}, which is modified in place.
+     */
+    Model createOutputPomFile(final KubelessFunction function, final Model model,
+                              final List<Dependency> projectDependencies) throws MojoExecutionException {
+        model.getDependencies().addAll(getFunctionDependencies(function, projectDependencies));
+        if (nativeImage) {
+            model.addProfile(createNativeProfile(function));
+        }
+        writeOutputPomFile(function, model);
+        return model;
     }
 
-    private List<Dependency> getProjectDependencies() throws MojoExecutionException {
-        try {
-            final Model model = mavenXpp3Reader.read(readProjectPomXml());
+    List<Dependency> getFunctionDependencies(final KubelessFunction function,
+                                             final List<Dependency> projectDependencies) throws MojoExecutionException {
+        return pruneDependencies ? pruneDependencies(function, projectDependencies) : projectDependencies;
+    }
+
+    /**
+     * Drops the dependencies that provide none of the packages the input Java Class refers to, and writes a report
+     * with the reason each dependency was kept or dropped next to the output pom.xml.
+     */
+    private List<Dependency> pruneDependencies(final KubelessFunction function,
+                                               final List<Dependency> projectDependencies) throws MojoExecutionException {
+        try (ConversionMetrics.Measurement measurement = metrics.measure(ConversionMetrics.Phase.PRUNE_DEPENDENCIES)) {
+            measurement.dependencies(projectDependencies.size());
+            final DependencyPruner.Result result = new DependencyPruner(getLocalRepository())
+                    .prune(getCompilationUnit(function), projectDependencies);
+            final byte[] report = (String.join(System.lineSeparator(), result.getReportLines()) + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+            if (OutputFiles.writeIfChanged(function.getDependencyPruningReportFile().toPath(), report)) {
+                measurement.bytesWritten(report.length);
+            }
+            getLog().info(String.format("Dropped %d of %d dependencies not referenced by %s, see %s",
+                    result.getDroppedDependencies(), projectDependencies.size(), function.getName(),
+                    function.getDependencyPruningReportFile()));
+            return result.getKeptDependencies();
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to prune the dependencies of " + function.getName(), e);
+        }
+    }
+
+    private CompilationUnit getCompilationUnit(final KubelessFunction function) throws MojoExecutionException {
+        if (function.getCompilationUnit() == null) {
+            parseInputJavaClass(function);
+        }
+        return function.getCompilationUnit();
+    }
 
-            return model.getDependencies().stream()
-                    .filter(d -> d.getScope() == null || (d.getScope() != null && !d.getScope().equals(TEST_SCOPE)))
-                    .filter(d -> !EXCLUDE_DEPENDENCIES.contains(String.format("%s:%s", d.getGroupId(), d.getArtifactId())))
+    private File getLocalRepository() {
+        return localRepository != null ? localRepository
+                : Paths.get(System.getProperty("user.home"), ".m2", "repository").toFile();
+    }
+
+    List<Dependency> getProjectDependencies() throws MojoExecutionException {
+        try (ConversionMetrics.Measurement measurement = metrics.measure(ConversionMetrics.Phase.GET_PROJECT_DEPENDENCIES)) {
+            if (!useProjectModel) {
+                measurement.bytesRead(getInputPomFile().length());
+            }
+            final List<Dependency> dependencies = useProjectModel ? getProjectModelDependencies() : readProjectPomDependencies();
+            final List<Pattern> includePatterns = toPatterns(includeDependencies);
+            final List<Pattern> excludePatterns = toPatterns(excludeDependencies);
+            final List<Dependency> projectDependencies = dependencies.stream()
+                    .filter(d -> !excludeScopes.contains(d.getScope() == null ? COMPILE_SCOPE : d.getScope()))
+                    .filter(d -> includePatterns.isEmpty() || matchesAny(includePatterns, d))
+                    .filter(d -> !matchesAny(excludePatterns, d))
                     .collect(Collectors.toList());
+            measurement.dependencies(projectDependencies.size());
+            return projectDependencies;
+        }
+    }
+
+    private static List<Pattern> toPatterns(final List<String> dependencyPatterns) {
+        return dependencyPatterns == null ? Collections.emptyList() : dependencyPatterns.stream()
+                .map(String::trim)
+                .filter(pattern -> !pattern.isEmpty())
+                .map(pattern -> toPattern(pattern.indexOf(':') >= 0 ? pattern : pattern + ":*"))
+                .collect(Collectors.toList());
+    }
+
+    private static boolean matchesAny(final List<Pattern> patterns, final Dependency dependency) {
+        final String key = String.format("%s:%s", dependency.getGroupId(), dependency.getArtifactId());
+        return patterns.stream().anyMatch(pattern -> pattern.matcher(key).matches());
+    }
+
+    /**
+     * Dependencies of the model Maven already built for the project, i.e, with properties interpolated, versions and
+     * scopes from dependencyManagement and dependencies inherited from parents.
+     */
+    private List<Dependency> getProjectModelDependencies() {
+        return project.getModel().getDependencies().stream()
+                .map(Dependency::clone)
+                .collect(Collectors.toList());
+    }
+
+    private List<Dependency> readProjectPomDependencies() throws MojoExecutionException {
+        try (FileHandles.Permit ignored = FileHandles.acquire();
+             InputStream inputStream = readProjectPomXml()) {
+            return mavenXpp3Reader.read(inputStream).getDependencies();
         } catch (IOException e) {
             throw new MojoExecutionException("An exception occurred while reading project pom.xml", e);
         } catch (XmlPullParserException e) {
@@ -156,64 +413,862 @@ public class KubelessConvertMojo extends AbstractMojo {
 
     private InputStream readProjectPomXml() throws MojoExecutionException {
         try {
-            return new FileInputStream(getInputPomFile());
-        } catch (FileNotFoundException e) {
+            return Files.newInputStream(getInputPomFile().toPath());
+        } catch (IOException e) {
             throw new MojoExecutionException("Unable to read project pom.xml", e);
         }
     }
 
-    private Model readPomTemplateFile() throws MojoExecutionException {
+    Model readPomTemplateFile() throws MojoExecutionException {
         try {
-            return mavenXpp3Reader.read(this.getClass().getResourceAsStream(POM_TEMPLATE_XML));
+            final Model model = PomTemplateCache.get(getPomTemplateLocation(), readPomTemplateBytes());
+            getLog().debug(String.format("pom.xml template cache: %d hit(s), %d miss(es)",
+                    PomTemplateCache.getHits(), PomTemplateCache.getMisses()));
+            return model;
         } catch (IOException e) {
-            throw new MojoExecutionException("An exception occurred while reading pom-template.xml", e);
+            throw new MojoExecutionException("An exception occurred while reading pom.xml template " + getPomTemplateLocation(), e);
         } catch (XmlPullParserException e) {
-            throw new MojoExecutionException("Unable to parse pom-template.xml", e);
+            throw new MojoExecutionException("Unable to parse pom.xml template " + getPomTemplateLocation(), e);
         }
     }
 
-    private void writeOutputPomFile(final Model model) throws MojoExecutionException {
-        try {
-            mavenXpp3Writer.write(new FileOutputStream(getOutputResourceFilePath()), model);
-            getLog().info("Created successfully file: " + getOutputResourceFilePath());
+    private byte[] readPomTemplateBytes() throws MojoExecutionException, IOException {
+        if (pomTemplateFile != null) {
+            if (!pomTemplateFile.isFile()) {
+                throw new MojoExecutionException(String.format("The pom.xml template file informed does not exist: %s", pomTemplateFile));
+            }
+            try (FileHandles.Permit ignored = FileHandles.acquire()) {
+                return Files.readAllBytes(pomTemplateFile.toPath());
+            }
+        }
+        try (InputStream inputStream = this.getClass().getResourceAsStream(POM_TEMPLATE_XML)) {
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, read);
+            }
+            return outputStream.toByteArray();
+        }
+    }
+
+    private String getPomTemplateLocation() {
+        return pomTemplateFile != null ? pomTemplateFile.getAbsolutePath() : "classpath:" + POM_TEMPLATE_XML;
+    }
+
+    private void writeOutputPomFile(final KubelessFunction function, final Model model) throws MojoExecutionException {
+        try (ConversionMetrics.Measurement measurement = metrics.measure(ConversionMetrics.Phase.WRITE_OUTPUT_POM_FILE)) {
+            measurement.dependencies(model.getDependencies().size());
+            if (OutputFiles.writeIfChanged(function.getOutputPomFile().toPath(), outputStream -> mavenXpp3Writer.write(outputStream, model))) {
+                measurement.bytesWritten(function.getOutputPomFile().length());
+                getLog().info("Created successfully file: " + function.getOutputPomFile());
+            } else {
+                getLog().info("File is up to date: " + function.getOutputPomFile());
+            }
         } catch (IOException e) {
             throw new MojoExecutionException("Unable to write new pom.xml", e);
         }
     }
 
-    private File getInputJavaClassDirectory() {
-        return Paths.get(project.getBasedir() + File.separator + FOLDER_PATH_IO_KUBELESS).toFile();
+    /**
+     * Resolves the dependencies of the output pom.xml against the local repository and compares the bytes of their
+     * jars, their number of classes and the depth of their transitive closure with {@code maxDependencyBytes},
+     * {@code maxClasses} and {@code maxDependencyDepth}, when one of them is set. The totals and the largest
+     * dependencies are written to a report next to the output pom.xml; a budget exceeded is a warning, or an error
+     * when {@code dependencyBudgetAction} is {@code fail}.
+     */
+    void analyzeDependencyBudget(final KubelessFunction function, final List<Dependency> dependencies) throws MojoExecutionException {
+        if (!isDependencyBudgetEnabled()) {
+            return;
+        }
+        final boolean failOnViolation = isDependencyBudgetFailing();
+        final DependencyBudget budget;
+        try (ConversionMetrics.Measurement measurement = metrics.measure(ConversionMetrics.Phase.ANALYZE_DEPENDENCY_BUDGET)) {
+            final LocalRepositoryResolver.Resolution resolution = resolveDependencies(function, dependencies, "analyze the dependency budget");
+            measurement.dependencies(resolution.getArtifacts().size());
+            budget = DependencyBudget.analyze(resolution, maxDependencyBytes, maxClasses, maxDependencyDepth);
+            final List<String> reportLines = new ArrayList<>();
+            reportLines.add("Dependency budget of " + function.getName());
+            reportLines.addAll(budget.getReportLines(DEPENDENCY_BUDGET_LARGEST));
+            final byte[] report = (String.join(System.lineSeparator(), reportLines) + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+            if (OutputFiles.writeIfChanged(function.getDependencyBudgetReportFile().toPath(), report)) {
+                measurement.bytesWritten(report.length);
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to analyze the dependency budget of " + function.getName(), e);
+        }
+        getLog().info(String.format("Dependencies of %s: %d jar(s), %d bytes, %d classes, depth %d, see %s", function.getName(),
+                budget.getContributors().size(), budget.getTotalBytes(), budget.getTotalClasses(), budget.getDepth(),
+                function.getDependencyBudgetReportFile()));
+
+        final List<String> violations = budget.getViolations();
+        if (violations.isEmpty()) {
+            return;
+        }
+        final String message = String.format("The dependencies of %s exceed their budget: %s. Largest dependencies: %s",
+                function.getName(), String.join("; ", violations), budget.getContributors().stream()
+                        .limit(DEPENDENCY_BUDGET_LARGEST_LOGGED)
+                        .map(contributor -> String.format("%s (%d bytes, %d classes)", contributor.getCoordinates(),
+                                contributor.getBytes(), contributor.getNumberOfClasses()))
+                        .collect(Collectors.joining(", ")));
+        if (failOnViolation) {
+            throw new MojoExecutionException(message);
+        }
+        getLog().warn(message);
+    }
+
+    private boolean isDependencyBudgetEnabled() {
+        return maxDependencyBytes > 0 || maxClasses > 0 || maxDependencyDepth > 0;
+    }
+
+    private boolean isDependencyBudgetFailing() throws MojoExecutionException {
+        final String action = dependencyBudgetAction == null ? DEPENDENCY_BUDGET_WARN : dependencyBudgetAction.trim();
+        if (action.equalsIgnoreCase(DEPENDENCY_BUDGET_FAIL)) {
+            return true;
+        }
+        if (action.equalsIgnoreCase(DEPENDENCY_BUDGET_WARN)) {
+            return false;
+        }
+        throw new MojoExecutionException(String.format("Invalid dependencyBudgetAction '%s', it must be warn or fail", dependencyBudgetAction));
+    }
+
+    /**
+     * Writes the Kubeless Function custom resource with the output Java Class and pom.xml inline, when
+     * {@code functionManifest} is {@code yaml} or {@code json}.
+     */
+    void createFunctionManifestFile(final KubelessFunction function) throws MojoExecutionException {
+        final FunctionManifestWriter.Format format = getFunctionManifestFormat();
+        if (format == null) {
+            return;
+        }
+        final File functionManifestFile = function.getFunctionManifestFile(format);
+        try (ConversionMetrics.Measurement measurement = metrics.measure(ConversionMetrics.Phase.CREATE_FUNCTION_MANIFEST_FILE)) {
+            measurement.bytesRead(function.getOutputJavaClassFile().length() + function.getOutputPomFile().length());
+            final Map<String, Object> manifest = FunctionManifestWriter.build(function.getName(), functionNamespace,
+                    functionRuntime, function.getName() + "." + function.getHandlerMethodName(), functionTimeout,
+                    function.getOutputJavaClassFile().getName(), Files.readAllBytes(function.getOutputJavaClassFile().toPath()),
+                    Files.readAllBytes(function.getOutputPomFile().toPath()), functionCompressionThreshold,
+                    resourceRequests, resourceLimits);
+            if (OutputFiles.writeIfChanged(functionManifestFile.toPath(), outputStream -> FunctionManifestWriter.write(
+                    manifest, format, new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)))) {
+                measurement.bytesWritten(functionManifestFile.length());
+                getLog().info("Created successfully file: " + functionManifestFile);
+            } else {
+                getLog().info("File is up to date: " + functionManifestFile);
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to write Kubeless Function manifest", e);
+        }
+    }
+
+    private FunctionManifestWriter.Format getFunctionManifestFormat() throws MojoExecutionException {
+        if (functionManifest == null || functionManifest.trim().equalsIgnoreCase(FUNCTION_MANIFEST_NONE)) {
+            return null;
+        }
+        for (FunctionManifestWriter.Format format : FunctionManifestWriter.Format.values()) {
+            if (format.getExtension().equalsIgnoreCase(functionManifest.trim())) {
+                return format;
+            }
+        }
+        throw new MojoExecutionException(String.format("Invalid functionManifest '%s', it must be none, yaml or json", functionManifest));
+    }
+
+    /**
+     * Resolves the dependencies of the output pom.xml, and their transitive dependencies, against the local repository
+     * and packs the jars in a bundle next to the output files, when {@code dependencyBundle} is {@code directory} or
+     * {@code zip}. Nothing is downloaded, a dependency missing in the local repository is an error.
+     *
+     * @return the bundle file or folder, {@code null} when no bundle is created
+     */
+    File createDependencyBundle(final KubelessFunction function, final List<Dependency> dependencies) throws MojoExecutionException {
+        final DependencyBundle.Layout layout = getDependencyBundleLayout();
+        if (layout == null) {
+            return null;
+        }
+        try (ConversionMetrics.Measurement measurement = metrics.measure(ConversionMetrics.Phase.CREATE_DEPENDENCY_BUNDLE)) {
+            final LocalRepositoryResolver.Resolution resolution = resolveDependencies(function, dependencies, "create the dependency bundle");
+            measurement.dependencies(resolution.getArtifacts().size());
+            final DependencyBundle bundle = DependencyBundle.of(resolution.getArtifacts(), layout);
+            final File bundleFile = new File(function.getOutputDirectory(), bundle.getName());
+            if (bundle.writeTo(function.getOutputDirectory())) {
+                final long jarBytes = resolution.getArtifacts().stream().mapToLong(artifact -> artifact.getFile().length()).sum();
+                measurement.bytesRead(jarBytes).bytesWritten(layout == DependencyBundle.Layout.ZIP ? bundleFile.length() : jarBytes);
+                getLog().info(String.format("Created successfully dependency bundle with %d jar(s): %s", bundle.getNumberOfJars(), bundleFile));
+            } else {
+                getLog().info("Dependency bundle is up to date: " + bundleFile);
+            }
+            return bundleFile;
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to write the dependency bundle of " + function.getName(), e);
+        }
+    }
+
+    /**
+     * Writes the GraalVM native-image configuration of the function to {@code META-INF/native-image}, when
+     * {@code nativeImage} is {@code true}: the reflection entries of the function class, its handler and the classes
+     * and resources it looks up with string literals, merged with the configurations shipped in the jars of
+     * {@code dependencies} found in the local repository.
+     */
+    void createNativeImageConfig(final KubelessFunction function, final List<Dependency> dependencies) throws MojoExecutionException {
+        if (!nativeImage) {
+            return;
+        }
+        try (ConversionMetrics.Measurement measurement = metrics.measure(ConversionMetrics.Phase.CREATE_NATIVE_IMAGE_CONFIG)) {
+            final ClassOrInterfaceDeclaration classOrInterfaceDeclaration = getCompilationUnit(function)
+                    .getClassByName(function.getName())
+                    .orElseThrow(() -> new MojoExecutionException(INVALID_JAVA_CLASS_MESSAGE));
+            final MethodDeclaration handlerMethod = classOrInterfaceDeclaration.getMethodsByName(function.getHandlerMethodName()).stream()
+                    .filter(methodDeclaration -> methodDeclaration.getParameters().size() == 2)
+                    .findFirst()
+                    .orElseThrow(() -> new MojoExecutionException(NO_KUBELESS_FUNCTION_MESSAGE));
+            final NativeImageConfig config = NativeImageConfig.of(classOrInterfaceDeclaration, handlerMethod);
+
+            final LocalRepositoryResolver.Resolution resolution = resolveDependencies(function, dependencies, "merge the native image configuration");
+            measurement.dependencies(resolution.getArtifacts().size());
+            for (LocalRepositoryResolver.ResolvedArtifact artifact : resolution.getArtifacts()) {
+                config.mergeJar(artifact.getFile());
+                measurement.bytesRead(artifact.getFile().length());
+            }
+
+            final Path configDirectory = function.getNativeImageConfigDirectory().toPath();
+            Files.createDirectories(configDirectory);
+            final Map<String, byte[]> files = new LinkedHashMap<>();
+            files.put(NativeImageConfig.REFLECT_CONFIG_FILE, config.getReflectConfig());
+            files.put(NativeImageConfig.RESOURCE_CONFIG_FILE, config.getResourceConfig());
+            files.put(NativeImageConfig.PROPERTIES_FILE, config.getProperties());
+            boolean changed = false;
+            for (Map.Entry<String, byte[]> file : files.entrySet()) {
+                if (OutputFiles.writeIfChanged(configDirectory.resolve(file.getKey()), file.getValue())) {
+                    measurement.bytesWritten(file.getValue().length);
+                    changed = true;
+                }
+            }
+            if (changed) {
+                getLog().info(String.format("Created successfully native image configuration with %d reflection entries, merged with %d jar(s): %s",
+                        config.getNumberOfReflectEntries(), config.getMergedJars().size(), configDirectory));
+            } else {
+                getLog().info("Native image configuration is up to date: " + configDirectory);
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to write the native image configuration of " + function.getName(), e);
+        }
+    }
+
+    /**
+     * The {@code native} profile of the output pom.xml, building the function into a native executable with
+     * {@code mvn -Pnative package}, with the native-image configuration next to the pom.xml on the class path.
+     */
+    private static Profile createNativeProfile(final KubelessFunction function) {
+        final Resource resources = new Resource();
+        resources.setDirectory("src/main/resources");
+        final Resource nativeImageConfig = new Resource();
+        nativeImageConfig.setDirectory("${project.basedir}");
+        nativeImageConfig.addInclude("META-INF/native-image/**");
+
+        final PluginExecution execution = new PluginExecution();
+        execution.setId("build-native");
+        execution.setPhase("package");
+        execution.addGoal("compile-no-fork");
+        final Xpp3Dom configuration = new Xpp3Dom("configuration");
+        final Xpp3Dom imageName = new Xpp3Dom("imageName");
+        imageName.setValue(FunctionManifestWriter.toResourceName(function.getName()));
+        configuration.addChild(imageName);
+        final Plugin plugin = new Plugin();
+        plugin.setGroupId(NATIVE_MAVEN_PLUGIN_GROUP_ID);
+        plugin.setArtifactId(NATIVE_MAVEN_PLUGIN_ARTIFACT_ID);
+        plugin.setVersion(NATIVE_MAVEN_PLUGIN_VERSION);
+        plugin.setExtensions(true);
+        plugin.addExecution(execution);
+        plugin.setConfiguration(configuration);
+
+        final BuildBase build = new BuildBase();
+        build.addResource(resources);
+        build.addResource(nativeImageConfig);
+        build.addPlugin(plugin);
+        final Profile profile = new Profile();
+        profile.setId(NATIVE_PROFILE_ID);
+        profile.setBuild(build);
+        return profile;
+    }
+
+    /**
+     * Writes the JVM options of the function for {@code runtimeProfile}, when it is not {@code none}, and the memory
+     * and CPU limits of {@code resourceLimits}, or of {@code resourceRequests} when there is no limit, as an env file
+     * and a shell snippet setting {@code JAVA_OPTS} and {@code MAVEN_OPTS}. The metaspace is sized from the number of
+     * {@code dependencies}, the ones of the output pom.xml. Each option is logged with the reason it was chosen.
+     */
+    void createRuntimeProfile(final KubelessFunction function, final List<Dependency> dependencies) throws MojoExecutionException {
+        final JvmRuntimeProfile.Goal goal = getRuntimeProfileGoal();
+        if (goal == null) {
+            return;
+        }
+        try (ConversionMetrics.Measurement measurement = metrics.measure(ConversionMetrics.Phase.CREATE_RUNTIME_PROFILE)) {
+            measurement.dependencies(dependencies.size());
+            final JvmRuntimeProfile profile;
+            try {
+                profile = JvmRuntimeProfile.compute(goal, getResourceQuantity("memory"), getResourceQuantity("cpu"), dependencies.size());
+            } catch (IllegalArgumentException e) {
+                throw new MojoExecutionException(String.format("Unable to compute the JVM options of %s: %s", function.getName(), e.getMessage()), e);
+            }
+            getLog().info(String.format("JVM options of %s, %s:", function.getName(), profile.getDescription()));
+            profile.getChoices().forEach(choice -> getLog().info("  " + choice));
+
+            final Map<File, byte[]> files = new LinkedHashMap<>();
+            files.put(function.getJvmOptionsEnvFile(), profile.getEnvFile(function.getName()));
+            files.put(function.getJvmOptionsScriptFile(), profile.getShellSnippet(function.getName()));
+            for (Map.Entry<File, byte[]> file : files.entrySet()) {
+                if (OutputFiles.writeIfChanged(file.getKey().toPath(), file.getValue())) {
+                    measurement.bytesWritten(file.getValue().length);
+                    getLog().info("Created successfully file: " + file.getKey());
+                } else {
+                    getLog().info("File is up to date: " + file.getKey());
+                }
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to write the JVM options of " + function.getName(), e);
+        }
+    }
+
+    private JvmRuntimeProfile.Goal getRuntimeProfileGoal() throws MojoExecutionException {
+        if (runtimeProfile == null || runtimeProfile.trim().equalsIgnoreCase(RUNTIME_PROFILE_NONE)) {
+            return null;
+        }
+        final JvmRuntimeProfile.Goal goal = JvmRuntimeProfile.Goal.of(runtimeProfile);
+        if (goal == null) {
+            throw new MojoExecutionException(String.format(
+                    "Invalid runtimeProfile '%s', it must be none, latency, throughput or minimal-memory", runtimeProfile));
+        }
+        return goal;
+    }
+
+    private String getResourceQuantity(final String resource) {
+        if (resourceLimits != null && resourceLimits.get(resource) != null) {
+            return resourceLimits.get(resource);
+        }
+        return resourceRequests != null ? resourceRequests.get(resource) : null;
+    }
+
+    /**
+     * Resolves {@code dependencies}, but the ones matching {@code bundleExcludeDependencies}, and their transitive
+     * dependencies against the local repository, failing when an artifact is missing.
+     */
+    LocalRepositoryResolver.Resolution resolveDependencies(final KubelessFunction function, final List<Dependency> dependencies,
+                                                           final String purpose) throws MojoExecutionException {
+        final List<Pattern> excludePatterns = toPatterns(bundleExcludeDependencies);
+        final LocalRepositoryResolver.Resolution resolution = new LocalRepositoryResolver(getLocalRepository()).resolve(
+                dependencies.stream().filter(d -> !matchesAny(excludePatterns, d)).collect(Collectors.toList()));
+        if (!resolution.getMissingArtifacts().isEmpty()) {
+            throw new MojoExecutionException(String.format("Unable to %s of %s, artifacts not found in the local repository %s: %s",
+                    purpose, function.getName(), getLocalRepository(), String.join(", ", resolution.getMissingArtifacts())));
+        }
+        return resolution;
+    }
+
+    /**
+     * Jar of the Kubeless JVM runtime the project depends on, whatever {@code excludeDependencies} says, found in the
+     * local repository in order to {@code purpose}. The runtime image ships it as a single jar, so its own
+     * dependencies are not resolved.
+     */
+    File getRuntimeJar(final KubelessFunction function, final String purpose) throws MojoExecutionException {
+        final List<Dependency> dependencies = useProjectModel ? getProjectModelDependencies() : readProjectPomDependencies();
+        final Dependency runtimeDependency = dependencies.stream()
+                .filter(d -> JVM_RUNTIME_DEPENDENCY.equals(d.getGroupId() + ":" + d.getArtifactId()))
+                .findFirst()
+                .orElseThrow(() -> new MojoExecutionException(String.format("Unable to %s of %s, the project does not depend on %s",
+                        purpose, function.getName(), JVM_RUNTIME_DEPENDENCY)));
+        final String version = runtimeDependency.getVersion();
+        final File runtimeJar = version == null || version.contains("${") ? null : new LocalRepositoryResolver(getLocalRepository())
+                .getArtifactFile(runtimeDependency.getGroupId(), runtimeDependency.getArtifactId(), version, "", "jar");
+        if (runtimeJar == null || !runtimeJar.isFile()) {
+            throw new MojoExecutionException(String.format("Unable to %s of %s, artifacts not found in the local repository %s: %s:%s",
+                    purpose, function.getName(), getLocalRepository(), JVM_RUNTIME_DEPENDENCY, version));
+        }
+        return runtimeJar;
+    }
+
+    private DependencyBundle.Layout getDependencyBundleLayout() throws MojoExecutionException {
+        if (dependencyBundle == null || dependencyBundle.trim().equalsIgnoreCase(DEPENDENCY_BUNDLE_NONE)) {
+            return null;
+        }
+        for (DependencyBundle.Layout layout : DependencyBundle.Layout.values()) {
+            if (layout.name().equalsIgnoreCase(dependencyBundle.trim())) {
+                return layout;
+            }
+        }
+        throw new MojoExecutionException(String.format("Invalid dependencyBundle '%s', it must be none, directory or zip", dependencyBundle));
+    }
+
+    //-- Multiple functions
+
+    /**
+     * Converts the input Java Classes informed in {@code inputJavaClassNames}. Errors of single classes do not stop
+     * the conversion of the others, they are collected in the returned report.
+     */
+    ConversionReport convertMultipleFunctions() throws MojoExecutionException {
+        final long start = System.nanoTime();
+        metrics = new ConversionMetrics();
+        final ConversionReport report = new ConversionReport();
+        final Set<String> discoveredNames = new LinkedHashSet<>();
+        final List<KubelessFunction> functions = findFunctions(discoveredNames, report);
+
+        final Map<KubelessFunction, String> fingerprints = new LinkedHashMap<>();
+        for (KubelessFunction function : functions) {
+            String fingerprint = null;
+            if (incremental) {
+                fingerprint = computeFingerprint(function);
+                if (isUpToDate(function, fingerprint)) {
+                    getLog().info("Skipping conversion, outputs are up to date: " + function.getOutputDirectory());
+                    report.upToDate(function.getName());
+                    continue;
+                }
+            }
+            fingerprints.put(function, fingerprint);
+        }
+
+        if (!fingerprints.isEmpty()) {
+            checkInputPomExists();
+            // with the output cache, the dependencies are part of the keys looked up before the validation
+            final List<Dependency> outputCacheProjectDependencies = outputCache != null
+                    ? Collections.unmodifiableList(getProjectDependencies()) : null;
+            final Map<KubelessFunction, String> outputCacheKeys = new ConcurrentHashMap<>();
+
+            final ForkJoinPool forkJoinPool = new ForkJoinPool(getParallelism(fingerprints.size()));
+            try {
+                final List<Callable<KubelessFunction>> validationTasks = fingerprints.keySet().stream()
+                        .map(function -> (Callable<KubelessFunction>) () -> {
+                            try {
+                                if (outputCache != null) {
+                                    final String outputCacheKey = computeOutputCacheKey(function, outputCacheProjectDependencies);
+                                    outputCacheKeys.put(function, outputCacheKey);
+                                    if (restoreFromOutputCache(function, outputCacheKey)) {
+                                        if (fingerprints.get(function) != null) {
+                                            writeFingerprintFile(function, fingerprints.get(function));
+                                        }
+                                        report.converted(function.getName());
+                                        return null;
+                                    }
+                                }
+                                validateInputJavaClass(function);
+                                return function;
+                            } catch (MojoExecutionException e) {
+                                if (discoveredNames.contains(function.getName())) {
+                                    getLog().warn(String.format("Skipping %s: %s", function.getName(), e.getMessage()));
+                                    report.skipped(function.getName(), e.getMessage());
+                                } else {
+                                    report.failed(function.getName(), e.getMessage());
+                                }
+                                return null;
+                            }
+                        })
+                        .collect(Collectors.toList());
+                final List<KubelessFunction> validFunctions = new ArrayList<>();
+                for (Future<KubelessFunction> future : forkJoinPool.invokeAll(validationTasks)) {
+                    if (future.get() != null) {
+                        validFunctions.add(future.get());
+                    }
+                }
+
+                if (!validFunctions.isEmpty()) {
+                    final Model pomTemplate = readPomTemplateFile();
+                    final List<Dependency> projectDependencies = outputCacheProjectDependencies != null
+                            ? outputCacheProjectDependencies : Collections.unmodifiableList(getProjectDependencies());
+
+                    final List<Callable<Void>> conversionTasks = validFunctions.stream()
+                            .map(function -> (Callable<Void>) () -> {
+                                try {
+                                    createOutputDirectory(function);
+                                    createOutputJavaClassFile(function);
+                                    final Model outputPom = createOutputPomFile(function, pomTemplate.clone(), projectDependencies);
+                                    analyzeDependencyBudget(function, outputPom.getDependencies());
+                                    createFunctionManifestFile(function);
+                                    final File bundleFile = createDependencyBundle(function, outputPom.getDependencies());
+                                    createNativeImageConfig(function, outputPom.getDependencies());
+                                    createRuntimeProfile(function, outputPom.getDependencies());
+                                    if (outputCacheKeys.containsKey(function)) {
+                                        storeInOutputCache(function, outputCacheKeys.get(function), bundleFile);
+                                    }
+                                    if (fingerprints.get(function) != null) {
+                                        writeFingerprintFile(function, fingerprints.get(function));
+                                    }
+                                    report.converted(function.getName());
+                                } catch (MojoExecutionException e) {
+                                    report.failed(function.getName(), e.getMessage());
+                                }
+                                return null;
+                            })
+                            .collect(Collectors.toList());
+                    for (Future<Void> future : forkJoinPool.invokeAll(conversionTasks)) {
+                        future.get();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MojoExecutionException("Interrupted while converting the input Java Classes", e);
+            } catch (ExecutionException e) {
+                throw new MojoExecutionException("Unable to convert the input Java Classes", e.getCause());
+            } finally {
+                forkJoinPool.shutdown();
+            }
+        }
+
+        finishMetrics(start);
+        return report;
+    }
+
+    private List<KubelessFunction> findFunctions(final Set<String> discoveredNames, final ConversionReport report)
+            throws MojoExecutionException {
+        final File inputJavaClassDirectory = getInputJavaClassDirectory();
+        final List<String> availableNames = new ArrayList<>();
+        if (inputJavaClassDirectory.isDirectory()) {
+            try (Stream<Path> paths = Files.list(inputJavaClassDirectory.toPath())) {
+                paths.map(path -> path.getFileName().toString())
+                        .filter(fileName -> fileName.endsWith(DOT_JAVA))
+                        .map(fileName -> fileName.substring(0, fileName.length() - DOT_JAVA.length()))
+                        .sorted()
+                        .forEach(availableNames::add);
+            } catch (IOException e) {
+                throw new MojoExecutionException("Unable to list the input Java Classes in " + inputJavaClassDirectory, e);
+            }
+        }
+
+        final Set<String> explicitNames = new LinkedHashSet<>();
+        final Set<String> names = new LinkedHashSet<>();
+        for (String inputName : inputJavaClassNames) {
+            final String name = inputName.trim();
+            if (isGlobPattern(name)) {
+                final Pattern pattern = toPattern(name);
+                availableNames.stream().filter(n -> pattern.matcher(n).matches()).forEach(names::add);
+            } else if (availableNames.contains(name)) {
+                explicitNames.add(name);
+                names.add(name);
+            } else {
+                report.failed(name, String.format("The input Java Class informed does not exist in %s", inputJavaClassDirectory));
+            }
+        }
+        names.stream().filter(name -> !explicitNames.contains(name)).forEach(discoveredNames::add);
+
+        return names.stream()
+                .map(name -> new KubelessFunction(name, getInputJavaClassFile(name), new File(outputDirectory, name)))
+                .collect(Collectors.toList());
+    }
+
+    private int getParallelism(final int numberOfFunctions) {
+        final int maxParallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        return Math.max(1, Math.min(maxParallelism, numberOfFunctions));
+    }
+
+    static boolean isGlobPattern(final String name) {
+        return name.indexOf('*') >= 0 || name.indexOf('?') >= 0;
+    }
+
+    static Pattern toPattern(final String globPattern) {
+        final StringBuilder regex = new StringBuilder();
+        for (char c : globPattern.toCharArray()) {
+            if (c == '*') {
+                regex.append(".*");
+            } else if (c == '?') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    //-- Metrics
+
+    /**
+     * Adds the metrics of this execution to the ones of the session and writes both to {@code outputDirectory}.
+     */
+    private void finishMetrics(final long start) throws MojoExecutionException {
+        sessionMetrics = metrics.finish(start, session);
+        final Map<String, Object> report = new LinkedHashMap<>();
+        report.put("execution", metrics.toMap());
+        report.put("session", sessionMetrics.toMap());
+        try {
+            Files.createDirectories(outputDirectory.toPath());
+            OutputFiles.writeIfChanged(new File(outputDirectory, METRICS_FILE).toPath(), outputStream -> {
+                final Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+                JsonWriter.write(report, writer);
+                writer.write('\n');
+                writer.flush();
+            });
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to write metrics report", e);
+        }
+    }
+
+    private void logMetricsSummary() {
+        getLog().info("Kubeless conversion metrics, see " + new File(outputDirectory, METRICS_FILE));
+        metrics.getSummaryLines().forEach(getLog()::info);
+        if (sessionMetrics != null && sessionMetrics.getExecutions() > 1) {
+            getLog().info(String.format("Kubeless conversion metrics of the %d executions of the session", sessionMetrics.getExecutions()));
+            sessionMetrics.getSummaryLines().forEach(getLog()::info);
+        }
+    }
+
+    ConversionMetrics getMetrics() {
+        return metrics;
+    }
+
+    ConversionMetrics getSessionMetrics() {
+        return sessionMetrics;
+    }
+
+    //-- Incremental
+
+    private String computeFingerprint(final KubelessFunction function) throws MojoExecutionException {
+        if (!function.getInputJavaClassFile().exists() || (!useProjectModel && !getInputPomFile().exists())) {
+            return null;
+        }
+        try (ConversionMetrics.Measurement measurement = metrics.measure(ConversionMetrics.Phase.COMPUTE_FINGERPRINT)) {
+            measurement.bytesRead(function.getInputJavaClassFile().length() + (useProjectModel ? 0 : getInputPomFile().length())
+                    + (pomTemplateFile != null ? pomTemplateFile.length() : 0));
+            final Fingerprint fingerprint = new Fingerprint().add("inputJavaClass", function.getInputJavaClassFile());
+            if (useProjectModel) {
+                fingerprint.add("projectDependencies", describeDependencies(getProjectDependencies()));
+            } else {
+                fingerprint.add("inputPom", getInputPomFile());
+            }
+            return fingerprint
+                    .add("pomTemplate", getPomTemplateLocation())
+                    .add("pomTemplateContent", readPomTemplateBytes())
+                    .add("inputJavaClassName", function.getName())
+                    .add("outputDirectory", function.getOutputDirectory().getAbsolutePath())
+                    .add("excludeScopes", String.valueOf(excludeScopes))
+                    .add("includeDependencies", String.valueOf(includeDependencies))
+                    .add("excludeDependencies", String.valueOf(excludeDependencies))
+                    .add("pruneDependencies", pruneDependencies ? getLocalRepository().getAbsolutePath() : "false")
+                    .add("functionManifest", describeFunctionManifest())
+                    .add("dependencyBundle", String.join(",", String.valueOf(dependencyBundle),
+                            String.valueOf(bundleExcludeDependencies), getLocalRepository().getAbsolutePath()))
+                    .add("nativeImage", nativeImage ? getLocalRepository().getAbsolutePath() : "false")
+                    .add("runtimeProfile", String.valueOf(runtimeProfile))
+                    .add("dependencyBudget", String.join(",", describeDependencyBudget(), getLocalRepository().getAbsolutePath()))
+                    .add("pluginVersion", pluginVersion)
+                    .toHex();
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to compute fingerprint of the inputs", e);
+        }
+    }
+
+    private static String describeDependencies(final List<Dependency> dependencies) {
+        return dependencies.stream()
+                .map(d -> String.join(":", d.getManagementKey(), d.getVersion(), String.valueOf(d.getScope()),
+                        String.valueOf(d.isOptional()), d.getExclusions().stream()
+                                .map(e -> e.getGroupId() + ":" + e.getArtifactId())
+                                .collect(Collectors.joining("|"))))
+                .collect(Collectors.joining(","));
+    }
+
+    private String describeFunctionManifest() {
+        return String.join(",", String.valueOf(functionManifest), functionRuntime,
+                String.valueOf(functionNamespace), functionTimeout, String.valueOf(functionCompressionThreshold),
+                String.valueOf(resourceRequests == null ? null : new TreeMap<>(resourceRequests)),
+                String.valueOf(resourceLimits == null ? null : new TreeMap<>(resourceLimits)));
+    }
+
+    /**
+     * Size and last modified time of the jars resolved from the project dependencies, when the outputs are built from
+     * their content, i.e, with the dependency bundle, the pruning, the native image configuration or the dependency
+     * budget, so a jar installed again under the same coordinates, e.g. a SNAPSHOT, gives another key.
+     */
+    private String describeDependencyJars(final List<Dependency> projectDependencies) throws MojoExecutionException {
+        if (getDependencyBundleLayout() == null && !pruneDependencies && !nativeImage && !isDependencyBudgetEnabled()) {
+            return "";
+        }
+        final LocalRepositoryResolver.Resolution resolution = new LocalRepositoryResolver(getLocalRepository()).resolve(projectDependencies);
+        final StringBuilder description = new StringBuilder();
+        for (LocalRepositoryResolver.ResolvedArtifact artifact : resolution.getArtifacts()) {
+            description.append(String.format("%s %d %d%n", artifact.getCoordinates(), artifact.getFile().length(), artifact.getFile().lastModified()));
+        }
+        resolution.getMissingArtifacts().forEach(coordinates -> description.append(String.format("%s missing%n", coordinates)));
+        return description.toString();
+    }
+
+    private String describeDependencyBudget() {
+        return String.join(",", String.valueOf(maxDependencyBytes), String.valueOf(maxClasses),
+                String.valueOf(maxDependencyDepth), String.valueOf(dependencyBudgetAction));
+    }
+
+    private boolean isUpToDate(final KubelessFunction function, final String fingerprint) {
+        if (fingerprint == null) {
+            getLog().info("Running conversion, an input file is missing");
+            return false;
+        }
+        final File fingerprintFile = getFingerprintFile(function);
+        if (!fingerprintFile.exists()) {
+            getLog().info("Running conversion, no fingerprint from a previous execution in " + function.getOutputDirectory());
+            return false;
+        }
+        try {
+            final String previousFingerprint = new String(Files.readAllBytes(fingerprintFile.toPath()), StandardCharsets.UTF_8).trim();
+            if (!previousFingerprint.equals(fingerprint)) {
+                getLog().info("Running conversion, the input files or the plugin configuration changed");
+                return false;
+            }
+        } catch (IOException e) {
+            getLog().info("Running conversion, unable to read previous fingerprint: " + e.getMessage());
+            return false;
+        }
+        try {
+            final FunctionManifestWriter.Format format = getFunctionManifestFormat();
+            if (!function.getOutputJavaClassFile().exists() || !function.getOutputPomFile().exists()
+                    || (format != null && !function.getFunctionManifestFile(format).exists())
+                    || (getDependencyBundleLayout() != null && !function.getDependencyBundlePointerFile().exists())
+                    || (nativeImage && !function.getNativeImageConfigDirectory().isDirectory())
+                    || (getRuntimeProfileGoal() != null && !function.getJvmOptionsEnvFile().exists())
+                    || (isDependencyBudgetEnabled() && !function.getDependencyBudgetReportFile().exists())) {
+                getLog().info("Running conversion, the output files are missing");
+                return false;
+            }
+        } catch (MojoExecutionException e) {
+            return false;
+        }
+        return true;
+    }
+
+    private void writeFingerprintFile(final KubelessFunction function, final String fingerprint) throws MojoExecutionException {
+        try {
+            OutputFiles.writeIfChanged(getFingerprintFile(function).toPath(), fingerprint.getBytes(StandardCharsets.UTF_8));
+            getLog().debug("Stored fingerprint " + fingerprint + " in " + getFingerprintFile(function));
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to write fingerprint file", e);
+        }
+    }
+
+    private File getFingerprintFile(final KubelessFunction function) {
+        return new File(function.getOutputDirectory(), FINGERPRINT_FILE);
+    }
+
+    //-- Output cache
+
+    /**
+     * Digest of the content of everything the outputs of {@code function} depend on, without any path, so executions
+     * in other folders or on other machines share the entries. The dependencies are the ones of the project: the
+     * pruned ones only depend on them, on the input Java Class and on the released jars of the local repository.
+     */
+    private String computeOutputCacheKey(final KubelessFunction function, final List<Dependency> projectDependencies)
+            throws MojoExecutionException {
+        try {
+            return new Fingerprint()
+                    .add("outputCacheFormat", OUTPUT_CACHE_FORMAT)
+                    .add("inputJavaClassName", function.getName())
+                    .add("inputJavaClass", function.getInputJavaClassFile())
+                    .add("projectDependencies", describeDependencies(projectDependencies))
+                    .add("dependencyJars", describeDependencyJars(projectDependencies))
+                    .add("pomTemplateContent", readPomTemplateBytes())
+                    .add("pruneDependencies", String.valueOf(pruneDependencies))
+                    .add("functionManifest", describeFunctionManifest())
+                    .add("dependencyBundle", String.join(",", String.valueOf(dependencyBundle), String.valueOf(bundleExcludeDependencies)))
+                    .add("nativeImage", String.valueOf(nativeImage))
+                    .add("runtimeProfile", String.valueOf(runtimeProfile))
+                    .add("dependencyBudget", describeDependencyBudget())
+                    .add("pluginVersion", pluginVersion)
+                    .toHex();
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to compute the output cache key of " + function.getName(), e);
+        }
+    }
+
+    /**
+     * Copies the outputs of {@code function} from the output cache entry {@code key}. The cache never fails the build:
+     * when the entry cannot be read, the function is converted.
+     *
+     * @return {@code false} if the function must be converted
+     */
+    private boolean restoreFromOutputCache(final KubelessFunction function, final String key) throws MojoExecutionException {
+        try {
+            if (!outputCache.restore(key, function.getOutputDirectory())) {
+                getLog().info(String.format("Output cache miss for %s, key %s", function.getName(), key));
+                return false;
+            }
+            if (getDependencyBundleLayout() != null) {
+                DependencyBundle.deleteOtherBundles(function.getOutputDirectory().toPath(),
+                        DependencyBundle.readBundleName(function.getDependencyBundlePointerFile().toPath()));
+            }
+            getLog().info(String.format("Restored %s from the output cache, key %s", function.getName(), key));
+            return true;
+        } catch (IOException e) {
+            getLog().warn(String.format("Unable to restore %s from the output cache, converting it: %s", function.getName(), e));
+            return false;
+        }
+    }
+
+    private void storeInOutputCache(final KubelessFunction function, final String key, final File bundleFile)
+            throws MojoExecutionException {
+        final List<File> outputFiles = new ArrayList<>();
+        outputFiles.add(function.getOutputJavaClassFile());
+        outputFiles.add(function.getOutputPomFile());
+        final FunctionManifestWriter.Format format = getFunctionManifestFormat();
+        if (format != null) {
+            outputFiles.add(function.getFunctionManifestFile(format));
+        }
+        if (pruneDependencies) {
+            outputFiles.add(function.getDependencyPruningReportFile());
+        }
+        if (isDependencyBudgetEnabled()) {
+            outputFiles.add(function.getDependencyBudgetReportFile());
+        }
+        if (bundleFile != null) {
+            outputFiles.add(function.getDependencyBundlePointerFile());
+            outputFiles.add(bundleFile);
+        }
+        if (nativeImage) {
+            outputFiles.add(function.getNativeImageConfigDirectory());
+        }
+        if (getRuntimeProfileGoal() != null) {
+            outputFiles.add(function.getJvmOptionsEnvFile());
+            outputFiles.add(function.getJvmOptionsScriptFile());
+        }
+        try {
+            if (outputCache.store(key, function.getOutputDirectory(), outputFiles)) {
+                getLog().debug(String.format("Stored %s in the output cache, key %s", function.getName(), key));
+            }
+        } catch (IOException e) {
+            getLog().warn(String.format("Unable to store %s in the output cache: %s", function.getName(), e));
+        }
+    }
+
+    void logOutputCacheSummary() {
+        if (outputCache != null) {
+            getLog().info(outputCache.getSummary());
+        }
     }
 
-    private File getInputJavaClassFile() {
-        return Paths.get(getInputJavaClassDirectory() + File.separator + inputJavaClassName + DOT_JAVA).toFile();
+    File getInputJavaClassDirectory() {
+        return Paths.get(project.getBasedir() + File.separator + FOLDER_PATH_IO_KUBELESS).toFile();
     }
 
-    private File getOutputJavaClassFile() {
-        return Paths.get(outputDirectory + File.separator + inputJavaClassName + DOT_JAVA).toFile();
+    File getInputJavaClassFile(final String javaClassName) {
+        return Paths.get(getInputJavaClassDirectory() + File.separator + javaClassName + DOT_JAVA).toFile();
     }
 
     private File getInputPomDirectory() {
         return project.getBasedir();
     }
 
-    private File getInputPomFile() {
+    File getInputPomFile() {
         return Paths.get(getInputPomDirectory() + File.separator + POM_XML).toFile();
     }
 
-    private String getOutputResourceFilePath() {
-        return outputDirectory + File.separator + POM_XML;
-    }
-
-    private static final MavenXpp3Reader mavenXpp3Reader = new MavenXpp3Reader();
-    private static final MavenXpp3Writer mavenXpp3Writer = new MavenXpp3Writer();
 
-    private static final String TEST_SCOPE = "test";
+    private static final String COMPILE_SCOPE = "compile";
     private static final String POM_XML = "pom.xml";
     private static final String DOT_JAVA = ".java";
+    private static final String FINGERPRINT_FILE = ".kubeless-fingerprint";
+    private static final String OUTPUT_CACHE_FORMAT = "1";
+    static final String METRICS_FILE = "kubeless-metrics.json";
     private static final String POM_TEMPLATE_XML = "/pom-template.xml";
-    private static final String PKG_NAME_IO_KUBELESS = "io.kubeless";
-    private static final String FOLDER_PATH_IO_KUBELESS = "src/main/java/io/kubeless";
-    private static final List<String> EXCLUDE_DEPENDENCIES = Collections.singletonList("de.inoio.kubeless:jvm-runtime");
+    static final String FOLDER_PATH_IO_KUBELESS = "src/main/java/io/kubeless";
+    private static final String INVALID_JAVA_CLASS_MESSAGE = "The input Java Class informed is not a valid Java Class";
+    private static final String NO_KUBELESS_FUNCTION_MESSAGE = "The input Java Class informed does not implement any Kubeless Function, i.e, one method that takes io.kubeless.Event and io.kubeless.Context as parameters and returns a String";
+    private static final String DEPENDENCY_BUDGET_FAIL = "fail";
+    private static final int DEPENDENCY_BUDGET_LARGEST = 20;
+    private static final int DEPENDENCY_BUDGET_LARGEST_LOGGED = 5;
+    private static final String NATIVE_PROFILE_ID = "native";
+    private static final String NATIVE_MAVEN_PLUGIN_GROUP_ID = "org.graalvm.buildtools";
+    private static final String NATIVE_MAVEN_PLUGIN_ARTIFACT_ID = "native-maven-plugin";
+    private static final String NATIVE_MAVEN_PLUGIN_VERSION = "0.10.3";
 
 }
@@ -0,0 +1,103 @@
+package org.ivanfranchin.kubelessplugin;
+
+import com.github.javaparser.ast.CompilationUnit;
+
+import java.io.File;
+
+/**
+ * A Java Class in {@code src/main/java/io/kubeless} that is converted, together with the folder its outputs go to.
+ */
+final class KubelessFunction {
+
+    private final String name;
+    private final File inputJavaClassFile;
+    private final File outputDirectory;
+    private volatile CompilationUnit compilationUnit;
+    private volatile String handlerMethodName;
+
+    KubelessFunction(String name, File inputJavaClassFile, File outputDirectory) {
+        this.name = name;
+        this.inputJavaClassFile = inputJavaClassFile;
+        this.outputDirectory = outputDirectory;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    File getInputJavaClassFile() {
+        return inputJavaClassFile;
+    }
+
+    File getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    /**
+     * The parsed input Java Class, or {@code null} when it was validated without JavaParser.
+     */
+    CompilationUnit getCompilationUnit() {
+        return compilationUnit;
+    }
+
+    void setCompilationUnit(CompilationUnit compilationUnit) {
+        this.compilationUnit = compilationUnit;
+    }
+
+    /**
+     * The name of the Kubeless Function method found by the validation of the input Java Class.
+     */
+    String getHandlerMethodName() {
+        return handlerMethodName;
+    }
+
+    void setHandlerMethodName(String handlerMethodName) {
+        this.handlerMethodName = handlerMethodName;
+    }
+
+    File getOutputJavaClassFile() {
+        return new File(outputDirectory, name + ".java");
+    }
+
+    File getOutputPomFile() {
+        return new File(outputDirectory, "pom.xml");
+    }
+
+    File getFunctionManifestFile(FunctionManifestWriter.Format format) {
+        return new File(outputDirectory, "function." + format.getExtension());
+    }
+
+    File getDependencyBundlePointerFile() {
+        return new File(outputDirectory, DependencyBundle.POINTER_FILE);
+    }
+
+    File getDependencyPruningReportFile() {
+        return new File(outputDirectory, "dependency-pruning-report.txt");
+    }
+
+    /**
+     * Folder of the GraalVM native-image configuration, found by native-image in {@code META-INF/native-image} of
+     * the class path.
+     */
+    File getNativeImageConfigDirectory() {
+        return new File(outputDirectory, "META-INF/native-image/io.kubeless/" + name);
+    }
+
+    File getDependencyBudgetReportFile() {
+        return new File(outputDirectory, "dependency-budget-report.txt");
+    }
+
+    File getJvmOptionsEnvFile() {
+        return new File(outputDirectory, "jvm-options.env");
+    }
+
+    File getJvmOptionsScriptFile() {
+        return new File(outputDirectory, "jvm-options.sh");
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+}
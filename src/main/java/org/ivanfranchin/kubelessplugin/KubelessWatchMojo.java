@@ -0,0 +1,306 @@
+package org.ivanfranchin.kubelessplugin;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Converts the input Java Classes, then keeps watching {@code src/main/java/io/kubeless}, the project {@code pom.xml}
+ * and the {@code pom.xml} template, and updates the outputs when they change until Maven is stopped. Events arriving
+ * in a burst, e.g. the several writes of an editor saving a file, are handled together once no event came for
+ * {@code debounceMillis}. Only the affected part of the conversion runs again: a changed Java Class is validated and
+ * copied, and a changed {@code pom.xml} gives new output {@code pom.xml} files. The parsed template and the project
+ * dependencies are kept between changes.
+ */
+@Mojo(name = "watch", threadSafe = true)
+public class KubelessWatchMojo extends KubelessConvertMojo {
+
+    @Parameter(property = "debounceMillis", defaultValue = "20")
+    protected long debounceMillis = DEFAULT_DEBOUNCE_MILLIS;
+
+    @Parameter(property = "latencyWarningMillis", defaultValue = "50")
+    protected long latencyWarningMillis = DEFAULT_LATENCY_WARNING_MILLIS;
+
+    private final Map<String, KubelessFunction> functions = new ConcurrentHashMap<>();
+    private final CountDownLatch watching = new CountDownLatch(1);
+    private final AtomicInteger handledChanges = new AtomicInteger();
+    private volatile boolean stopped;
+    private List<Dependency> projectDependencies;
+
+    /**
+     * What changed in a burst of events.
+     */
+    private static final class Changes {
+
+        private final Set<String> javaClassNames = new LinkedHashSet<>();
+        private boolean pom;
+        private boolean overflow;
+    }
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if ((inputJavaClassNames == null || inputJavaClassNames.isEmpty())
+                && (inputJavaClassName == null || inputJavaClassName.trim().isEmpty())) {
+            inputJavaClassNames = new ArrayList<>(Collections.singletonList("*"));
+        }
+        final Path inputJavaClassDirectory = getInputJavaClassDirectory().toPath();
+        if (!Files.isDirectory(inputJavaClassDirectory)) {
+            throw new MojoExecutionException(String.format("The input Java Class folder does not exist: %s", inputJavaClassDirectory));
+        }
+
+        try {
+            super.execute();
+        } catch (MojoExecutionException e) {
+            getLog().error("Unable to convert the input Java Classes, waiting for changes: " + e.getMessage());
+        }
+
+        try (WatchService watchService = inputJavaClassDirectory.getFileSystem().newWatchService()) {
+            final Set<Path> directories = new LinkedHashSet<>();
+            directories.add(inputJavaClassDirectory);
+            directories.add(getInputPomFile().getAbsoluteFile().getParentFile().toPath());
+            if (pomTemplateFile != null) {
+                directories.add(pomTemplateFile.getAbsoluteFile().getParentFile().toPath());
+            }
+            for (Path directory : directories) {
+                directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            }
+            getLog().info(String.format("Watching %s for changes, press Ctrl+C to stop", directories));
+            watching.countDown();
+
+            while (!stopped) {
+                final WatchKey firstKey = watchService.poll(STOP_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+                if (firstKey == null) {
+                    continue;
+                }
+                final long start = System.nanoTime();
+                final Changes changes = new Changes();
+                WatchKey key = firstKey;
+                while (key != null) {
+                    collectChanges(key, changes);
+                    key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS);
+                }
+                applyChanges(changes, start);
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to watch the input files", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        getLog().info("Stopped watching the input files");
+    }
+
+    private void collectChanges(final WatchKey key, final Changes changes) {
+        final Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changes.overflow = true;
+                continue;
+            }
+            final Path file = directory.resolve((Path) event.context());
+            final String fileName = file.getFileName().toString();
+            if (directory.equals(getInputJavaClassDirectory().toPath()) && fileName.endsWith(DOT_JAVA)) {
+                changes.javaClassNames.add(fileName.substring(0, fileName.length() - DOT_JAVA.length()));
+            }
+            if (file.equals(getInputPomFile().getAbsoluteFile().toPath())
+                    || (pomTemplateFile != null && file.equals(pomTemplateFile.getAbsoluteFile().toPath()))) {
+                changes.pom = true;
+            }
+        }
+        key.reset();
+    }
+
+    /**
+     * Converts the changed Java Classes, or all of them when events were lost, then writes the output
+     * {@code pom.xml} of every other Java Class when the project {@code pom.xml} or the template changed.
+     */
+    private void applyChanges(final Changes changes, final long start) {
+        final Set<String> names = new LinkedHashSet<>(changes.javaClassNames);
+        if (changes.overflow || changes.pom) {
+            names.addAll(listInputJavaClassNames());
+        }
+        if (changes.overflow) {
+            getLog().warn("Some file events were lost, converting every input Java Class");
+        }
+        if (changes.pom || changes.overflow) {
+            projectDependencies = null;
+            if (useProjectModel) {
+                getLog().warn("The dependencies come from the project model, restart the goal to apply the pom.xml changes");
+            }
+        }
+
+        final List<String> updatedNames = new ArrayList<>();
+        long lastModified = 0;
+        for (String name : names) {
+            final KubelessFunction function = getFunction(name);
+            if (function == null) {
+                continue;
+            }
+            final File inputJavaClassFile = function.getInputJavaClassFile();
+            try {
+                if (!inputJavaClassFile.exists()) {
+                    deleteOutputs(function);
+                } else if (changes.overflow || changes.javaClassNames.contains(name)) {
+                    lastModified = Math.max(lastModified, inputJavaClassFile.lastModified());
+                    convertJavaClass(function);
+                } else {
+                    createOutputPom(function);
+                }
+                updatedNames.add(name);
+            } catch (MojoExecutionException e) {
+                if (isDiscovered(name)) {
+                    getLog().warn(String.format("Skipping %s: %s", name, e.getMessage()));
+                } else {
+                    getLog().error(String.format("Unable to convert %s: %s", name, e.getMessage()));
+                }
+            }
+        }
+        if (changes.pom) {
+            lastModified = Math.max(lastModified, getInputPomFile().lastModified());
+        }
+        handledChanges.incrementAndGet();
+
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        final long savedMillis = lastModified > 0 ? Math.max(elapsedMillis, System.currentTimeMillis() - lastModified) : elapsedMillis;
+        final String message = String.format("Updated %s in %d ms, %d ms after the change was saved",
+                updatedNames.isEmpty() ? "nothing" : String.join(", ", updatedNames), elapsedMillis, savedMillis);
+        if (savedMillis > latencyWarningMillis) {
+            getLog().warn(String.format("%s (above %d ms)", message, latencyWarningMillis));
+        } else {
+            getLog().info(message);
+        }
+    }
+
+    private void convertJavaClass(final KubelessFunction function) throws MojoExecutionException {
+        validateInputJavaClass(function);
+        createOutputDirectory(function);
+        createOutputJavaClassFile(function);
+        // the pruned dependencies and the native image configuration depend on the content of the Java Class
+        if (pruneDependencies || nativeImage || !function.getOutputPomFile().exists()) {
+            createOutputPom(function);
+        } else {
+            createFunctionManifestFile(function);
+        }
+    }
+
+    private void createOutputPom(final KubelessFunction function) throws MojoExecutionException {
+        if (function.getHandlerMethodName() == null) {
+            validateInputJavaClass(function);
+            createOutputDirectory(function);
+        }
+        if (projectDependencies == null) {
+            projectDependencies = Collections.unmodifiableList(getProjectDependencies());
+        }
+        final Model outputPom = createOutputPomFile(function, readPomTemplateFile(), projectDependencies);
+        analyzeDependencyBudget(function, outputPom.getDependencies());
+        createFunctionManifestFile(function);
+        createDependencyBundle(function, outputPom.getDependencies());
+        createNativeImageConfig(function, outputPom.getDependencies());
+        createRuntimeProfile(function, outputPom.getDependencies());
+    }
+
+    /**
+     * Deletes the output folder of a deleted Java Class. When a single Java Class is converted, its outputs are in
+     * {@code outputDirectory} itself and are left in place.
+     */
+    private void deleteOutputs(final KubelessFunction function) throws MojoExecutionException {
+        functions.remove(function.getName());
+        if (function.getOutputDirectory().equals(outputDirectory)) {
+            getLog().warn(String.format("The input Java Class %s was deleted, the outputs in %s are left in place",
+                    function.getName(), outputDirectory));
+            return;
+        }
+        try {
+            OutputFiles.deleteRecursively(function.getOutputDirectory().toPath());
+            getLog().info("Deleted successfully directory: " + function.getOutputDirectory());
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to delete the outputs of " + function.getName(), e);
+        }
+    }
+
+    /**
+     * Returns the function of the Java Class {@code name} if it is one of the Java Classes informed in
+     * {@code inputJavaClassName} or {@code inputJavaClassNames}, {@code null} otherwise.
+     */
+    private KubelessFunction getFunction(final String name) {
+        final KubelessFunction function = functions.get(name);
+        if (function != null) {
+            return function;
+        }
+        if (inputJavaClassNames != null && !inputJavaClassNames.isEmpty()) {
+            final boolean selected = inputJavaClassNames.stream()
+                    .map(String::trim)
+                    .anyMatch(inputName -> isGlobPattern(inputName) ? toPattern(inputName).matcher(name).matches() : inputName.equals(name));
+            return selected ? functions.computeIfAbsent(name, n -> new KubelessFunction(n, getInputJavaClassFile(n), new File(outputDirectory, n))) : null;
+        }
+        return inputJavaClassName.trim().equals(name)
+                ? functions.computeIfAbsent(name, n -> new KubelessFunction(n, getInputJavaClassFile(n), outputDirectory)) : null;
+    }
+
+    /**
+     * Tells whether the Java Class {@code name} is only matched by a pattern of {@code inputJavaClassNames}, in which
+     * case it is skipped, instead of failing, when it does not implement a Kubeless Function.
+     */
+    private boolean isDiscovered(final String name) {
+        return inputJavaClassNames != null && !inputJavaClassNames.isEmpty()
+                && inputJavaClassNames.stream().map(String::trim).noneMatch(name::equals);
+    }
+
+    private List<String> listInputJavaClassNames() {
+        try (Stream<Path> paths = Files.list(getInputJavaClassDirectory().toPath())) {
+            return paths.map(path -> path.getFileName().toString())
+                    .filter(fileName -> fileName.endsWith(DOT_JAVA))
+                    .map(fileName -> fileName.substring(0, fileName.length() - DOT_JAVA.length()))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            getLog().error("Unable to list the input Java Classes in " + getInputJavaClassDirectory() + ": " + e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Makes the goal return once the change being handled, if any, is done.
+     */
+    void stop() {
+        stopped = true;
+    }
+
+    boolean awaitWatching(long timeout, TimeUnit unit) throws InterruptedException {
+        return watching.await(timeout, unit);
+    }
+
+    int getHandledChanges() {
+        return handledChanges.get();
+    }
+
+    private static final long DEFAULT_DEBOUNCE_MILLIS = 20;
+    private static final long DEFAULT_LATENCY_WARNING_MILLIS = 50;
+    private static final long STOP_CHECK_MILLIS = 200;
+    private static final String DOT_JAVA = ".java";
+
+}
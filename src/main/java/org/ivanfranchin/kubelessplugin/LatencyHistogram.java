@@ -0,0 +1,96 @@
+package org.ivanfranchin.kubelessplugin;
+
+/**
+ * Histogram of latencies in nanoseconds with the layout of an HDR histogram: values are counted in buckets whose
+ * width doubles at each power of two, each bucket split in {@value #SUB_BUCKET_COUNT} sub-buckets, so any value is
+ * recorded with a relative error below 1% in constant time and memory. Recording is not thread safe, each thread
+ * records in a histogram of its own and the histograms are added at the end.
+ */
+final class LatencyHistogram {
+
+    private final long[] counts = new long[(BUCKET_COUNT + 1) * SUB_BUCKET_HALF_COUNT];
+    private long totalCount;
+    private long totalNanos;
+    private long minNanos = Long.MAX_VALUE;
+    private long maxNanos;
+
+    void record(long nanos) {
+        final long value = Math.max(0, nanos);
+        counts[getCountsIndex(value)]++;
+        totalCount++;
+        totalNanos += value;
+        minNanos = Math.min(minNanos, value);
+        maxNanos = Math.max(maxNanos, value);
+    }
+
+    void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        totalNanos += other.totalNanos;
+        minNanos = Math.min(minNanos, other.minNanos);
+        maxNanos = Math.max(maxNanos, other.maxNanos);
+    }
+
+    long getTotalCount() {
+        return totalCount;
+    }
+
+    long getMinNanos() {
+        return totalCount == 0 ? 0 : minNanos;
+    }
+
+    long getMaxNanos() {
+        return maxNanos;
+    }
+
+    double getMeanNanos() {
+        return totalCount == 0 ? 0 : (double) totalNanos / totalCount;
+    }
+
+    /**
+     * Returns the highest value of the bucket holding the value below which {@code percentile} percent of the
+     * recorded values are, never above the highest recorded value.
+     */
+    long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        final long countAtPercentile = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * totalCount));
+        long count = 0;
+        for (int i = 0; i < counts.length; i++) {
+            count += counts[i];
+            if (count >= countAtPercentile) {
+                return Math.min(maxNanos, getHighestEquivalentValue(i));
+            }
+        }
+        return maxNanos;
+    }
+
+    private static int getCountsIndex(long value) {
+        final int bucketIndex = LEADING_ZERO_COUNT_BASE - Long.numberOfLeadingZeros(value | SUB_BUCKET_MASK);
+        final int subBucketIndex = (int) (value >>> bucketIndex);
+        return ((bucketIndex + 1) << SUB_BUCKET_HALF_COUNT_MAGNITUDE) + (subBucketIndex - SUB_BUCKET_HALF_COUNT);
+    }
+
+    private static long getHighestEquivalentValue(int countsIndex) {
+        int bucketIndex = (countsIndex >> SUB_BUCKET_HALF_COUNT_MAGNITUDE) - 1;
+        int subBucketIndex = (countsIndex & (SUB_BUCKET_HALF_COUNT - 1)) + SUB_BUCKET_HALF_COUNT;
+        if (bucketIndex < 0) {
+            subBucketIndex -= SUB_BUCKET_HALF_COUNT;
+            bucketIndex = 0;
+        }
+        final long lowestValue = (long) subBucketIndex << bucketIndex;
+        return lowestValue + (1L << bucketIndex) - 1;
+    }
+
+    // 256 sub-buckets give two significant decimal digits
+    private static final int SUB_BUCKET_COUNT = 256;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final int SUB_BUCKET_HALF_COUNT_MAGNITUDE = 7;
+    private static final long SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+    private static final int LEADING_ZERO_COUNT_BASE = 64 - SUB_BUCKET_HALF_COUNT_MAGNITUDE - 1;
+    private static final int BUCKET_COUNT = LEADING_ZERO_COUNT_BASE;
+
+}
@@ -0,0 +1,358 @@
+package org.ivanfranchin.kubelessplugin;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves dependencies and their transitive dependencies using only the files already in the local Maven
+ * repository, without any network access. It follows the Maven rules that matter for a function classpath: the
+ * nearest declaration of an artifact wins (the first one on a tie), only {@code compile} and {@code runtime}
+ * dependencies are followed, optional dependencies of dependencies are not, exclusions apply to the whole subtree,
+ * and versions come from the dependency management of the artifact pom, its parents and the boms they import.
+ */
+final class LocalRepositoryResolver {
+
+    static final class ResolvedArtifact {
+
+        private final String groupId;
+        private final String artifactId;
+        private final String version;
+        private final String classifier;
+        private final String scope;
+        private final int depth;
+        private final File file;
+
+        private ResolvedArtifact(String groupId, String artifactId, String version, String classifier, String scope,
+                                 int depth, File file) {
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.version = version;
+            this.classifier = classifier;
+            this.scope = scope;
+            this.depth = depth;
+            this.file = file;
+        }
+
+        String getGroupId() {
+            return groupId;
+        }
+
+        String getArtifactId() {
+            return artifactId;
+        }
+
+        String getVersion() {
+            return version;
+        }
+
+        String getClassifier() {
+            return classifier;
+        }
+
+        String getScope() {
+            return scope;
+        }
+
+        /**
+         * {@code 1} for the dependencies informed, {@code 2} for their dependencies, and so on.
+         */
+        int getDepth() {
+            return depth;
+        }
+
+        File getFile() {
+            return file;
+        }
+
+        String getCoordinates() {
+            return String.join(":", groupId, artifactId, version) + (classifier.isEmpty() ? "" : ":" + classifier);
+        }
+
+        @Override
+        public String toString() {
+            return getCoordinates();
+        }
+    }
+
+    static final class Resolution {
+
+        private final List<ResolvedArtifact> artifacts = new ArrayList<>();
+        private final List<String> missingArtifacts = new ArrayList<>();
+
+        /**
+         * The resolved jars, nearest first.
+         */
+        List<ResolvedArtifact> getArtifacts() {
+            return artifacts;
+        }
+
+        /**
+         * Coordinates of the artifacts whose jar is not in the local repository or whose version is unknown.
+         */
+        List<String> getMissingArtifacts() {
+            return missingArtifacts;
+        }
+
+        int getMaxDepth() {
+            return artifacts.stream().mapToInt(ResolvedArtifact::getDepth).max().orElse(0);
+        }
+    }
+
+    private static final class Node {
+
+        private final Dependency dependency;
+        private final String scope;
+        private final int depth;
+        private final Set<String> exclusions;
+
+        private Node(Dependency dependency, String scope, int depth, Set<String> exclusions) {
+            this.dependency = dependency;
+            this.scope = scope;
+            this.depth = depth;
+            this.exclusions = exclusions;
+        }
+    }
+
+    private final File localRepository;
+    private final MavenXpp3Reader mavenXpp3Reader = new MavenXpp3Reader();
+    private final Map<String, Model> effectiveModels = new HashMap<>();
+
+    LocalRepositoryResolver(File localRepository) {
+        this.localRepository = localRepository;
+    }
+
+    Resolution resolve(List<Dependency> dependencies) {
+        final Resolution resolution = new Resolution();
+        final Set<String> visited = new HashSet<>();
+        final Deque<Node> queue = new ArrayDeque<>();
+        for (Dependency dependency : dependencies) {
+            final String scope = dependency.getScope() == null ? COMPILE_SCOPE : dependency.getScope();
+            if (COMPILE_SCOPE.equals(scope) || RUNTIME_SCOPE.equals(scope)) {
+                queue.add(new Node(dependency, scope, 1, getExclusions(Collections.emptySet(), dependency)));
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            final Node node = queue.poll();
+            final Dependency dependency = node.dependency;
+            final String type = dependency.getType() == null ? JAR_TYPE : dependency.getType();
+            final String classifier = dependency.getClassifier() == null ? "" : dependency.getClassifier();
+            if (!visited.add(String.join(":", dependency.getGroupId(), dependency.getArtifactId(), type, classifier))) {
+                continue;
+            }
+            final String version = dependency.getVersion();
+            if (version == null || version.contains("${")) {
+                resolution.missingArtifacts.add(String.join(":", dependency.getGroupId(), dependency.getArtifactId(), String.valueOf(version)));
+                continue;
+            }
+
+            if (!POM_TYPE.equals(type)) {
+                final File file = getArtifactFile(dependency.getGroupId(), dependency.getArtifactId(), version, classifier, JAR_TYPE);
+                final ResolvedArtifact artifact = new ResolvedArtifact(dependency.getGroupId(), dependency.getArtifactId(),
+                        version, classifier, node.scope, node.depth, file);
+                if (!file.isFile()) {
+                    resolution.missingArtifacts.add(artifact.getCoordinates());
+                    continue;
+                }
+                resolution.artifacts.add(artifact);
+            }
+
+            final Model model = getEffectiveModel(dependency.getGroupId(), dependency.getArtifactId(), version, 0);
+            if (model == null) {
+                continue;
+            }
+            for (Dependency transitiveDependency : model.getDependencies()) {
+                final String transitiveScope = transitiveDependency.getScope() == null ? COMPILE_SCOPE : transitiveDependency.getScope();
+                if (transitiveDependency.isOptional() || !(COMPILE_SCOPE.equals(transitiveScope) || RUNTIME_SCOPE.equals(transitiveScope))
+                        || isExcluded(node.exclusions, transitiveDependency)) {
+                    continue;
+                }
+                queue.add(new Node(transitiveDependency, RUNTIME_SCOPE.equals(node.scope) ? RUNTIME_SCOPE : transitiveScope,
+                        node.depth + 1, getExclusions(node.exclusions, transitiveDependency)));
+            }
+        }
+        return resolution;
+    }
+
+    File getArtifactFile(String groupId, String artifactId, String version, String classifier, String extension) {
+        final String path = String.join(File.separator, groupId.replace('.', File.separatorChar), artifactId, version,
+                artifactId + "-" + version + (classifier.isEmpty() ? "" : "-" + classifier) + "." + extension);
+        return new File(localRepository, path);
+    }
+
+    /**
+     * Reads the pom of an artifact with its parents merged in, {@code ${...}} expressions interpolated, imported boms
+     * applied and the versions of its dependencies filled from the dependency management. Returns {@code null} when
+     * the pom is not in the local repository or cannot be parsed.
+     */
+    private Model getEffectiveModel(String groupId, String artifactId, String version, int level) {
+        final String key = String.join(":", groupId, artifactId, String.valueOf(version));
+        if (effectiveModels.containsKey(key)) {
+            return effectiveModels.get(key);
+        }
+        // a null entry while the model is read breaks parent and bom cycles
+        effectiveModels.put(key, null);
+        final Model model = readEffectiveModel(groupId, artifactId, version, level);
+        effectiveModels.put(key, model);
+        return model;
+    }
+
+    private Model readEffectiveModel(String groupId, String artifactId, String version, int level) {
+        final File pomFile = getArtifactFile(groupId, artifactId, version, "", POM_TYPE);
+        if (level > MAX_MODEL_LEVELS || version == null || !pomFile.isFile()) {
+            return null;
+        }
+        final Model model;
+        try (FileHandles.Permit ignored = FileHandles.acquire();
+             InputStream inputStream = Files.newInputStream(pomFile.toPath())) {
+            model = mavenXpp3Reader.read(inputStream, false);
+        } catch (IOException | XmlPullParserException e) {
+            return null;
+        }
+
+        final Properties properties = new Properties();
+        final Map<String, Dependency> managedDependencies = new LinkedHashMap<>();
+        final List<Dependency> dependencies = new ArrayList<>();
+        final Parent parent = model.getParent();
+        if (parent != null) {
+            final Model parentModel = getEffectiveModel(parent.getGroupId(), parent.getArtifactId(), parent.getVersion(), level + 1);
+            if (parentModel != null) {
+                properties.putAll(parentModel.getProperties());
+                if (parentModel.getDependencyManagement() != null) {
+                    parentModel.getDependencyManagement().getDependencies().forEach(d -> managedDependencies.put(d.getManagementKey(), d));
+                }
+                parentModel.getDependencies().forEach(d -> dependencies.add(d.clone()));
+            }
+        }
+        properties.putAll(model.getProperties());
+        final String modelGroupId = model.getGroupId() != null ? model.getGroupId() : parent != null ? parent.getGroupId() : groupId;
+        final String modelVersion = model.getVersion() != null ? model.getVersion() : parent != null ? parent.getVersion() : version;
+        properties.setProperty("project.groupId", modelGroupId);
+        properties.setProperty("project.artifactId", artifactId);
+        properties.setProperty("project.version", modelVersion);
+        properties.setProperty("pom.groupId", modelGroupId);
+        properties.setProperty("pom.version", modelVersion);
+        properties.setProperty("version", modelVersion);
+        if (parent != null) {
+            properties.setProperty("project.parent.groupId", parent.getGroupId());
+            properties.setProperty("project.parent.version", parent.getVersion());
+        }
+
+        if (model.getDependencyManagement() != null) {
+            for (Dependency managedDependency : model.getDependencyManagement().getDependencies()) {
+                interpolate(managedDependency, properties);
+                if (IMPORT_SCOPE.equals(managedDependency.getScope()) && POM_TYPE.equals(managedDependency.getType())) {
+                    final Model bom = getEffectiveModel(managedDependency.getGroupId(), managedDependency.getArtifactId(),
+                            managedDependency.getVersion(), level + 1);
+                    if (bom != null && bom.getDependencyManagement() != null) {
+                        bom.getDependencyManagement().getDependencies().forEach(d -> managedDependencies.putIfAbsent(d.getManagementKey(), d));
+                    }
+                } else {
+                    managedDependencies.put(managedDependency.getManagementKey(), managedDependency);
+                }
+            }
+        }
+        for (Dependency dependency : model.getDependencies()) {
+            interpolate(dependency, properties);
+            dependencies.add(dependency);
+        }
+        for (Dependency dependency : dependencies) {
+            final Dependency managedDependency = managedDependencies.get(dependency.getManagementKey());
+            if (managedDependency != null) {
+                if (dependency.getVersion() == null) {
+                    dependency.setVersion(managedDependency.getVersion());
+                }
+                if (dependency.getScope() == null) {
+                    dependency.setScope(managedDependency.getScope());
+                }
+                if (dependency.getExclusions().isEmpty()) {
+                    dependency.setExclusions(managedDependency.getExclusions());
+                }
+            }
+        }
+
+        final Model effectiveModel = new Model();
+        effectiveModel.setProperties(properties);
+        effectiveModel.setDependencies(dependencies);
+        effectiveModel.setDependencyManagement(new DependencyManagement());
+        effectiveModel.getDependencyManagement().setDependencies(new ArrayList<>(managedDependencies.values()));
+        return effectiveModel;
+    }
+
+    private static void interpolate(Dependency dependency, Properties properties) {
+        dependency.setGroupId(interpolate(dependency.getGroupId(), properties));
+        dependency.setArtifactId(interpolate(dependency.getArtifactId(), properties));
+        dependency.setVersion(interpolate(dependency.getVersion(), properties));
+        dependency.setClassifier(interpolate(dependency.getClassifier(), properties));
+        dependency.setScope(interpolate(dependency.getScope(), properties));
+    }
+
+    private static String interpolate(String value, Properties properties) {
+        String result = value;
+        for (int i = 0; result != null && result.contains("${") && i < MAX_INTERPOLATIONS; i++) {
+            final Matcher matcher = EXPRESSION_PATTERN.matcher(result);
+            final StringBuffer stringBuffer = new StringBuffer();
+            while (matcher.find()) {
+                final String replacement = properties.getProperty(matcher.group(1));
+                matcher.appendReplacement(stringBuffer, Matcher.quoteReplacement(replacement != null ? replacement : matcher.group()));
+            }
+            matcher.appendTail(stringBuffer);
+            if (stringBuffer.toString().equals(result)) {
+                break;
+            }
+            result = stringBuffer.toString();
+        }
+        return result;
+    }
+
+    private static Set<String> getExclusions(Set<String> inheritedExclusions, Dependency dependency) {
+        if (dependency.getExclusions().isEmpty()) {
+            return inheritedExclusions;
+        }
+        final Set<String> exclusions = new HashSet<>(inheritedExclusions);
+        for (Exclusion exclusion : dependency.getExclusions()) {
+            exclusions.add(exclusion.getGroupId() + ":" + exclusion.getArtifactId());
+        }
+        return exclusions;
+    }
+
+    private static boolean isExcluded(Set<String> exclusions, Dependency dependency) {
+        return !exclusions.isEmpty() && (exclusions.contains("*:*")
+                || exclusions.contains(dependency.getGroupId() + ":" + dependency.getArtifactId())
+                || exclusions.contains(dependency.getGroupId() + ":*")
+                || exclusions.contains("*:" + dependency.getArtifactId()));
+    }
+
+    private static final String COMPILE_SCOPE = "compile";
+    private static final String RUNTIME_SCOPE = "runtime";
+    private static final String IMPORT_SCOPE = "import";
+    private static final String JAR_TYPE = "jar";
+    private static final String POM_TYPE = "pom";
+    private static final int MAX_MODEL_LEVELS = 16;
+    private static final int MAX_INTERPOLATIONS = 8;
+    private static final Pattern EXPRESSION_PATTERN = Pattern.compile("\\$\\{([^}]+)}");
+
+}
@@ -0,0 +1,269 @@
+package org.ivanfranchin.kubelessplugin;
+
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.ClassExpr;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.StringLiteralExpr;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * GraalVM native-image configuration of a Kubeless Function, built without GraalVM: the reflection entries the
+ * Kubeless runtime needs to create the function and call its handler, the classes and resources the function looks
+ * up with string literals, and the entries of the {@code META-INF/native-image} configurations of the dependency
+ * jars. Entries are sorted, so the same inputs always give the same files.
+ */
+final class NativeImageConfig {
+
+    static final String REFLECT_CONFIG_FILE = "reflect-config.json";
+    static final String RESOURCE_CONFIG_FILE = "resource-config.json";
+    static final String PROPERTIES_FILE = "native-image.properties";
+
+    private final String functionName;
+    private final Map<String, Map<String, Object>> reflectEntries = new TreeMap<>();
+    private final Set<String> resourcePatterns = new TreeSet<>();
+    private final Set<String> resourceBundles = new TreeSet<>();
+    private final List<String> mergedJars = new ArrayList<>();
+
+    private NativeImageConfig(String functionName) {
+        this.functionName = functionName;
+    }
+
+    /**
+     * Registers the no-argument constructor and the handler method of the function class, the classes of the
+     * handler parameters, and the literal names given to {@code Class.forName}, {@code getResource},
+     * {@code getResourceAsStream} and {@code ResourceBundle.getBundle} in the function class.
+     */
+    static NativeImageConfig of(ClassOrInterfaceDeclaration classDeclaration, MethodDeclaration handlerMethod) {
+        final NativeImageConfig config = new NativeImageConfig(classDeclaration.getNameAsString());
+        final String className = classDeclaration.getFullyQualifiedName().orElse(classDeclaration.getNameAsString());
+        final List<String> parameterTypes = Arrays.asList(KUBELESS_EVENT, KUBELESS_CONTEXT);
+
+        final Map<String, Object> functionEntry = new LinkedHashMap<>();
+        functionEntry.put("name", className);
+        functionEntry.put("methods", Arrays.asList(method("<init>", Collections.emptyList()),
+                method(handlerMethod.getNameAsString(), parameterTypes)));
+        config.addReflectEntry(functionEntry);
+        for (String parameterType : parameterTypes) {
+            final Map<String, Object> parameterEntry = new LinkedHashMap<>();
+            parameterEntry.put("name", parameterType);
+            parameterEntry.put("allPublicConstructors", true);
+            parameterEntry.put("allPublicFields", true);
+            config.addReflectEntry(parameterEntry);
+        }
+
+        final int lastDot = className.lastIndexOf('.');
+        final String packagePath = lastDot < 0 ? "" : className.substring(0, lastDot).replace('.', '/') + "/";
+        for (MethodCallExpr methodCall : classDeclaration.findAll(MethodCallExpr.class)) {
+            if (methodCall.getArguments().isEmpty() || !methodCall.getArgument(0).isStringLiteralExpr()) {
+                continue;
+            }
+            final String literal = ((StringLiteralExpr) methodCall.getArgument(0)).asString();
+            switch (methodCall.getNameAsString()) {
+                case "forName":
+                    final Map<String, Object> entry = new LinkedHashMap<>();
+                    entry.put("name", literal);
+                    entry.put("allPublicConstructors", true);
+                    config.addReflectEntry(entry);
+                    break;
+                case "getResource":
+                case "getResourceAsStream":
+                    // Class.getResource resolves names without a leading slash against the package of the class
+                    final boolean relative = !literal.startsWith("/") && methodCall.getScope().map(NativeImageConfig::isClassScope).orElse(true);
+                    final String resource = literal.startsWith("/") ? literal.substring(1) : literal;
+                    config.resourcePatterns.add(Pattern.quote(relative ? packagePath + resource : resource));
+                    break;
+                case "getBundle":
+                    config.resourceBundles.add(literal);
+                    break;
+                default:
+            }
+        }
+        return config;
+    }
+
+    /**
+     * Merges the {@code reflect-config.json} and {@code resource-config.json} files found under
+     * {@code META-INF/native-image} in {@code jarFile}.
+     */
+    void mergeJar(File jarFile) throws IOException {
+        boolean merged = false;
+        try (FileHandles.Permit ignored = FileHandles.acquire();
+             JarFile jar = new JarFile(jarFile)) {
+            final List<JarEntry> entries = Collections.list(jar.entries()).stream()
+                    .filter(entry -> entry.getName().startsWith(NATIVE_IMAGE_FOLDER))
+                    .sorted((first, second) -> first.getName().compareTo(second.getName()))
+                    .collect(Collectors.toList());
+            for (JarEntry entry : entries) {
+                final boolean reflectConfig = entry.getName().endsWith("/" + REFLECT_CONFIG_FILE);
+                if (!reflectConfig && !entry.getName().endsWith("/" + RESOURCE_CONFIG_FILE)) {
+                    continue;
+                }
+                final Object json;
+                try (Reader reader = new InputStreamReader(jar.getInputStream(entry), StandardCharsets.UTF_8)) {
+                    json = JsonReader.read(reader);
+                } catch (IOException e) {
+                    throw new IOException(String.format("Unable to read %s of %s: %s", entry.getName(), jarFile, e.getMessage()), e);
+                }
+                if (reflectConfig) {
+                    mergeReflectConfig(json);
+                } else {
+                    mergeResourceConfig(json);
+                }
+                merged = true;
+            }
+        }
+        if (merged) {
+            mergedJars.add(jarFile.getName());
+        }
+    }
+
+    List<String> getMergedJars() {
+        return mergedJars;
+    }
+
+    int getNumberOfReflectEntries() {
+        return reflectEntries.size();
+    }
+
+    byte[] getReflectConfig() throws IOException {
+        return toJson(new ArrayList<>(reflectEntries.values()));
+    }
+
+    byte[] getResourceConfig() throws IOException {
+        final Map<String, Object> resources = new LinkedHashMap<>();
+        resources.put("includes", resourcePatterns.stream()
+                .map(pattern -> Collections.singletonMap("pattern", pattern))
+                .collect(Collectors.toList()));
+        final Map<String, Object> resourceConfig = new LinkedHashMap<>();
+        resourceConfig.put("resources", resources);
+        resourceConfig.put("bundles", resourceBundles.stream()
+                .map(bundle -> Collections.singletonMap("name", bundle))
+                .collect(Collectors.toList()));
+        return toJson(resourceConfig);
+    }
+
+    /**
+     * The {@code native-image.properties} of the function. The reflection and resource configurations next to it
+     * are found by native-image on its own, as they are in {@code META-INF/native-image} of the class path.
+     */
+    byte[] getProperties() {
+        final StringBuilder properties = new StringBuilder()
+                .append("# GraalVM native-image configuration of the Kubeless Function ").append(functionName).append('\n');
+        if (!mergedJars.isEmpty()) {
+            properties.append("# Merged with the configurations of ").append(String.join(", ", mergedJars)).append('\n');
+        }
+        properties.append("ImageName = ").append(FunctionManifestWriter.toResourceName(functionName)).append('\n')
+                .append("Args = --no-fallback -H:+ReportExceptionStackTraces\n");
+        return properties.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void mergeReflectConfig(Object json) throws IOException {
+        if (!(json instanceof List)) {
+            throw new IOException("A reflection configuration must be a JSON array");
+        }
+        for (Object item : (List<?>) json) {
+            if (item instanceof Map && ((Map<?, ?>) item).get("name") instanceof String) {
+                final Map<String, Object> entry = new LinkedHashMap<>();
+                ((Map<?, ?>) item).forEach((key, value) -> entry.put(String.valueOf(key), value));
+                addReflectEntry(entry);
+            }
+        }
+    }
+
+    /**
+     * Merges the resource patterns and bundles, in both the {@code "resources": [...]} format of older GraalVM
+     * releases and the {@code "resources": {"includes": [...]}} one. Exclusions are not merged, as an exclusion
+     * of one jar would hide the resources of the others.
+     */
+    private void mergeResourceConfig(Object json) throws IOException {
+        if (!(json instanceof Map)) {
+            throw new IOException("A resource configuration must be a JSON object");
+        }
+        final Object resources = ((Map<?, ?>) json).get("resources");
+        final Object includes = resources instanceof Map ? ((Map<?, ?>) resources).get("includes") : resources;
+        for (Object include : includes instanceof List ? (List<?>) includes : Collections.emptyList()) {
+            if (include instanceof Map && ((Map<?, ?>) include).get("pattern") instanceof String) {
+                resourcePatterns.add((String) ((Map<?, ?>) include).get("pattern"));
+            }
+        }
+        final Object bundles = ((Map<?, ?>) json).get("bundles");
+        for (Object bundle : bundles instanceof List ? (List<?>) bundles : Collections.emptyList()) {
+            if (bundle instanceof Map && ((Map<?, ?>) bundle).get("name") instanceof String) {
+                resourceBundles.add((String) ((Map<?, ?>) bundle).get("name"));
+            }
+        }
+    }
+
+    /**
+     * Adds {@code entry}, or merges it with the entry of the same class: flags are true when true in either entry,
+     * and lists, like methods and fields, get the elements they do not have yet.
+     */
+    private void addReflectEntry(Map<String, Object> entry) {
+        final Map<String, Object> existing = reflectEntries.get((String) entry.get("name"));
+        if (existing == null) {
+            reflectEntries.put((String) entry.get("name"), entry);
+            return;
+        }
+        for (Map.Entry<String, Object> field : entry.entrySet()) {
+            final Object value = existing.get(field.getKey());
+            if (value instanceof Boolean && field.getValue() instanceof Boolean) {
+                existing.put(field.getKey(), (Boolean) value || (Boolean) field.getValue());
+            } else if (value instanceof List && field.getValue() instanceof List) {
+                final List<Object> merged = new ArrayList<>((List<?>) value);
+                ((List<?>) field.getValue()).stream().filter(item -> !merged.contains(item)).forEach(merged::add);
+                existing.put(field.getKey(), merged);
+            } else if (value == null) {
+                existing.put(field.getKey(), field.getValue());
+            }
+        }
+    }
+
+    private static boolean isClassScope(Expression scope) {
+        return scope instanceof ClassExpr
+                || (scope instanceof MethodCallExpr && ((MethodCallExpr) scope).getNameAsString().equals("getClass"));
+    }
+
+    private static Map<String, Object> method(String name, List<String> parameterTypes) {
+        final Map<String, Object> method = new LinkedHashMap<>();
+        method.put("name", name);
+        method.put("parameterTypes", parameterTypes);
+        return method;
+    }
+
+    private static byte[] toJson(Object value) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+        JsonWriter.write(value, writer);
+        writer.write('\n');
+        writer.flush();
+        return outputStream.toByteArray();
+    }
+
+    private static final String NATIVE_IMAGE_FOLDER = "META-INF/native-image/";
+    private static final String KUBELESS_EVENT = "io.kubeless.Event";
+    private static final String KUBELESS_CONTEXT = "io.kubeless.Context";
+
+}
@@ -0,0 +1,231 @@
+package org.ivanfranchin.kubelessplugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed cache of the output files of conversions, in a folder that may be shared by several machines,
+ * e.g. the agents of a CI server. An entry is keyed by a digest of everything its files depend on, so it never goes
+ * stale and is only ever evicted: once the entries take more than the size cap, the least recently stored or
+ * restored ones are deleted first. Entries are built in a temporary folder renamed to the key, so an entry with that
+ * name is complete, and are renamed again before being deleted, so they are never seen half deleted.
+ */
+final class OutputCache {
+
+    private final Path root;
+    private final long maxBytes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stores = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    OutputCache(File root, long maxBytes) {
+        this.root = root.toPath().toAbsolutePath();
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Copies the files of the entry {@code key} to {@code outputDirectory}, leaving the ones that already have the
+     * same content untouched.
+     *
+     * @return {@code false} if there is no such entry
+     */
+    boolean restore(String key, File outputDirectory) throws IOException {
+        final Path entry = root.resolve(key);
+        try (FileHandles.Permit ignored = FileHandles.acquire()) {
+            final List<String> files;
+            try {
+                files = Files.readAllLines(entry.resolve(FILES_LIST), StandardCharsets.UTF_8);
+            } catch (NoSuchFileException e) {
+                misses.incrementAndGet();
+                return false;
+            }
+            for (String file : files) {
+                final Path target = outputDirectory.toPath().resolve(file);
+                Files.createDirectories(target.getParent());
+                OutputFiles.copyIfChanged(entry.resolve(FILES_FOLDER).resolve(file), target);
+            }
+        }
+        touch(entry);
+        hits.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Stores {@code outputFiles}, files or folders of {@code outputDirectory}, as the entry {@code key}, unless another
+     * execution stored it first, then evicts the least recently used entries above the size cap.
+     *
+     * @return {@code true} if the entry was stored
+     */
+    boolean store(String key, File outputDirectory, List<File> outputFiles) throws IOException {
+        final Path entry = root.resolve(key);
+        if (Files.exists(entry)) {
+            touch(entry);
+            return false;
+        }
+        Files.createDirectories(root);
+        final Path temporaryEntry = Files.createTempDirectory(root, TEMPORARY_PREFIX + key + ".");
+        boolean stored = false;
+        try (FileHandles.Permit ignored = FileHandles.acquire()) {
+            final List<String> files = new ArrayList<>();
+            for (File outputFile : outputFiles) {
+                for (Path file : listFiles(outputFile.toPath())) {
+                    final String relativePath = outputDirectory.toPath().relativize(file).toString().replace(File.separatorChar, '/');
+                    final Path target = temporaryEntry.resolve(FILES_FOLDER).resolve(relativePath);
+                    Files.createDirectories(target.getParent());
+                    Files.copy(file, target);
+                    files.add(relativePath);
+                }
+            }
+            Files.write(temporaryEntry.resolve(FILES_LIST), files, StandardCharsets.UTF_8);
+            try {
+                Files.move(temporaryEntry, entry, StandardCopyOption.ATOMIC_MOVE);
+                stored = true;
+            } catch (IOException e) {
+                if (!Files.exists(entry)) {
+                    throw e;
+                }
+                // another execution stored the same entry in the meantime
+            }
+        } finally {
+            OutputFiles.deleteRecursively(temporaryEntry);
+        }
+        if (stored) {
+            stores.incrementAndGet();
+            evict();
+        }
+        return stored;
+    }
+
+    /**
+     * Deletes the least recently used entries until the cache fits in its size cap, and the temporary folders left
+     * by executions that did not finish.
+     */
+    void evict() throws IOException {
+        final List<Path> entries = new ArrayList<>();
+        final long staleBefore = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(STALE_TEMPORARY_HOURS);
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(root)) {
+            for (Path path : paths) {
+                if (!path.getFileName().toString().startsWith(TEMPORARY_PREFIX)) {
+                    entries.add(path);
+                } else if (getLastModifiedMillis(path) < staleBefore) {
+                    OutputFiles.deleteRecursively(path);
+                }
+            }
+        }
+        final List<CacheEntry> cacheEntries = new ArrayList<>();
+        long totalBytes = 0;
+        for (Path entry : entries) {
+            final CacheEntry cacheEntry = new CacheEntry(entry, getLastModifiedMillis(entry), getSize(entry));
+            cacheEntries.add(cacheEntry);
+            totalBytes += cacheEntry.size;
+        }
+        cacheEntries.sort(Comparator.comparingLong(cacheEntry -> cacheEntry.lastUsedMillis));
+        for (CacheEntry cacheEntry : cacheEntries) {
+            if (totalBytes <= maxBytes) {
+                break;
+            }
+            final Path deleted = root.resolve(TEMPORARY_PREFIX + cacheEntry.path.getFileName() + DELETED_SUFFIX);
+            try {
+                Files.move(cacheEntry.path, deleted, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                // evicted by another execution
+                continue;
+            }
+            OutputFiles.deleteRecursively(deleted);
+            totalBytes -= cacheEntry.size;
+            evictions.incrementAndGet();
+        }
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+
+    long getStores() {
+        return stores.get();
+    }
+
+    long getEvictions() {
+        return evictions.get();
+    }
+
+    String getSummary() {
+        return String.format("Output cache %s: %d hit(s), %d miss(es), %d stored, %d evicted", root,
+                hits.get(), misses.get(), stores.get(), evictions.get());
+    }
+
+    private static final class CacheEntry {
+
+        private final Path path;
+        private final long lastUsedMillis;
+        private final long size;
+
+        private CacheEntry(Path path, long lastUsedMillis, long size) {
+            this.path = path;
+            this.lastUsedMillis = lastUsedMillis;
+            this.size = size;
+        }
+    }
+
+    private static void touch(Path entry) {
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // evicted in the meantime, the files were copied already
+        }
+    }
+
+    private static List<Path> listFiles(Path path) throws IOException {
+        try (Stream<Path> paths = Files.walk(path)) {
+            return paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static long getSize(Path entry) throws IOException {
+        long size = 0;
+        try {
+            for (Path file : listFiles(entry)) {
+                size += Files.size(file);
+            }
+        } catch (NoSuchFileException | UncheckedIOException e) {
+            // evicted by another execution
+            return 0;
+        }
+        return size;
+    }
+
+    private static long getLastModifiedMillis(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static final String FILES_LIST = "files.txt";
+    private static final String FILES_FOLDER = "files";
+    private static final String TEMPORARY_PREFIX = ".";
+    private static final String DELETED_SUFFIX = ".deleted";
+    private static final long STALE_TEMPORARY_HOURS = 24;
+
+}
@@ -0,0 +1,159 @@
+package org.ivanfranchin.kubelessplugin;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.Comparator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Writes output files only when their content changes. An output file that already has the expected content is
+ * left untouched, including its last modified time. Otherwise, the new content is written to a temporary file in
+ * the same folder, which then atomically replaces the output file, so readers never see a partially written file.
+ * Files are only opened under a {@link FileHandles} permit.
+ */
+final class OutputFiles {
+
+    @FunctionalInterface
+    interface ContentWriter {
+        void writeTo(OutputStream outputStream) throws IOException;
+    }
+
+    private OutputFiles() {
+    }
+
+    /**
+     * Copies {@code source} to {@code target} unless both already have the same content.
+     *
+     * @return {@code true} if {@code target} was written
+     */
+    static boolean copyIfChanged(Path source, Path target) throws IOException {
+        try (FileHandles.Permit ignored = FileHandles.acquire()) {
+            return copyIfChangedWithPermit(source, target);
+        }
+    }
+
+    private static boolean copyIfChangedWithPermit(Path source, Path target) throws IOException {
+        if (Files.exists(target) && Files.size(source) == Files.size(target)
+                && MessageDigest.isEqual(digest(source), digest(target))) {
+            return false;
+        }
+        final Path temporaryFile = createTemporaryFile(target);
+        try {
+            try (FileChannel sourceChannel = FileChannel.open(source, StandardOpenOption.READ);
+                 FileChannel targetChannel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE)) {
+                final long size = sourceChannel.size();
+                long position = 0;
+                while (position < size) {
+                    position += sourceChannel.transferTo(position, size - position, targetChannel);
+                }
+            }
+            moveAtomically(temporaryFile, target);
+            return true;
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    /**
+     * Writes {@code content} to {@code target} unless {@code target} already has that content.
+     *
+     * @return {@code true} if {@code target} was written
+     */
+    static boolean writeIfChanged(Path target, byte[] content) throws IOException {
+        return writeIfChanged(target, outputStream -> outputStream.write(content));
+    }
+
+    /**
+     * Streams the content produced by {@code contentWriter} to a temporary file while computing its digest, and
+     * replaces {@code target} with it unless {@code target} already has the same content.
+     *
+     * @return {@code true} if {@code target} was written
+     */
+    static boolean writeIfChanged(Path target, ContentWriter contentWriter) throws IOException {
+        try (FileHandles.Permit ignored = FileHandles.acquire()) {
+            return writeIfChangedWithPermit(target, contentWriter);
+        }
+    }
+
+    private static boolean writeIfChangedWithPermit(Path target, ContentWriter contentWriter) throws IOException {
+        final Path temporaryFile = createTemporaryFile(target);
+        try {
+            final MessageDigest messageDigest = Fingerprint.newSha256();
+            try (OutputStream outputStream = new DigestOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporaryFile), BUFFER_SIZE), messageDigest)) {
+                contentWriter.writeTo(outputStream);
+            }
+            if (Files.exists(target) && Files.size(temporaryFile) == Files.size(target)
+                    && MessageDigest.isEqual(messageDigest.digest(), digest(target))) {
+                return false;
+            }
+            moveAtomically(temporaryFile, target);
+            return true;
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    static byte[] digest(Path path) throws IOException {
+        final MessageDigest messageDigest = Fingerprint.newSha256();
+        try (FileHandles.Permit ignored = FileHandles.acquire();
+             InputStream inputStream = Files.newInputStream(path)) {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                messageDigest.update(buffer, 0, read);
+            }
+        }
+        return messageDigest.digest();
+    }
+
+    /**
+     * Deletes {@code path} and, when it is a folder, everything in it. Nothing happens if {@code path} does not exist.
+     */
+    static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(path)) {
+            for (Path p : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    private static Path createTemporaryFile(Path target) throws IOException {
+        return Files.createTempFile(target.toAbsolutePath().getParent(), "." + target.getFileName(), ".tmp");
+    }
+
+    /**
+     * Moves {@code source} over {@code target}. Temporary files are created readable by their owner only, so the
+     * permissions of the replaced file, or the usual {@code rw-r--r--} for a new one, are applied first.
+     */
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        if (Files.getFileStore(source).supportsFileAttributeView(PosixFileAttributeView.class)) {
+            Files.setPosixFilePermissions(source, Files.exists(target)
+                    ? Files.getPosixFilePermissions(target) : PosixFilePermissions.fromString("rw-r--r--"));
+        }
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static final int BUFFER_SIZE = 8192;
+
+}
@@ -0,0 +1,67 @@
+package org.ivanfranchin.kubelessplugin;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide cache of parsed {@code pom.xml} templates, keyed by the template location and the SHA-256 of its
+ * content, so a template that changes on disk is parsed again. It is shared by every execution of the plugin in the
+ * same JVM, e.g. in a large reactor or under the Maven daemon. At most {@link #MAX_ENTRIES} templates are kept,
+ * the least recently used one being evicted first. Callers always get their own deep copy of the cached model.
+ */
+final class PomTemplateCache {
+
+    static final int MAX_ENTRIES = 16;
+
+    private static final Map<String, Model> CACHE = new LinkedHashMap<String, Model>(MAX_ENTRIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Model> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+
+    private PomTemplateCache() {
+    }
+
+    static Model get(String location, byte[] content) throws IOException, XmlPullParserException {
+        final String key = location + "@" + Fingerprint.toHex(Fingerprint.newSha256().digest(content));
+        Model model;
+        synchronized (CACHE) {
+            model = CACHE.get(key);
+        }
+        if (model != null) {
+            HITS.incrementAndGet();
+        } else {
+            MISSES.incrementAndGet();
+            model = new MavenXpp3Reader().read(new ByteArrayInputStream(content));
+            synchronized (CACHE) {
+                CACHE.put(key, model);
+            }
+        }
+        return model.clone();
+    }
+
+    static long getHits() {
+        return HITS.get();
+    }
+
+    static long getMisses() {
+        return MISSES.get();
+    }
+
+    static int size() {
+        synchronized (CACHE) {
+            return CACHE.size();
+        }
+    }
+
+}
@@ -0,0 +1,20 @@
+package io.kubeless;
+
+/**
+ * Stand-in for the Context class of the Kubeless Java runtime, with the same fields and constructor.
+ */
+public class Context {
+
+    public String FunctionName;
+    public String Timeout;
+    public String Runtime;
+    public String MemoryLimit;
+
+    public Context(String functionName, String timeout, String runtime, String memoryLimit) {
+        this.FunctionName = functionName;
+        this.Timeout = timeout;
+        this.Runtime = runtime;
+        this.MemoryLimit = memoryLimit;
+    }
+
+}
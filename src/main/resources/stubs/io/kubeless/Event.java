@@ -0,0 +1,22 @@
+package io.kubeless;
+
+/**
+ * Stand-in for the Event class of the Kubeless Java runtime, with the same fields and constructor.
+ */
+public class Event {
+
+    public String Data;
+    public String EventID;
+    public String EventType;
+    public String EventTime;
+    public String EventNamespace;
+
+    public Event(String data, String eventId, String eventType, String eventTime, String eventNamespace) {
+        this.Data = data;
+        this.EventID = eventId;
+        this.EventType = eventType;
+        this.EventTime = eventTime;
+        this.EventNamespace = eventNamespace;
+    }
+
+}
@@ -0,0 +1,59 @@
+package org.ivanfranchin.kubelessplugin;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConversionMetricsTest {
+
+    @Test
+    void whenExecutionsShareSessionMetricsAreAggregated() {
+        Object session = new Object();
+
+        ConversionMetrics firstExecution = new ConversionMetrics();
+        try (ConversionMetrics.Measurement measurement = firstExecution.measure(ConversionMetrics.Phase.WRITE_OUTPUT_POM_FILE)) {
+            measurement.bytesWritten(100).dependencies(3);
+        }
+        ConversionMetrics sessionMetrics = firstExecution.finish(System.nanoTime(), session);
+
+        ConversionMetrics secondExecution = new ConversionMetrics();
+        try (ConversionMetrics.Measurement measurement = secondExecution.measure(ConversionMetrics.Phase.WRITE_OUTPUT_POM_FILE)) {
+            measurement.bytesWritten(50).dependencies(2);
+        }
+        assertSame(sessionMetrics, secondExecution.finish(System.nanoTime(), session));
+
+        assertEquals(2, sessionMetrics.getExecutions());
+        assertEquals(2, sessionMetrics.getCalls(ConversionMetrics.Phase.WRITE_OUTPUT_POM_FILE));
+        Map<?, ?> phase = (Map<?, ?>) ((Map<?, ?>) sessionMetrics.toMap().get("phases")).get("writeOutputPomFile");
+        assertEquals(150L, phase.get("bytesWritten"));
+        assertEquals(5L, phase.get("dependencies"));
+
+        assertEquals(1, new ConversionMetrics().finish(System.nanoTime(), new Object()).getExecutions());
+    }
+
+    @Test
+    void whenMetricsAreWrittenAsJson() throws IOException {
+        ConversionMetrics metrics = new ConversionMetrics();
+        try (ConversionMetrics.Measurement measurement = metrics.measure(ConversionMetrics.Phase.GET_PROJECT_DEPENDENCIES)) {
+            measurement.bytesRead(1024).dependencies(7);
+        }
+        metrics.finish(System.nanoTime(), new Object());
+
+        StringWriter writer = new StringWriter();
+        JsonWriter.write(metrics.toMap(), writer);
+        String json = writer.toString();
+        assertTrue(json.startsWith("{\n  \"executions\": 1,\n  \"wallTimeMillis\": "));
+        assertTrue(json.contains("\"getProjectDependencies\": {\n      \"calls\": 1,\n      \"timeMillis\": "));
+        assertTrue(json.contains("\"bytesRead\": 1024,\n      \"bytesWritten\": 0,\n      \"dependencies\": 7\n"));
+
+        assertEquals(2, metrics.getSummaryLines().size());
+        assertTrue(metrics.getSummaryLines().get(1).startsWith("getProjectDependencies"));
+    }
+
+}
@@ -0,0 +1,65 @@
+package org.ivanfranchin.kubelessplugin;
+
+import org.apache.maven.model.Dependency;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DependencyBudgetTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void whenJarsAreCounted() throws IOException {
+        new FakeLocalRepository(tempDir).jar("com.example", "library", "1.0", "com/example/A.class", "com/example/B.class",
+                "com/example/package-info.class", "module-info.class", "META-INF/versions/9/com/example/A.class", "com/example/a.txt");
+
+        assertEquals(2, JarPackageIndex.getNumberOfClasses(tempDir.resolve("com/example/library/1.0/library-1.0.jar").toFile()));
+    }
+
+    @Test
+    void whenBudgetsAreExceeded() throws IOException {
+        new FakeLocalRepository(tempDir)
+                .pom("com.example", "library", "1.0", "<dependencies>\n" +
+                        FakeLocalRepository.dependency("com.example", "transitive", "1.0", null) +
+                        "</dependencies>\n")
+                .jar("com.example", "library", "1.0", "com/example/A.class")
+                .jar("com.example", "transitive", "1.0", "com/example/transitive/A.class", "com/example/transitive/B.class",
+                        "com/example/transitive/C.class");
+
+        LocalRepositoryResolver.Resolution resolution = new LocalRepositoryResolver(tempDir.toFile())
+                .resolve(Collections.singletonList(dependency("com.example", "library", "1.0")));
+        DependencyBudget budget = DependencyBudget.analyze(resolution, 1, 3, 2);
+
+        assertEquals(4, budget.getTotalClasses());
+        assertEquals(2, budget.getDepth());
+        assertEquals("com.example:transitive:1.0", budget.getContributors().get(0).getCoordinates());
+        assertEquals(Arrays.asList(budget.getTotalBytes() + " bytes of jars exceed maxDependencyBytes 1", "4 classes exceed maxClasses 3"),
+                budget.getViolations());
+
+        List<String> reportLines = budget.getReportLines(1);
+        assertEquals("depth               2  2", reportLines.get(3));
+        assertEquals("exceeded: 4 classes exceed maxClasses 3", reportLines.get(5));
+        assertEquals("largest 1 of 2 dependencies:", reportLines.get(6));
+        assertTrue(reportLines.get(8).endsWith("      3      2  com.example:transitive:1.0"));
+        assertEquals(9, reportLines.size());
+    }
+
+    private static Dependency dependency(String groupId, String artifactId, String version) {
+        Dependency dependency = new Dependency();
+        dependency.setGroupId(groupId);
+        dependency.setArtifactId(artifactId);
+        dependency.setVersion(version);
+        return dependency;
+    }
+
+}
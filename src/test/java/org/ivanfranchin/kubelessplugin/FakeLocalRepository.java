@@ -0,0 +1,134 @@
+package org.ivanfranchin.kubelessplugin;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Builds a local Maven repository on the filesystem with small jars and hand written poms, so the offline
+ * resolution of dependencies can be exercised without the real {@code ~/.m2}.
+ */
+final class FakeLocalRepository {
+
+    private final Path root;
+
+    FakeLocalRepository(Path root) {
+        this.root = root;
+    }
+
+    File getRoot() {
+        return root.toFile();
+    }
+
+    /**
+     * Writes {@code artifactId-version.jar} with one empty entry per class name.
+     */
+    FakeLocalRepository jar(String groupId, String artifactId, String version, String... classEntries) {
+        final Map<String, String> entries = new LinkedHashMap<>();
+        for (String classEntry : classEntries) {
+            entries.put(classEntry, "");
+        }
+        return jar(groupId, artifactId, version, entries);
+    }
+
+    /**
+     * Writes {@code artifactId-version.jar} with the entries of {@code entries}, names to content.
+     */
+    FakeLocalRepository jar(String groupId, String artifactId, String version, Map<String, String> entries) {
+        final Map<String, byte[]> contents = new LinkedHashMap<>();
+        entries.forEach((name, content) -> contents.put(name, content.getBytes(StandardCharsets.UTF_8)));
+        return writeJar(groupId, artifactId, version, contents);
+    }
+
+    /**
+     * Writes the jar of {@code de.inoio.kubeless:jvm-runtime} with the {@code io.kubeless} classes compiled from the
+     * stand-ins of the plugin, so a real JVM can load functions with it.
+     */
+    FakeLocalRepository runtimeJar(String version) {
+        final Path workDirectory = root.resolve("runtime-classes");
+        try {
+            final List<File> sourceFiles = new ArrayList<>();
+            for (String className : Arrays.asList("Event", "Context")) {
+                final Path sourceFile = Files.createDirectories(workDirectory.resolve("io/kubeless")).resolve(className + ".java");
+                try (InputStream inputStream = FakeLocalRepository.class.getResourceAsStream("/stubs/io/kubeless/" + className + ".java")) {
+                    Files.copy(inputStream, sourceFile);
+                }
+                sourceFiles.add(sourceFile.toFile());
+            }
+            final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+            try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+                if (!compiler.getTask(null, fileManager, null, Arrays.asList("-d", workDirectory.toString()), null,
+                        fileManager.getJavaFileObjectsFromFiles(sourceFiles)).call()) {
+                    throw new IllegalStateException("Unable to compile the io.kubeless stand-ins");
+                }
+            }
+            final Map<String, byte[]> contents = new LinkedHashMap<>();
+            for (String className : Arrays.asList("Event", "Context")) {
+                contents.put("io/kubeless/" + className + ".class", Files.readAllBytes(workDirectory.resolve("io/kubeless/" + className + ".class")));
+            }
+            writeJar("de.inoio.kubeless", "jvm-runtime", version, contents);
+            OutputFiles.deleteRecursively(workDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return this;
+    }
+
+    /**
+     * Writes {@code artifactId-version.pom} with {@code body}, the XML that goes after the coordinates.
+     */
+    FakeLocalRepository pom(String groupId, String artifactId, String version, String body) {
+        final String pom = "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n" +
+                "    <modelVersion>4.0.0</modelVersion>\n" +
+                "    <groupId>" + groupId + "</groupId>\n" +
+                "    <artifactId>" + artifactId + "</artifactId>\n" +
+                "    <version>" + version + "</version>\n" +
+                body +
+                "</project>\n";
+        try {
+            Files.write(createDirectory(groupId, artifactId, version).resolve(artifactId + "-" + version + ".pom"), pom.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return this;
+    }
+
+    static String dependency(String groupId, String artifactId, String version, String extra) {
+        return "<dependency><groupId>" + groupId + "</groupId><artifactId>" + artifactId + "</artifactId>" +
+                (version == null ? "" : "<version>" + version + "</version>") + (extra == null ? "" : extra) + "</dependency>\n";
+    }
+
+    private FakeLocalRepository writeJar(String groupId, String artifactId, String version, Map<String, byte[]> contents) {
+        try (OutputStream outputStream = Files.newOutputStream(createDirectory(groupId, artifactId, version).resolve(artifactId + "-" + version + ".jar"));
+             JarOutputStream jarOutputStream = new JarOutputStream(outputStream)) {
+            for (Map.Entry<String, byte[]> entry : contents.entrySet()) {
+                jarOutputStream.putNextEntry(new JarEntry(entry.getKey()));
+                jarOutputStream.write(entry.getValue());
+                jarOutputStream.closeEntry();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return this;
+    }
+
+    private Path createDirectory(String groupId, String artifactId, String version) throws IOException {
+        return Files.createDirectories(root.resolve(groupId.replace('.', File.separatorChar)).resolve(artifactId).resolve(version));
+    }
+
+}
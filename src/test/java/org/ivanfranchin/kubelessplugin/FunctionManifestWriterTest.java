@@ -0,0 +1,102 @@
+package org.ivanfranchin.kubelessplugin;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FunctionManifestWriterTest {
+
+    private static final String SOURCE = "package io.kubeless;\n\npublic class AppFunction {\n    public String hello(Event event, Context context) {\n        return \"Hello\\tWorld\";\n    }\n}\n";
+    private static final String DEPS = "<project>\n  <artifactId>function</artifactId>\n</project>\n";
+
+    @Test
+    void whenFormatIsYamlSourceAndDepsAreLiteralBlocks() throws IOException {
+        String manifest = write(build(0), FunctionManifestWriter.Format.YAML);
+
+        assertTrue(manifest.startsWith("apiVersion: kubeless.io/v1beta1\nkind: Function\nmetadata:\n  name: appfunction\n  namespace: serverless\n"));
+        assertTrue(manifest.contains("\n  handler: AppFunction.hello\n"));
+        assertTrue(manifest.contains("\n  function-content-type: text\n"));
+        assertTrue(manifest.contains("\n  function: |\n    package io.kubeless;\n\n    public class AppFunction {\n"));
+        assertTrue(manifest.contains("\n            return \"Hello\\tWorld\";\n"));
+        assertTrue(manifest.contains("\n  deps: |\n    <project>\n      <artifactId>function</artifactId>\n    </project>\n"));
+        assertTrue(manifest.contains("\n      port: 8080\n"));
+        assertTrue(manifest.contains("\n          containers:\n          - resources:\n              requests:\n                cpu: \"100m\"\n              limits:\n                memory: \"256Mi\"\n"));
+    }
+
+    @Test
+    void whenFormatIsJsonValuesAreEscaped() throws IOException {
+        String manifest = write(build(0), FunctionManifestWriter.Format.JSON);
+
+        assertTrue(manifest.startsWith("{\n  \"apiVersion\": \"kubeless.io/v1beta1\",\n"));
+        assertTrue(manifest.contains("\"function\": \"package io.kubeless;\\n\\npublic class AppFunction {\\n"));
+        assertTrue(manifest.contains("return \\\"Hello\\\\tWorld\\\";"));
+        assertTrue(manifest.contains("\"port\": 8080,"));
+        assertTrue(manifest.endsWith("}\n"));
+    }
+
+    @Test
+    void whenSourceIsLargerThanThresholdItIsCompressed() throws IOException {
+        Map<String, Object> manifest = build(16);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> spec = (Map<String, Object>) manifest.get("spec");
+        assertEquals("base64+compressedtar", spec.get("function-content-type"));
+
+        byte[] archive = Base64.getDecoder().decode((String) spec.get("function"));
+        byte[] tar = readAll(new GZIPInputStream(new ByteArrayInputStream(archive)));
+        assertEquals("AppFunction.java", new String(tar, 0, 16, StandardCharsets.UTF_8));
+        byte[] content = new byte[SOURCE.length()];
+        System.arraycopy(tar, 512, content, 0, content.length);
+        assertArrayEquals(SOURCE.getBytes(StandardCharsets.UTF_8), content);
+        assertEquals(0, tar.length % 512);
+
+        assertArrayEquals(archive, FunctionManifestWriter.toCompressedTar("AppFunction.java", SOURCE.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void whenValueHasCarriageReturnsItIsDoubleQuoted() throws IOException {
+        Map<String, Object> manifest = FunctionManifestWriter.build("App_Function", null, "java1.8", "App_Function.hello", "180",
+                "App_Function.java", "class A {}\r\n".getBytes(StandardCharsets.UTF_8), DEPS.getBytes(StandardCharsets.UTF_8), 0, null, null);
+        String yaml = write(manifest, FunctionManifestWriter.Format.YAML);
+
+        assertTrue(yaml.contains("\n  name: app-function\n"));
+        assertTrue(yaml.contains("\n  function: \"class A {}\\r\\n\"\n"));
+        assertTrue(yaml.contains("\n  timeout: \"180\"\n"));
+    }
+
+    private Map<String, Object> build(int compressionThreshold) throws IOException {
+        return FunctionManifestWriter.build("AppFunction", "serverless", "java1.8", "AppFunction.hello", "180",
+                "AppFunction.java", SOURCE.getBytes(StandardCharsets.UTF_8), DEPS.getBytes(StandardCharsets.UTF_8),
+                compressionThreshold, Collections.singletonMap("cpu", "100m"), Collections.singletonMap("memory", "256Mi"));
+    }
+
+    private String write(Map<String, Object> manifest, FunctionManifestWriter.Format format) throws IOException {
+        StringWriter writer = new StringWriter();
+        FunctionManifestWriter.write(manifest, format, writer);
+        return writer.toString();
+    }
+
+    private byte[] readAll(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, read);
+        }
+        return outputStream.toByteArray();
+    }
+
+}
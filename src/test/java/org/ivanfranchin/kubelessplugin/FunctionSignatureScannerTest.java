@@ -0,0 +1,86 @@
+package org.ivanfranchin.kubelessplugin;
+
+import org.ivanfranchin.kubelessplugin.FunctionSignatureScanner.Status;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FunctionSignatureScannerTest {
+
+    @Test
+    void whenHandlerIsAfterCommentsStringsAndNestedDeclarations() throws IOException {
+        String source = "package io.kubeless;\n" +
+                "\n" +
+                "import java.util.function.Function;\n" +
+                "\n" +
+                "class Helper {\n" +
+                "    public String helper(Event event, Context context) { return \"}\"; }\n" +
+                "}\n" +
+                "\n" +
+                "/** public String javadoc(Event event, Context context) */\n" +
+                "@SuppressWarnings({\"unused\", \"rawtypes\"})\n" +
+                "public final class AppFunction extends Object {\n" +
+                "    private static final String BRACE = \"{\";\n" +
+                "    private static final char QUOTE = '\"';\n" +
+                "    private final Function<String, String> f = s -> { return s + \"}\"; };\n" +
+                "    static { System.out.println(\"{{\"); }\n" +
+                "    public AppFunction(Event event, Context context) { }\n" +
+                "    // public String commented(Event event, Context context) {\n" +
+                "    class Inner { public String inner(Event event, Context context) { return null; } }\n" +
+                "    public String notYet(Context context, Event event) { return null; }\n" +
+                "    @Deprecated(since = \"1\")\n" +
+                "    public <T> String handle(final io.kubeless.Event event, @SuppressWarnings(\"x\") Context context) throws Exception {\n" +
+                "        return BRACE;\n" +
+                "    }\n" +
+                "}\n";
+
+        FunctionSignatureScanner.Result result = FunctionSignatureScanner.scan(new StringReader(source), "AppFunction");
+        assertEquals(Status.VALID, result.getStatus());
+        assertEquals("handle", result.getDetail());
+    }
+
+    @Test
+    void whenOnlyNestedAndCommentedHandlersExist() throws IOException {
+        String source = "package io.kubeless;\n" +
+                "public class AppFunction {\n" +
+                "    /* public String commented(Event event, Context context) { } */\n" +
+                "    class Inner { public String inner(Event event, Context context) { return null; } }\n" +
+                "    String packagePrivate(Event event, Context context) { return null; }\n" +
+                "    public java.lang.String qualifiedReturnType(Event event, Context context) { return null; }\n" +
+                "}\n";
+
+        assertEquals(Status.NO_KUBELESS_FUNCTION, FunctionSignatureScanner.scan(new StringReader(source), "AppFunction").getStatus());
+    }
+
+    @Test
+    void whenPackageOrClassDoNotMatch() throws IOException {
+        assertEquals(Status.INVALID_PACKAGE,
+                FunctionSignatureScanner.scan(new StringReader("package com.example;\npublic class AppFunction { }"), "AppFunction").getStatus());
+        assertEquals(Status.INVALID_PACKAGE,
+                FunctionSignatureScanner.scan(new StringReader("public class AppFunction { }"), "AppFunction").getStatus());
+        assertEquals(Status.CLASS_NOT_FOUND,
+                FunctionSignatureScanner.scan(new StringReader("package io.kubeless;\npublic class Another { }"), "AppFunction").getStatus());
+    }
+
+    @Test
+    void whenSourceIsAmbiguous() throws IOException {
+        String[] sources = {
+                "package io.kubeless;\nprivate class AppFunction { }",
+                "package io.kubeless;\npublic interface AppFunction { }",
+                "package io.kubeless;\npublic class AppFunction { public String handle(Event event, Context... context) { return null; } }",
+                "package io.kubeless;\npublic class AppFunction { public String handle(Event event, Context context[]) { return null; } }",
+                "package io.kubeless;\npublic class \\u0041ppFunction { }",
+                "package io.kubeless;\npublic class AppFunction { String s = \"\"\"\n  text\n  \"\"\"; }",
+                "package io.kubeless;\npublic class AppFunction { public String notHandle(Event event) {",
+                "package io.kubeless;\npublic class AppFunction { public String handle(Event event, Context context) { return null; }\n void rest() { }",
+                "package io.kubeless;\npublic class AppFunction { public String handle(Event event, Context context) { return null; } } }",
+        };
+        for (String source : sources) {
+            assertEquals(Status.AMBIGUOUS, FunctionSignatureScanner.scan(new StringReader(source), "AppFunction").getStatus(), source);
+        }
+    }
+
+}
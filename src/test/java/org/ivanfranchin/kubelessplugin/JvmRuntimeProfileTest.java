@@ -0,0 +1,67 @@
+package org.ivanfranchin.kubelessplugin;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JvmRuntimeProfileTest {
+
+    @Test
+    void whenQuantitiesAreParsed() {
+        assertEquals(256, JvmRuntimeProfile.toMegabytes("256Mi"));
+        assertEquals(1024, JvmRuntimeProfile.toMegabytes("1Gi"));
+        assertEquals(476, JvmRuntimeProfile.toMegabytes("500M"));
+        assertEquals(128, JvmRuntimeProfile.toMegabytes("134217728"));
+        assertEquals(1, JvmRuntimeProfile.toProcessors("500m"));
+        assertEquals(2, JvmRuntimeProfile.toProcessors("1.5"));
+        assertEquals(4, JvmRuntimeProfile.toProcessors("4"));
+        assertThrows(IllegalArgumentException.class, () -> JvmRuntimeProfile.toMegabytes("lots"));
+        assertThrows(IllegalArgumentException.class, () -> JvmRuntimeProfile.toProcessors("2 cores"));
+    }
+
+    @Test
+    void whenLatencyProfileRunsInSmallPod() {
+        JvmRuntimeProfile profile = JvmRuntimeProfile.compute(JvmRuntimeProfile.Goal.LATENCY, "256Mi", "500m", 5);
+
+        assertEquals(Arrays.asList("-XX:+ExitOnOutOfMemoryError", "-XX:ActiveProcessorCount=1", "-XX:MetaspaceSize=64m",
+                "-XX:MaxMetaspaceSize=128m", "-XX:TieredStopAtLevel=1", "-XX:ReservedCodeCacheSize=48m",
+                "-XX:MaxRAMPercentage=43", "-XX:InitialRAMPercentage=43", "-XX:+UseSerialGC"), profile.getJavaOptions());
+        assertEquals(Arrays.asList("-XX:ActiveProcessorCount=1", "-XX:MaxRAMPercentage=43", "-XX:TieredStopAtLevel=1",
+                "-XX:+UseSerialGC"), profile.getMavenOptions());
+        assertEquals(profile.getJavaOptions().size() + 1, profile.getChoices().size());
+        assertTrue(profile.getChoices().contains("-XX:+UseSerialGC: with one processor, a concurrent or parallel collector only adds overhead"));
+    }
+
+    @Test
+    void whenThroughputProfileRunsInLargePod() {
+        JvmRuntimeProfile profile = JvmRuntimeProfile.compute(JvmRuntimeProfile.Goal.THROUGHPUT, "2Gi", "4", 20);
+
+        assertEquals(Arrays.asList("-XX:+ExitOnOutOfMemoryError", "-XX:ActiveProcessorCount=4", "-XX:MetaspaceSize=128m",
+                "-XX:MaxMetaspaceSize=256m", "-XX:MaxRAMPercentage=75", "-XX:InitialRAMPercentage=75", "-XX:+UseParallelGC"),
+                profile.getJavaOptions());
+    }
+
+    @Test
+    void whenMinimalMemoryProfileHasNoLimits() {
+        JvmRuntimeProfile profile = JvmRuntimeProfile.compute(JvmRuntimeProfile.Goal.MINIMAL_MEMORY, null, null, 0);
+
+        assertEquals(Arrays.asList("-XX:+ExitOnOutOfMemoryError", "-XX:MetaspaceSize=48m", "-XX:MaxMetaspaceSize=72m",
+                "-XX:TieredStopAtLevel=1", "-XX:ReservedCodeCacheSize=24m", "-Xss512k", "-XX:MaxRAMPercentage=60",
+                "-XX:InitialRAMPercentage=10", "-XX:MinHeapFreeRatio=10", "-XX:MaxHeapFreeRatio=20", "-XX:+UseSerialGC"),
+                profile.getJavaOptions());
+
+        String envFile = new String(profile.getEnvFile("AppFunction"), StandardCharsets.UTF_8);
+        assertTrue(envFile.startsWith("# JVM options of the Kubeless Function AppFunction, runtime profile minimal-memory, memory limit none, CPU limit none, 0 dependencies\n"));
+        assertTrue(envFile.contains("\nJAVA_OPTS=-XX:+ExitOnOutOfMemoryError -XX:MetaspaceSize=48m "));
+        assertTrue(envFile.endsWith("\nMAVEN_OPTS=-XX:MaxRAMPercentage=60 -XX:TieredStopAtLevel=1 -XX:+UseSerialGC\n"));
+        String shellSnippet = new String(profile.getShellSnippet("AppFunction"), StandardCharsets.UTF_8);
+        assertTrue(shellSnippet.contains("\nexport JAVA_OPTS=\"-XX:+ExitOnOutOfMemoryError "));
+        assertTrue(shellSnippet.endsWith("\nexport MAVEN_OPTS=\"-XX:MaxRAMPercentage=60 -XX:TieredStopAtLevel=1 -XX:+UseSerialGC\"\n"));
+    }
+
+}
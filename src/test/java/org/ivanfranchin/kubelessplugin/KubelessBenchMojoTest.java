@@ -0,0 +1,113 @@
+package org.ivanfranchin.kubelessplugin;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KubelessBenchMojoTest {
+
+    @Test
+    void whenFunctionIsBenchmarked(@TempDir Path baseDir) throws IOException, MojoFailureException, MojoExecutionException {
+        SyntheticProject.create(baseDir).withPom(0, 0);
+        writeFunction(baseDir, "return \"Hello \" + event.Data.length();");
+        Path payloadDirectory = Files.createDirectories(baseDir.resolve("payloads"));
+        Files.write(payloadDirectory.resolve("small.json"), "{}".getBytes(StandardCharsets.UTF_8));
+        Files.write(payloadDirectory.resolve("large.json"), "{\"name\":\"Ivan Franchin\"}".getBytes(StandardCharsets.UTF_8));
+        Path resultFile = baseDir.resolve("target/bench/result.json");
+
+        KubelessBenchMojo kubelessBenchMojo = createKubelessBenchMojo(baseDir);
+        kubelessBenchMojo.payloadDirectory = payloadDirectory.toFile();
+        kubelessBenchMojo.benchThreads = 2;
+        kubelessBenchMojo.benchResultFile = resultFile.toFile();
+        kubelessBenchMojo.minThroughput = 1;
+        kubelessBenchMojo.maxP50Millis = 1000;
+        kubelessBenchMojo.execute();
+
+        String result = new String(Files.readAllBytes(resultFile), StandardCharsets.UTF_8);
+        assertTrue(result.contains("\"handler\": \"AppFunction.handle\""));
+        assertTrue(result.contains("\"threads\": 2"));
+        assertTrue(result.contains("\"payloads\": 2"));
+        assertTrue(result.contains("\"errors\": 0"));
+        assertTrue(result.contains("\"p999\": "));
+        Matcher operations = Pattern.compile("\"operations\": (\\d+)").matcher(result);
+        assertTrue(operations.find());
+        assertTrue(Long.parseLong(operations.group(1)) > 0);
+    }
+
+    @Test
+    void whenThresholdIsExceeded(@TempDir Path baseDir) throws IOException {
+        SyntheticProject.create(baseDir).withPom(0, 0);
+        writeFunction(baseDir, "return new StringBuilder(4096).append(event.Data).toString();");
+
+        KubelessBenchMojo kubelessBenchMojo = createKubelessBenchMojo(baseDir);
+        kubelessBenchMojo.virtualThreads = true;
+        kubelessBenchMojo.minThroughput = 1e12;
+        kubelessBenchMojo.maxBytesPerInvocation = 1;
+
+        Throwable exception = assertThrows(MojoFailureException.class, kubelessBenchMojo::execute);
+        assertTrue(exception.getMessage().startsWith("The benchmark of AppFunction exceeded its thresholds: throughput "));
+        assertTrue(Files.exists(baseDir.resolve("target/generated-sources/kubeless/AppFunction-bench.json")));
+    }
+
+    @Test
+    void whenPayloadDirectoryIsEmpty(@TempDir Path baseDir) throws IOException {
+        SyntheticProject.create(baseDir).withPom(0, 0).withHandler("AppFunction", 0);
+        Path payloadDirectory = Files.createDirectories(baseDir.resolve("payloads"));
+
+        KubelessBenchMojo kubelessBenchMojo = createKubelessBenchMojo(baseDir);
+        kubelessBenchMojo.payloadDirectory = payloadDirectory.toFile();
+
+        Throwable exception = assertThrows(MojoExecutionException.class, kubelessBenchMojo::execute);
+        assertEquals("The payload directory informed has no files: " + payloadDirectory, exception.getMessage());
+    }
+
+    @Test
+    void whenWarmupMillisIsNegative(@TempDir Path baseDir) throws IOException {
+        SyntheticProject.create(baseDir).withPom(0, 0).withHandler("AppFunction", 0);
+
+        KubelessBenchMojo kubelessBenchMojo = createKubelessBenchMojo(baseDir);
+        kubelessBenchMojo.warmupMillis = -1;
+
+        Throwable exception = assertThrows(MojoExecutionException.class, kubelessBenchMojo::execute);
+        assertEquals("Invalid warmupMillis '-1', it must be at least 0", exception.getMessage());
+    }
+
+    private static void writeFunction(Path baseDir, String body) throws IOException {
+        Files.write(baseDir.resolve("src/main/java/io/kubeless/AppFunction.java"), String.join("\n",
+                "package io.kubeless;",
+                "",
+                "public class AppFunction {",
+                "",
+                "    public String handle(io.kubeless.Event event, io.kubeless.Context context) {",
+                "        " + body,
+                "    }",
+                "}").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static KubelessBenchMojo createKubelessBenchMojo(Path baseDir) {
+        MavenProject project = new MavenProject();
+        project.setFile(baseDir.resolve("pom.xml").toFile());
+        KubelessBenchMojo kubelessBenchMojo = new KubelessBenchMojo();
+        kubelessBenchMojo.project = project;
+        kubelessBenchMojo.inputJavaClassName = "AppFunction";
+        kubelessBenchMojo.outputDirectory = baseDir.resolve("target/generated-sources/kubeless").toFile();
+        kubelessBenchMojo.localRepository = baseDir.resolve("repository").toFile();
+        kubelessBenchMojo.warmupMillis = 100;
+        kubelessBenchMojo.measurementMillis = 200;
+        return kubelessBenchMojo;
+    }
+
+}
@@ -0,0 +1,177 @@
+package org.ivanfranchin.kubelessplugin;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KubelessCdsMojoTest {
+
+    @Test
+    void whenFunctionIsTrained(@TempDir Path baseDir) throws IOException, MojoFailureException, MojoExecutionException {
+        SyntheticProject.create(baseDir).withPom(0, 0);
+        Files.write(baseDir.resolve("src/main/java/io/kubeless/AppFunction.java"), String.join("\n",
+                "package io.kubeless;",
+                "",
+                "import io.kubeless.Context;",
+                "import io.kubeless.Event;",
+                "",
+                "public class AppFunction {",
+                "",
+                "    public String handle(Event event, Context context) {",
+                "        return new java.util.StringJoiner(\" \").add(\"Hello\").add(event.Data).add(context.FunctionName).toString();",
+                "    }",
+                "}").getBytes(StandardCharsets.UTF_8));
+        Path samplePayloadFile = Files.write(baseDir.resolve("payload.json"), "{\"name\":\"Ivan\"}".getBytes(StandardCharsets.UTF_8));
+        Path outputDirectory = baseDir.resolve("target/generated-sources/kubeless");
+
+        KubelessCdsMojo kubelessCdsMojo = createKubelessCdsMojo(baseDir, outputDirectory);
+        kubelessCdsMojo.samplePayloadFile = samplePayloadFile.toFile();
+        kubelessCdsMojo.execute();
+
+        List<String> classList = Files.readAllLines(outputDirectory.resolve("AppFunction.classlist"));
+        assertTrue(classList.contains("io/kubeless/AppFunction"));
+        assertTrue(classList.contains("io/kubeless/Event"));
+        assertTrue(classList.contains("java/util/StringJoiner"));
+        assertTrue(Files.size(outputDirectory.resolve("AppFunction.jsa")) > 0);
+
+        List<String> flags = Files.readAllLines(outputDirectory.resolve("AppFunction-cds-flags.txt"));
+        assertTrue(flags.contains("-Xshare:auto"));
+        assertTrue(flags.contains("-XX:SharedArchiveFile=\"AppFunction.jsa\""));
+        assertTrue(flags.contains("-cp \"lib/jvm-runtime-0.1.jar" + File.pathSeparator + "AppFunction.jar\""));
+        assertTrue(flags.contains("# java @AppFunction-cds-flags.txt io.kubeless.Handler, i.e. with"));
+        assertTrue(flags.stream().noneMatch(flag -> flag.contains(baseDir.toString())));
+        assertTrue(Files.exists(outputDirectory.resolve("AppFunction.jar")));
+        assertTrue(Files.exists(outputDirectory.resolve("lib/jvm-runtime-0.1.jar")));
+        assertFalse(Files.exists(outputDirectory.resolve("lib/kubeless-stubs.jar")));
+    }
+
+    @Test
+    void whenOutputDirectoryIsDeployedElsewhere(@TempDir Path baseDir) throws IOException, InterruptedException, MojoFailureException, MojoExecutionException {
+        SyntheticProject.create(baseDir).withPom(1, 0);
+        new FakeLocalRepository(baseDir.resolve("repository"))
+                .jar("com.example.group0", "library-0", "1.0", "com/example/group0/Library0.class");
+        Files.write(baseDir.resolve("src/main/java/io/kubeless/AppFunction.java"), String.join("\n",
+                "package io.kubeless;",
+                "",
+                "public class AppFunction {",
+                "",
+                "    public String handle(io.kubeless.Event event, io.kubeless.Context context) {",
+                "        return \"Hello \" + event.Data;",
+                "    }",
+                "}").getBytes(StandardCharsets.UTF_8));
+        Path outputDirectory = baseDir.resolve("target/generated-sources/kubeless");
+
+        KubelessCdsMojo kubelessCdsMojo = createKubelessCdsMojo(baseDir, outputDirectory);
+        kubelessCdsMojo.trainingInvocations = 1;
+        kubelessCdsMojo.execute();
+        assertTrue(Files.readAllLines(outputDirectory.resolve("AppFunction-cds-flags.txt"))
+                .contains("-cp \"" + String.join(File.pathSeparator, "lib/jvm-runtime-0.1.jar", "AppFunction.jar", "lib/library-0-1.0.jar") + "\""));
+
+        // the JVM refuses to start with -Xshare:on when the archive does not match the class path
+        Path podDirectory = Files.move(outputDirectory, baseDir.resolve("pod"));
+        assertEquals(0, startWithArchive(baseDir, podDirectory), new String(Files.readAllBytes(baseDir.resolve("java.log")), StandardCharsets.UTF_8));
+
+        // the archive is bound to the runtime jar, a different one makes it unusable
+        Files.setLastModifiedTime(podDirectory.resolve("lib/jvm-runtime-0.1.jar"), FileTime.fromMillis(1000L));
+        assertNotEquals(0, startWithArchive(baseDir, podDirectory));
+    }
+
+    @Test
+    void whenRuntimeIsNotInLocalRepository(@TempDir Path baseDir) throws IOException {
+        SyntheticProject.create(baseDir).withPom(0, 0).withHandler("AppFunction", 0);
+
+        KubelessCdsMojo kubelessCdsMojo = createKubelessCdsMojo(baseDir, baseDir.resolve("target/generated-sources/kubeless"));
+        Files.delete(baseDir.resolve("repository/de/inoio/kubeless/jvm-runtime/0.1/jvm-runtime-0.1.jar"));
+
+        Throwable exception = assertThrows(MojoExecutionException.class, kubelessCdsMojo::execute);
+        assertTrue(exception.getMessage().startsWith("Unable to train the class data sharing archive of AppFunction, artifacts not found in the local repository"));
+        assertTrue(exception.getMessage().endsWith("de.inoio.kubeless:jvm-runtime:0.1"));
+    }
+
+    @Test
+    void whenCdsArchiveIsDisabled(@TempDir Path baseDir) throws MojoFailureException, MojoExecutionException {
+        SyntheticProject.create(baseDir).withPom(0, 0).withHandler("AppFunction", 2);
+        Path outputDirectory = baseDir.resolve("target/generated-sources/kubeless");
+
+        KubelessCdsMojo kubelessCdsMojo = createKubelessCdsMojo(baseDir, outputDirectory);
+        kubelessCdsMojo.cdsArchive = false;
+        kubelessCdsMojo.trainingInvocations = 1;
+        kubelessCdsMojo.execute();
+
+        assertTrue(Files.exists(outputDirectory.resolve("AppFunction.classlist")));
+        assertTrue(Files.exists(outputDirectory.resolve("AppFunction-cds-flags.txt")));
+        assertFalse(Files.exists(outputDirectory.resolve("AppFunction.jsa")));
+    }
+
+    @Test
+    void whenFunctionFails(@TempDir Path baseDir) throws IOException {
+        SyntheticProject.create(baseDir).withPom(0, 0);
+        Files.write(baseDir.resolve("src/main/java/io/kubeless/AppFunction.java"), String.join("\n",
+                "package io.kubeless;",
+                "",
+                "public class AppFunction {",
+                "",
+                "    public String handle(io.kubeless.Event event, io.kubeless.Context context) {",
+                "        throw new IllegalArgumentException(\"Empty payload\");",
+                "    }",
+                "}").getBytes(StandardCharsets.UTF_8));
+
+        KubelessCdsMojo kubelessCdsMojo = createKubelessCdsMojo(baseDir, baseDir.resolve("target/generated-sources/kubeless"));
+
+        Throwable exception = assertThrows(MojoExecutionException.class, kubelessCdsMojo::execute);
+        assertEquals("The Kubeless Function AppFunction.handle failed on the sample payload", exception.getMessage());
+        assertEquals("Empty payload", exception.getCause().getMessage());
+    }
+
+    @Test
+    void whenDependencyIsNotInLocalRepository(@TempDir Path baseDir) {
+        SyntheticProject.create(baseDir).withPom(1, 0).withHandler("AppFunction", 0);
+
+        KubelessCdsMojo kubelessCdsMojo = createKubelessCdsMojo(baseDir, baseDir.resolve("target/generated-sources/kubeless"));
+
+        Throwable exception = assertThrows(MojoExecutionException.class, kubelessCdsMojo::execute);
+        assertTrue(exception.getMessage().startsWith("Unable to train the class data sharing archive of AppFunction, artifacts not found in the local repository"));
+        assertTrue(exception.getMessage().contains("com.example.group0:library-0:1.0"));
+    }
+
+    private static KubelessCdsMojo createKubelessCdsMojo(Path baseDir, Path outputDirectory) {
+        MavenProject project = new MavenProject();
+        project.setFile(baseDir.resolve("pom.xml").toFile());
+        KubelessCdsMojo kubelessCdsMojo = new KubelessCdsMojo();
+        kubelessCdsMojo.project = project;
+        kubelessCdsMojo.inputJavaClassName = "AppFunction";
+        kubelessCdsMojo.outputDirectory = outputDirectory.toFile();
+        kubelessCdsMojo.localRepository = new FakeLocalRepository(baseDir.resolve("repository")).runtimeJar("0.1").getRoot();
+        return kubelessCdsMojo;
+    }
+
+    private static int startWithArchive(Path baseDir, Path podDirectory) throws IOException, InterruptedException {
+        Path java = Paths.get(System.getProperty("java.home"), "bin", "java");
+        Process process = new ProcessBuilder(java.toString(), "@AppFunction-cds-flags.txt", "-Xshare:on", "-version")
+                .directory(podDirectory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(baseDir.resolve("java.log").toFile())
+                .start();
+        assertTrue(process.waitFor(1, TimeUnit.MINUTES));
+        return process.exitValue();
+    }
+
+}
@@ -0,0 +1,90 @@
+package org.ivanfranchin.kubelessplugin;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KubelessConvertAllMojoTest {
+
+    @Test
+    void whenReactorHasSeveralModules() throws MojoFailureException, MojoExecutionException {
+        KubelessConvertAllMojo kubelessConvertAllMojo = createKubelessConvertAllMojo(
+                createModule("multiple-functions-test"),
+                createModule("output-java-class-pom-test"),
+                createModule("input-pom-test/another-folder"));
+        kubelessConvertAllMojo.threads = 2;
+        kubelessConvertAllMojo.execute();
+
+        File multipleFunctionsOutput = Paths.get("target/test-classes/unit/convert-all/multiple-functions-test/generated-sources/kubeless").toFile();
+        assertTrue(new File(multipleFunctionsOutput, "AppFunction1/AppFunction1.java").exists());
+        assertTrue(new File(multipleFunctionsOutput, "AppFunction2/pom.xml").exists());
+        assertFalse(new File(multipleFunctionsOutput, "Greetings").exists());
+
+        File singleFunctionOutput = Paths.get("target/test-classes/unit/convert-all/output-java-class-pom-test/generated-sources/kubeless").toFile();
+        assertTrue(new File(singleFunctionOutput, "AppFunction/AppFunction.java").exists());
+        assertTrue(new File(singleFunctionOutput, "AppFunction/pom.xml").exists());
+
+        assertFalse(Paths.get("target/test-classes/unit/convert-all/input-pom-test/another-folder").toFile().exists());
+    }
+
+    @Test
+    void whenOneModuleFails() {
+        KubelessConvertAllMojo kubelessConvertAllMojo = createKubelessConvertAllMojo(
+                createModule("multiple-functions-test"),
+                createModule("output-java-class-pom-test"));
+        kubelessConvertAllMojo.inputJavaClassNames = Collections.singletonList("AppFunction1");
+
+        Throwable exception = assertThrows(MojoExecutionException.class, kubelessConvertAllMojo::execute);
+        assertTrue(exception.getMessage().startsWith("Unable to convert 1 module(s):"));
+        assertTrue(exception.getMessage().contains("AppFunction1: The input Java Class informed does not exist"));
+        assertEquals(1, exception.getMessage().split("\\[").length - 1);
+    }
+
+    @Test
+    void whenConvertParametersAreInformed() throws MojoFailureException, MojoExecutionException {
+        KubelessConvertAllMojo kubelessConvertAllMojo = createKubelessConvertAllMojo(createModule("output-java-class-pom-test"));
+        kubelessConvertAllMojo.outputFolder = "generated-sources/kubeless-parameters";
+        kubelessConvertAllMojo.functionManifest = "yaml";
+        kubelessConvertAllMojo.runtimeProfile = "latency";
+        kubelessConvertAllMojo.resourceLimits = Collections.singletonMap("memory", "256Mi");
+        kubelessConvertAllMojo.execute();
+
+        File output = Paths.get("target/test-classes/unit/convert-all/output-java-class-pom-test/generated-sources/kubeless-parameters/AppFunction").toFile();
+        assertTrue(new File(output, "function.yaml").exists());
+        assertTrue(new File(output, "jvm-options.env").exists());
+
+        KubelessConvertMojo kubelessConvertMojo = new KubelessConvertMojo();
+        kubelessConvertAllMojo.copyParametersTo(kubelessConvertMojo);
+        assertEquals("yaml", kubelessConvertMojo.functionManifest);
+        assertEquals("latency", kubelessConvertMojo.runtimeProfile);
+        assertEquals(Collections.singletonMap("memory", "256Mi"), kubelessConvertMojo.resourceLimits);
+        assertEquals(Collections.singletonList("de.inoio.kubeless:jvm-runtime"), kubelessConvertMojo.excludeDependencies);
+    }
+
+    private KubelessConvertAllMojo createKubelessConvertAllMojo(MavenProject... modules) {
+        KubelessConvertAllMojo kubelessConvertAllMojo = new KubelessConvertAllMojo();
+        kubelessConvertAllMojo.outputFolder = "generated-sources/kubeless";
+        kubelessConvertAllMojo.reactorProjects = Arrays.asList(modules);
+        return kubelessConvertAllMojo;
+    }
+
+    private MavenProject createModule(String testClassFolder) {
+        MavenProject module = new MavenProject();
+        module.setArtifactId(testClassFolder);
+        module.setFile(Paths.get("src/test/resources/unit/sources/" + testClassFolder + "/pom.xml").toFile());
+        module.getBuild().setDirectory("target/test-classes/unit/convert-all/" + testClassFolder);
+        return module;
+    }
+
+}
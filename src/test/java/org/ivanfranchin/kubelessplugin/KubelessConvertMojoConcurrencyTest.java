@@ -0,0 +1,140 @@
+package org.ivanfranchin.kubelessplugin;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs many executions of the convert goal at the same time, as {@code mvn -T} does with the modules of a reactor,
+ * and checks that every output is byte for byte the one of a sequential execution.
+ */
+class KubelessConvertMojoConcurrencyTest {
+
+    private static final int PROJECTS = 24;
+    private static final int ROUNDS = 8;
+    private static final int THREADS = 16;
+
+    @Test
+    void whenManyExecutionsRunInParallel(@TempDir Path tempDir) throws Exception {
+        final Path localRepository = tempDir.resolve("repository");
+        final FakeLocalRepository fakeLocalRepository = new FakeLocalRepository(localRepository);
+        final List<SyntheticProject> projects = new ArrayList<>();
+        for (int i = 0; i < PROJECTS; i++) {
+            final int numberOfDependencies = (i % 5) * 8;
+            for (int d = 0; d < numberOfDependencies; d++) {
+                fakeLocalRepository.jar("com.example.group" + (d % 50), "library-" + d, "1." + d, "com/example/Library" + d + ".class");
+            }
+            projects.add(SyntheticProject.create(tempDir.resolve("project-" + i))
+                    .withPom(numberOfDependencies, i % 3)
+                    .withHandler("AppFunction", i * 10)
+                    .withPathologicalHandler("OtherFunction", i));
+        }
+
+        for (int i = 0; i < PROJECTS; i++) {
+            createKubelessConvertMojo(i, projects.get(i), "reference", localRepository).execute();
+        }
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(THREADS);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int round = 0; round < ROUNDS; round++) {
+                for (int i = 0; i < PROJECTS; i++) {
+                    final KubelessConvertMojo ownOutput = createKubelessConvertMojo(i, projects.get(i), "parallel-" + round, localRepository);
+                    final KubelessConvertMojo sharedOutput = createKubelessConvertMojo(i, projects.get(i), "shared", localRepository);
+                    futures.add(executorService.submit(() -> execute(ownOutput)));
+                    futures.add(executorService.submit(() -> execute(sharedOutput)));
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        for (SyntheticProject project : projects) {
+            final Path reference = getOutputDirectory(project, "reference");
+            final List<Path> referenceFiles = listOutputFiles(reference);
+            assertTrue(referenceFiles.size() >= 3);
+            for (int round = 0; round < ROUNDS; round++) {
+                assertSameContent(reference, referenceFiles, getOutputDirectory(project, "parallel-" + round));
+            }
+            assertSameContent(reference, referenceFiles, getOutputDirectory(project, "shared"));
+        }
+        assertEquals(FileHandles.MAX_OPEN_FILES, FileHandles.getAvailablePermits());
+    }
+
+    private static Void execute(KubelessConvertMojo kubelessConvertMojo) throws MojoExecutionException, MojoFailureException {
+        kubelessConvertMojo.execute();
+        return null;
+    }
+
+    /**
+     * Even projects convert both functions in parallel inside the execution, odd projects convert one function with
+     * a dependency bundle.
+     */
+    private static KubelessConvertMojo createKubelessConvertMojo(int index, SyntheticProject syntheticProject,
+                                                                 String outputFolder, Path localRepository) {
+        MavenProject project = new MavenProject();
+        project.setFile(syntheticProject.getPomFile());
+        KubelessConvertMojo kubelessConvertMojo = new KubelessConvertMojo();
+        kubelessConvertMojo.project = project;
+        kubelessConvertMojo.outputDirectory = getOutputDirectory(syntheticProject, outputFolder).toFile();
+        kubelessConvertMojo.localRepository = localRepository.toFile();
+        kubelessConvertMojo.functionManifest = index % 4 < 2 ? "yaml" : "json";
+        if (index % 2 == 0) {
+            kubelessConvertMojo.inputJavaClassNames = Collections.singletonList("*");
+            kubelessConvertMojo.parallelism = 2;
+            kubelessConvertMojo.fastValidation = index % 4 == 0;
+        } else {
+            kubelessConvertMojo.inputJavaClassName = "AppFunction";
+            kubelessConvertMojo.dependencyBundle = index % 3 == 0 ? "directory" : "zip";
+        }
+        return kubelessConvertMojo;
+    }
+
+    private static Path getOutputDirectory(SyntheticProject syntheticProject, String outputFolder) {
+        return syntheticProject.getBaseDir().resolve("target").resolve(outputFolder);
+    }
+
+    /**
+     * The output files, except the metrics, which hold timings.
+     */
+    private static List<Path> listOutputFiles(Path outputDirectory) throws IOException {
+        try (Stream<Path> paths = Files.walk(outputDirectory)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(path -> !path.getFileName().toString().equals(KubelessConvertMojo.METRICS_FILE))
+                    .map(outputDirectory::relativize)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static void assertSameContent(Path expectedDirectory, List<Path> expectedFiles, Path actualDirectory) throws IOException {
+        assertEquals(expectedFiles, listOutputFiles(actualDirectory), actualDirectory.toString());
+        for (Path file : expectedFiles) {
+            assertArrayEquals(Files.readAllBytes(expectedDirectory.resolve(file)), Files.readAllBytes(actualDirectory.resolve(file)),
+                    actualDirectory.resolve(file).toString());
+        }
+    }
+
+}
@@ -0,0 +1,196 @@
+package org.ivanfranchin.kubelessplugin;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the convert goal on synthetic projects far larger than the fixtures: handlers of more than 10k lines,
+ * hundreds of handlers and pom.xml files with thousands of dependencies and exclusions. Each case has a time limit
+ * and a heap limit, and the ones converted on the calling thread are run at two sizes four times apart, whose
+ * allocated bytes must grow about linearly, so quadratic behavior fails the build long before the time limit does.
+ * The limits are loose on purpose, an order of magnitude above what a laptop needs, so only a change of complexity
+ * trips them.
+ */
+class KubelessConvertMojoScalingTest {
+
+    private static final long TIME_LIMIT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final long RETAINED_HEAP_LIMIT_BYTES = 64L * 1024 * 1024;
+    // linear growth allocates 4 times more at 4 times the size, quadratic growth 16 times more
+    private static final double MAX_ALLOCATION_GROWTH = 6.0;
+
+    @TempDir
+    static Path tempDir;
+
+    @BeforeAll
+    static void warmUp() throws Exception {
+        final SyntheticProject project = SyntheticProject.create(tempDir.resolve("warm-up"))
+                .withPom(100, 1)
+                .withHandler("AppFunction", 100);
+        for (int i = 0; i < 3; i++) {
+            createKubelessConvertMojo(project, "output-" + i).execute();
+        }
+    }
+
+    @Test
+    void whenHandlerHasMoreThanTenThousandLines() throws Exception {
+        final Measurement small = measure(() -> convertHandler("small-handler", 600));
+        final Measurement large = measure(() -> convertHandler("large-handler", 2400));
+
+        assertTrue(Files.readAllLines(SyntheticProject.create(tempDir.resolve("large-handler")).getInputJavaClassPath("AppFunction")).size() > 10_000);
+        large.assertWithinLimits("handler of 12k lines");
+        assertLinearAllocations("handler of 3k and 12k lines", small, large);
+    }
+
+    @Test
+    void whenPomHasThousandsOfDependenciesAndExclusions() throws Exception {
+        final Measurement small = measure(() -> convertPom("small-pom", 1000));
+        final Measurement large = measure(() -> convertPom("large-pom", 4000));
+
+        final Model outputPom;
+        try (InputStream inputStream = Files.newInputStream(tempDir.resolve("large-pom/target/kubeless/pom.xml"))) {
+            outputPom = new MavenXpp3Reader().read(inputStream);
+        }
+        // two of the 50 groups are excluded, the template adds one dependency
+        assertEquals(4000 - 160 + 1, outputPom.getDependencies().size());
+        large.assertWithinLimits("pom.xml with 4,000 dependencies and 12,000 exclusions");
+        assertLinearAllocations("pom.xml with 1,000 and 4,000 dependencies", small, large);
+    }
+
+    @Test
+    void whenProjectHasHundredsOfHandlers() throws Exception {
+        final SyntheticProject project = SyntheticProject.create(tempDir.resolve("many-handlers")).withPom(200, 2);
+        for (int i = 0; i < 400; i++) {
+            project.withHandler(String.format("AppFunction%03d", i), i % 20);
+        }
+
+        final KubelessConvertMojo kubelessConvertMojo = createKubelessConvertMojo(project, "kubeless");
+        kubelessConvertMojo.inputJavaClassNames = Collections.singletonList("AppFunction*");
+        kubelessConvertMojo.functionManifest = "yaml";
+        kubelessConvertMojo.incremental = true;
+        final Measurement measurement = measure(kubelessConvertMojo::execute);
+        measurement.assertWithinLimits("400 handlers");
+        assertEquals(400, kubelessConvertMojo.getMetrics().getCalls(ConversionMetrics.Phase.WRITE_OUTPUT_POM_FILE));
+
+        final KubelessConvertMojo upToDateKubelessConvertMojo = createKubelessConvertMojo(project, "kubeless");
+        upToDateKubelessConvertMojo.inputJavaClassNames = Collections.singletonList("AppFunction*");
+        upToDateKubelessConvertMojo.functionManifest = "yaml";
+        upToDateKubelessConvertMojo.incremental = true;
+        measure(upToDateKubelessConvertMojo::execute).assertWithinLimits("400 handlers up to date");
+        assertEquals(0, upToDateKubelessConvertMojo.getMetrics().getCalls(ConversionMetrics.Phase.WRITE_OUTPUT_POM_FILE));
+    }
+
+    private static void convertHandler(String name, int numberOfFillerMethods) throws Exception {
+        final SyntheticProject project = SyntheticProject.create(tempDir.resolve(name))
+                .withPom(0, 0)
+                .withHandler("AppFunction", numberOfFillerMethods);
+        final KubelessConvertMojo kubelessConvertMojo = createKubelessConvertMojo(project, "kubeless");
+        kubelessConvertMojo.functionManifest = "yaml";
+        kubelessConvertMojo.nativeImage = true;
+        kubelessConvertMojo.execute();
+    }
+
+    /**
+     * Converts a project with {@code numberOfDependencies} dependencies of three exclusions each, filtered by include
+     * and exclude patterns, so the filtering runs once per dependency and pattern.
+     */
+    private static void convertPom(String name, int numberOfDependencies) throws Exception {
+        final SyntheticProject project = SyntheticProject.create(tempDir.resolve(name))
+                .withPom(numberOfDependencies, 3)
+                .withHandler("AppFunction", 0);
+        final KubelessConvertMojo kubelessConvertMojo = createKubelessConvertMojo(project, "kubeless");
+        kubelessConvertMojo.includeDependencies = Arrays.asList("com.example.*", "de.inoio.*");
+        kubelessConvertMojo.excludeDependencies = Arrays.asList("de.inoio.kubeless:jvm-runtime", "com.example.group7", "com.example.group42:library-*");
+        kubelessConvertMojo.functionManifest = "json";
+        kubelessConvertMojo.runtimeProfile = "latency";
+        kubelessConvertMojo.execute();
+    }
+
+    private static KubelessConvertMojo createKubelessConvertMojo(SyntheticProject syntheticProject, String outputFolder) {
+        MavenProject project = new MavenProject();
+        project.setFile(syntheticProject.getPomFile());
+        KubelessConvertMojo kubelessConvertMojo = new KubelessConvertMojo();
+        kubelessConvertMojo.project = project;
+        kubelessConvertMojo.inputJavaClassName = "AppFunction";
+        kubelessConvertMojo.outputDirectory = syntheticProject.getBaseDir().resolve("target").resolve(outputFolder).toFile();
+        kubelessConvertMojo.localRepository = tempDir.resolve("repository").toFile();
+        return kubelessConvertMojo;
+    }
+
+    private static void assertLinearAllocations(String description, Measurement small, Measurement large) {
+        assumeTrue(small.allocatedBytes > 0, "Allocated bytes are not available on this JVM");
+        final double growth = (double) large.allocatedBytes / small.allocatedBytes;
+        assertTrue(growth <= MAX_ALLOCATION_GROWTH, String.format("%s: allocated %d bytes then %d bytes, %.1f times more at 4 times the size",
+                description, small.allocatedBytes, large.allocatedBytes, growth));
+    }
+
+    private interface Conversion {
+        void run() throws Exception;
+    }
+
+    /**
+     * Wall time, bytes allocated by the calling thread and heap retained after a full GC of one conversion.
+     */
+    private static Measurement measure(Conversion conversion) throws Exception {
+        final long retainedBefore = getRetainedHeapBytes();
+        final long allocatedBefore = getAllocatedBytes();
+        final long start = System.nanoTime();
+        conversion.run();
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        final long allocatedBytes = getAllocatedBytes() - allocatedBefore;
+        return new Measurement(elapsedMillis, allocatedBefore < 0 ? -1 : allocatedBytes, getRetainedHeapBytes() - retainedBefore);
+    }
+
+    private static final class Measurement {
+
+        private final long elapsedMillis;
+        private final long allocatedBytes;
+        private final long retainedBytes;
+
+        private Measurement(long elapsedMillis, long allocatedBytes, long retainedBytes) {
+            this.elapsedMillis = elapsedMillis;
+            this.allocatedBytes = allocatedBytes;
+            this.retainedBytes = retainedBytes;
+        }
+
+        private void assertWithinLimits(String description) {
+            assertTrue(elapsedMillis <= TIME_LIMIT_MILLIS, String.format("%s: took %d ms, the limit is %d ms",
+                    description, elapsedMillis, TIME_LIMIT_MILLIS));
+            assertTrue(retainedBytes <= RETAINED_HEAP_LIMIT_BYTES, String.format("%s: retained %d bytes of heap, the limit is %d bytes",
+                    description, retainedBytes, RETAINED_HEAP_LIMIT_BYTES));
+        }
+    }
+
+    private static long getAllocatedBytes() {
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            final com.sun.management.ThreadMXBean hotSpotThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+            if (hotSpotThreadMXBean.isThreadAllocatedMemorySupported() && hotSpotThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+                return hotSpotThreadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    private static long getRetainedHeapBytes() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+}
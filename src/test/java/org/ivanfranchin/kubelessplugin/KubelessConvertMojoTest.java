@@ -2,6 +2,7 @@ package org.ivanfranchin.kubelessplugin;
 
 import com.github.javaparser.StaticJavaParser;
 import com.github.javaparser.ast.CompilationUnit;
+import org.apache.maven.model.Dependency;
 import org.apache.maven.model.Model;
 import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -11,14 +12,29 @@ import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -162,10 +178,666 @@ class KubelessConvertMojoTest {
             Model model = mavenXpp3Reader.read(new FileInputStream(outputPomFile));
             assertTrue(standardPomValidation(model));
         }
+
+        @Test
+        void whenPomTemplateFileIsInformed() throws MojoFailureException, MojoExecutionException, IOException, XmlPullParserException {
+            String inputJavaClassName = "AppFunction";
+            File outputDirectory = Paths.get("target/test-classes/unit/generated-sources/" + TEST_CLASS_FOLDER + "-template").toFile();
+            File baseDir = Paths.get("src/test/resources/unit/sources/" + TEST_CLASS_FOLDER + "/pom.xml").toFile();
+            File pomTemplateFile = Paths.get("src/test/resources/unit/sources/" + TEST_CLASS_FOLDER + "/pom-template.xml").toFile();
+
+            KubelessConvertMojo kubelessConvertMojo = createKubelessConvertMojo(inputJavaClassName, outputDirectory, baseDir);
+            kubelessConvertMojo.pomTemplateFile = pomTemplateFile;
+            kubelessConvertMojo.execute();
+
+            File outputPomFile = Paths.get(outputDirectory + File.separator + "pom.xml").toFile();
+            Model model = mavenXpp3Reader.read(new FileInputStream(outputPomFile));
+            assertEquals("custom-function", model.getArtifactId());
+        }
+
+        @Test
+        void whenPomTemplateFileDoesNotExist() {
+            String inputJavaClassName = "AppFunction";
+            File outputDirectory = Paths.get("target/test-classes/unit/generated-sources/" + TEST_CLASS_FOLDER + "-template").toFile();
+            File baseDir = Paths.get("src/test/resources/unit/sources/" + TEST_CLASS_FOLDER + "/pom.xml").toFile();
+
+            KubelessConvertMojo kubelessConvertMojo = createKubelessConvertMojo(inputJavaClassName, outputDirectory, baseDir);
+            kubelessConvertMojo.pomTemplateFile = new File("non-existent-template.xml");
+
+            Throwable exception = assertThrows(MojoExecutionException.class, kubelessConvertMojo::execute);
+            assertEquals("The pom.xml template file informed does not exist: non-existent-template.xml", exception.getMessage());
+        }
+    }
+
+    @Nested
+    @DisplayName("Test the incremental up-to-date check")
+    class IncrementalTest {
+
+        private static final String TEST_CLASS_FOLDER = "output-java-class-pom-test";
+
+        @Test
+        void whenInputsDidNotChangeOutputsAreNotRewritten() throws MojoFailureException, MojoExecutionException {
+            String inputJavaClassName = "AppFunction";
+            File outputDirectory = Paths.get("target/test-classes/unit/generated-sources/incremental-test").toFile();
+            File baseDir = Paths.get("src/test/resources/unit/sources/" + TEST_CLASS_FOLDER + "/pom.xml").toFile();
+
+            KubelessConvertMojo kubelessConvertMojo = createKubelessConvertMojo(inputJavaClassName, outputDirectory, baseDir);
+            kubelessConvertMojo.incremental = true;
+            kubelessConvertMojo.execute();
+
+            File outputClassFile = Paths.get(outputDirectory + File.separator + inputJavaClassName + ".java").toFile();
+            File outputPomFile = Paths.get(outputDirectory + File.separator + "pom.xml").toFile();
+            assertTrue(outputClassFile.setLastModified(1000L));
+            assertTrue(outputPomFile.setLastModified(1000L));
+
+            kubelessConvertMojo.execute();
+            assertEquals(1000L, outputClassFile.lastModified());
+            assertEquals(1000L, outputPomFile.lastModified());
+
+            assertTrue(outputClassFile.delete());
+            kubelessConvertMojo.execute();
+            assertTrue(outputClassFile.exists());
+        }
+
+        @Test
+        void whenConfigurationChangesConversionRunsAgain() throws MojoFailureException, MojoExecutionException, IOException {
+            String inputJavaClassName = "AppFunction";
+            File outputDirectory = Paths.get("target/test-classes/unit/generated-sources/incremental-test").toFile();
+            File baseDir = Paths.get("src/test/resources/unit/sources/" + TEST_CLASS_FOLDER + "/pom.xml").toFile();
+
+            KubelessConvertMojo kubelessConvertMojo = createKubelessConvertMojo(inputJavaClassName, outputDirectory, baseDir);
+            kubelessConvertMojo.incremental = true;
+            kubelessConvertMojo.execute();
+
+            File fingerprintFile = Paths.get(outputDirectory + File.separator + ".kubeless-fingerprint").toFile();
+            byte[] fingerprint = Files.readAllBytes(fingerprintFile.toPath());
+
+            kubelessConvertMojo.pluginVersion = "another-version";
+            kubelessConvertMojo.execute();
+            assertFalse(Arrays.equals(fingerprint, Files.readAllBytes(fingerprintFile.toPath())));
+        }
+    }
+
+    @Nested
+    @DisplayName("Test the conversion of multiple input Java Classes")
+    class MultipleFunctionsTest {
+
+        private static final String TEST_CLASS_FOLDER = "multiple-functions-test";
+
+        @Test
+        void whenNoInputJavaClassIsInformed() {
+            File outputDirectory = Paths.get("target/test-classes/unit/generated-sources/" + TEST_CLASS_FOLDER).toFile();
+            File baseDir = Paths.get("src/test/resources/unit/sources/" + TEST_CLASS_FOLDER + "/pom.xml").toFile();
+            KubelessConvertMojo kubelessConvertMojo = createKubelessConvertMojo(null, outputDirectory, baseDir);
+
+            Throwable exception = assertThrows(MojoExecutionException.class, kubelessConvertMojo::execute);
+            assertEquals("One of the parameters inputJavaClassName or inputJavaClassNames must be informed", exception.getMessage());
+        }
+
+        @Test
+        void whenPatternMatchesAllInputJavaClasses() throws MojoFailureException, MojoExecutionException {
+            File outputDirectory = Paths.get("target/test-classes/unit/generated-sources/" + TEST_CLASS_FOLDER + "/pattern").toFile();
+            File baseDir = Paths.get("src/test/resources/unit/sources/" + TEST_CLASS_FOLDER + "/pom.xml").toFile();
+            KubelessConvertMojo kubelessConvertMojo = createKubelessConvertMojo(null, outputDirectory, baseDir);
+            kubelessConvertMojo.inputJavaClassNames = Collections.singletonList("*");
+            kubelessConvertMojo.parallelism = 2;
+            kubelessConvertMojo.execute();
+
+            for (String inputJavaClassName : Arrays.asList("AppFunction1", "AppFunction2")) {
+                assertTrue(Paths.get(outputDirectory + File.separator + inputJavaClassName + File.separator + inputJavaClassName + ".java").toFile().exists());
+                assertTrue(Paths.get(outputDirectory + File.separator + inputJavaClassName + File.separator + "pom.xml").toFile().exists());
+            }
+            assertFalse(Paths.get(outputDirectory + File.separator + "Greetings").toFile().exists());
+        }
+
+        @Test
+        void whenSomeInputJavaClassesAreInvalid() {
+            File outputDirectory = Paths.get("target/test-classes/unit/generated-sources/" + TEST_CLASS_FOLDER + "/explicit").toFile();
+            File baseDir = Paths.get("src/test/resources/unit/sources/" + TEST_CLASS_FOLDER + "/pom.xml").toFile();
+            KubelessConvertMojo kubelessConvertMojo = createKubelessConvertMojo(null, outputDirectory, baseDir);
+            kubelessConvertMojo.inputJavaClassNames = Arrays.asList("AppFunction1", "Greetings", "NonExistentClass");
+
+            Throwable exception = assertThrows(MojoExecutionException.class, kubelessConvertMojo::execute);
+            assertTrue(exception.getMessage().startsWith("Unable to convert 2 input Java Class(es):"));
+            assertTrue(exception.getMessage().contains("Greetings: The input Java Class informed does not implement any Kubeless Function"));
+            assertTrue(exception.getMessage().contains("NonExistentClass: The input Java Class informed does not exist"));
+            assertTrue(Paths.get(outputDirectory + File.separator + "AppFunction1" + File.separator + "AppFunction1.java").toFile().exists());
+        }
+    }
+
+    @Nested
+    @DisplayName("Test that the fast validation gives the same results as JavaParser")
+    class FastValidationTest {
+
+        @Test
+        void whenInputJavaClassesAreFromInputJavaClassTest() {
+            assertSameResultsInBothValidationModes("input-java-class-test",
+                    Stream.of("NonExistentClass", "PrivateAccessModifier", "ProtectedAccessModifier"));
+        }
+
+        @Test
+        void whenInputJavaClassesAreFromFunctionSignatureTest() {
+            assertSameResultsInBothValidationModes("function-signature-test", Stream.of(
+                    IntStream.range(1, 8).mapToObj(n -> String.format("PublicWithoutKubelessFunction%s", n)),
+                    IntStream.range(1, 6).mapToObj(n -> String.format("PublicWithKubelessFunction%s", n)),
+                    Stream.of("PublicWithKubelessFunctionAndSyntaxError")).flatMap(names -> names));
+        }
+
+        private void assertSameResultsInBothValidationModes(String testClassFolder, Stream<String> inputJavaClassNames) {
+            inputJavaClassNames.forEach(inputJavaClassName -> {
+                File baseDir = Paths.get("src/test/resources/unit/sources/" + testClassFolder + "/pom.xml").toFile();
+
+                KubelessConvertMojo parserMojo = createKubelessConvertMojo(inputJavaClassName,
+                        Paths.get("target/test-classes/unit/generated-sources/fast-validation-test/parser").toFile(), baseDir);
+                KubelessConvertMojo scannerMojo = createKubelessConvertMojo(inputJavaClassName,
+                        Paths.get("target/test-classes/unit/generated-sources/fast-validation-test/scanner").toFile(), baseDir);
+                scannerMojo.fastValidation = true;
+
+                assertEquals(getExecutionResult(parserMojo), getExecutionResult(scannerMojo), inputJavaClassName);
+            });
+        }
+
+        private String getExecutionResult(KubelessConvertMojo kubelessConvertMojo) {
+            try {
+                kubelessConvertMojo.execute();
+                return "converted";
+            } catch (MojoExecutionException | MojoFailureException e) {
+                return e.getMessage();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Test the dependencies taken from the project model")
+    class ProjectModelTest {
+
+        private static final String TEST_CLASS_FOLDER = "input-pom-test";
+
+        @Test
+        void whenDependenciesComeFromProjectModel() throws MojoFailureException, MojoExecutionException, IOException, XmlPullParserException {
+            String inputJavaClassName = "AppFunction";
+            File outputDirectory = Paths.get("target/test-classes/unit/generated-sources/project-model-test").toFile();
+            File baseDir = Paths.get("src/test/resources/unit/sources/" + TEST_CLASS_FOLDER + "/pom.xml").toFile();
+
+            KubelessConvertMojo kubelessConvertMojo = createKubelessConvertMojo(inputJavaClassName, outputDirectory, baseDir);
+            kubelessConvertMojo.useProjectModel = true;
+            kubelessConvertMojo.excludeScopes = Arrays.asList("test", "provided");
+            kubelessConvertMojo.project.getModel().addDependency(createDependency("de.inoio.kubeless", "jvm-runtime", "0.1", null));
+            kubelessConvertMojo.project.getModel().addDependency(createDependency("com.fasterxml.jackson.core", "jackson-databind", "2.10.2", null));
+            kubelessConvertMojo.project.getModel().addDependency(createDependency("org.apache.commons", "commons-lang3", "3.9", "runtime"));
+            kubelessConvertMojo.project.getModel().addDependency(createDependency("javax.servlet", "servlet-api", "2.5", "provided"));
+            kubelessConvertMojo.project.getModel().addDependency(createDependency("org.junit.jupiter", "junit-jupiter-engine", "5.5.2", "test"));
+            kubelessConvertMojo.execute();
+
+            File outputPomFile = Paths.get(outputDirectory + File.separator + "pom.xml").toFile();
+            Model model = mavenXpp3Reader.read(new FileInputStream(outputPomFile));
+            assertTrue(standardPomValidation(model));
+            assertEquals(Arrays.asList("io.kubeless:params:1.0-SNAPSHOT", "com.fasterxml.jackson.core:jackson-databind:2.10.2", "org.apache.commons:commons-lang3:3.9"),
+                    model.getDependencies().stream()
+                            .map(d -> String.join(":", d.getGroupId(), d.getArtifactId(), d.getVersion()))
+                            .collect(Collectors.toList()));
+        }
+
+        private Dependency createDependency(String groupId, String artifactId, String version, String scope) {
+            Dependency dependency = new Dependency();
+            dependency.setGroupId(groupId);
+            dependency.setArtifactId(artifactId);
+            dependency.setVersion(version);
+            dependency.setScope(scope);
+            return dependency;
+        }
+    }
+
+    @Nested
+    @DisplayName("Test the dependency patterns and the pruning of unreferenced dependencies")
+    class DependencyPruningTest {
+
+        private static final String TEST_CLASS_FOLDER = "dependency-pruning-test";
+
+        @TempDir
+        Path localRepository;
+
+        @Test
+        void whenDependencyPatternsAreInformed() throws MojoFailureException, MojoExecutionException, IOException, XmlPullParserException {
+            File outputDirectory = Paths.get("target/test-classes/unit/generated-sources/dependency-patterns-test").toFile();
+            File baseDir = Paths.get("src/test/resources/unit/sources/" + TEST_CLASS_FOLDER + "/pom.xml").toFile();
+
+            KubelessConvertMojo kubelessConvertMojo = createKubelessConvertMojo("AppFunction", outputDirectory, baseDir);
+            kubelessConvertMojo.includeDependencies = Arrays.asList("com.*", "org.apache.commons:commons-*");
+            kubelessConvertMojo.excludeDependencies = Collections.singletonList("com.google.guava");
+            kubelessConvertMojo.execute();
+
+            assertEquals(Arrays.asList("io.kubeless:params", "com.fasterxml.jackson.core:jackson-databind", "org.apache.commons:commons-lang3"),
+                    readOutputDependencies(outputDirectory));
+        }
+
+        @Test
+        void whenPruneDependenciesIsEnabled() throws MojoFailureException, MojoExecutionException, IOException, XmlPullParserException {
+            new FakeLocalRepository(localRepository)
+                    .jar("com.fasterxml.jackson.core", "jackson-databind", "2.10.2", "com/fasterxml/jackson/databind/ObjectMapper.class")
+                    .jar("org.apache.commons", "commons-lang3", "3.9", "org/apache/commons/lang3/StringUtils.class")
+                    .jar("com.google.guava", "guava", "28.2-jre", "com/google/common/base/Strings.class")
+                    .jar("org.postgresql", "postgresql", "42.2.10", "org/postgresql/Driver.class");
+
+            File outputDirectory = Paths.get("target/test-classes/unit/generated-sources/" + TEST_CLASS_FOLDER).toFile();
+
+            KubelessConvertMojo kubelessConvertMojo = createKubelessConvertMojo(outputDirectory, localRepository);
+            kubelessConvertMojo.pruneDependencies = true;
+            kubelessConvertMojo.execute();
+
+            // guava is not referenced, postgresql has runtime scope and the jar of slf4j-api is not in the local repository
+            assertEquals(Arrays.asList("io.kubeless:params", "com.fasterxml.jackson.core:jackson-databind",
+                    "org.apache.commons:commons-lang3", "org.postgresql:postgresql", "org.slf4j:slf4j-api"),
+                    readOutputDependencies(outputDirectory));
+
+            String report = new String(Files.readAllBytes(Paths.get(outputDirectory + File.separator + "dependency-pruning-report.txt")), StandardCharsets.UTF_8);
+            assertTrue(report.contains("dropped com.google.guava:guava:28.2-jre"));
+            assertTrue(report.contains("kept    com.fasterxml.jackson.core:jackson-databind:2.10.2 (provides com.fasterxml.jackson.databind)"));
+            assertTrue(report.contains("kept    org.apache.commons:commons-lang3:3.9 (provides org.apache.commons.lang3)"));
+        }
+
+        @Test
+        void whenPruneDependenciesIsEnabledWithFastValidation() throws MojoFailureException, MojoExecutionException, IOException, XmlPullParserException {
+            new FakeLocalRepository(localRepository).jar("com.google.guava", "guava", "28.2-jre", "com/google/common/base/Strings.class");
+
+            File outputDirectory = Paths.get("target/test-classes/unit/generated-sources/dependency-pruning-fast-test").toFile();
+
+            KubelessConvertMojo kubelessConvertMojo = createKubelessConvertMojo(outputDirectory, localRepository);
+            kubelessConvertMojo.fastValidation = true;
+            kubelessConvertMojo.pruneDependencies = true;
+            kubelessConvertMojo.execute();
+
+            assertFalse(readOutputDependencies(outputDirectory).contains("com.google.guava:guava"));
+        }
+
+    }
+
+    @Nested
+    @DisplayName("Test the dependency bundle")
+    class DependencyBundleTest {
+
+        @TempDir
+        Path localRepository;
+
+        @Test
+        void whenDependencyBundleIsZip() throws MojoFailureException, MojoExecutionException, IOException {
+            createLocalRepository(localRepository);
+            File outputDirectory = Paths.get("target/test-classes/unit/generated-sources/dependency-bundle-zip-test").toFile();
+
+            KubelessConvertMojo kubelessConvertMojo = createKubelessConvertMojo(outputDirectory, localRepository);
+            kubelessConvertMojo.dependencyBundle = "zip";
+            kubelessConvertMojo.execute();
+
+            List<String> pointer = Files.readAllLines(Paths.get(outputDirectory + File.separator + "dependency-bundle.txt"));
+            assertTrue(pointer.get(0).matches("bundle: dependency-bundle-[0-9a-f]{16}\\.zip"));
+            assertEquals(Arrays.asList("com.fasterxml.jackson.core:jackson-annotations:2.10.2", "com.fasterxml.jackson.core:jackson-databind:2.10.2",
+                    "com.google.guava:guava:28.2-jre", "org.apache.commons:commons-lang3:3.9", "org.postgresql:postgresql:42.2.10",
+                    "org.slf4j:slf4j-api:1.7.30"),
+                    pointer.stream().skip(1).map(line -> line.split(" ")[0]).collect(Collectors.toList()));
+
+            Path bundle = Paths.get(outputDirectory + File.separator + pointer.get(0).substring("bundle: ".length()));
+            byte[] content = Files.readAllBytes(bundle);
+            Files.setLastModifiedTime(bundle, FileTime.fromMillis(1000L));
+            kubelessConvertMojo.execute();
+            assertEquals(1000L, Files.getLastModifiedTime(bundle).toMillis());
+
+            // the same dependency set gives the same bytes in another folder
+            File otherOutputDirectory = Paths.get("target/test-classes/unit/generated-sources/dependency-bundle-zip-other-test").toFile();
+            KubelessConvertMojo otherKubelessConvertMojo = createKubelessConvertMojo(otherOutputDirectory, localRepository);
+            otherKubelessConvertMojo.dependencyBundle = "zip";
+            otherKubelessConvertMojo.execute();
+            assertArrayEquals(content, Files.readAllBytes(Paths.get(otherOutputDirectory + File.separator + bundle.getFileName())));
+        }
+
+        @Test
+        void whenDependencyBundleIsDirectoryAndDependenciesChange() throws MojoFailureException, MojoExecutionException, IOException {
+            createLocalRepository(localRepository);
+            File outputDirectory = Paths.get("target/test-classes/unit/generated-sources/dependency-bundle-directory-test").toFile();
+
+            KubelessConvertMojo kubelessConvertMojo = createKubelessConvertMojo(outputDirectory, localRepository);
+            kubelessConvertMojo.dependencyBundle = "directory";
+            kubelessConvertMojo.execute();
+
+            String firstBundle = Files.readAllLines(Paths.get(outputDirectory + File.separator + "dependency-bundle.txt")).get(0).substring("bundle: ".length());
+            assertTrue(Files.isRegularFile(Paths.get(outputDirectory + File.separator + firstBundle, "lib", "guava-28.2-jre.jar")));
+            assertTrue(Files.isRegularFile(Paths.get(outputDirectory + File.separator + firstBundle, "bundle-manifest.txt")));
+
+            kubelessConvertMojo.excludeDependencies = Arrays.asList("de.inoio.kubeless:jvm-runtime", "com.google.guava");
+            kubelessConvertMojo.execute();
+
+            String secondBundle = Files.readAllLines(Paths.get(outputDirectory + File.separator + "dependency-bundle.txt")).get(0).substring("bundle: ".length());
+            assertFalse(firstBundle.equals(secondBundle));
+            assertFalse(Files.exists(Paths.get(outputDirectory + File.separator + firstBundle)));
+            assertFalse(Files.exists(Paths.get(outputDirectory + File.separator + secondBundle, "lib", "guava-28.2-jre.jar")));
+        }
+
+        @Test
+        void whenDependencyIsNotInLocalRepository() {
+            new FakeLocalRepository(localRepository).jar("com.google.guava", "guava", "28.2-jre");
+            File outputDirectory = Paths.get("target/test-classes/unit/generated-sources/dependency-bundle-missing-test").toFile();
+
+            KubelessConvertMojo kubelessConvertMojo = createKubelessConvertMojo(outputDirectory, localRepository);
+            kubelessConvertMojo.dependencyBundle = "zip";
+            Throwable exception = assertThrows(MojoExecutionException.class, kubelessConvertMojo::execute);
+            assertTrue(exception.getMessage().startsWith("Unable to create the dependency bundle of AppFunction, artifacts not found in the local repository"));
+            assertTrue(exception.getMessage().endsWith("com.fasterxml.jackson.core:jackson-databind:2.10.2, org.apache.commons:commons-lang3:3.9, org.postgresql:postgresql:42.2.10, org.slf4j:slf4j-api:1.7.30"));
+        }
+    }
+
+    @Nested
+    class CachedOutputsTest {
+
+        @TempDir
+        Path tempDir;
+
+        @Test
+        void whenOutputsAreCachedTheyAreRestoredInAnotherFolder() throws MojoFailureException, MojoExecutionException, IOException {
+            createLocalRepository(tempDir.resolve("repository"));
+            Path firstOutputDirectory = tempDir.resolve("first");
+            Path secondOutputDirectory = tempDir.resolve("second");
+
+            KubelessConvertMojo kubelessConvertMojo = createCachingKubelessConvertMojo(firstOutputDirectory.toFile());
+            kubelessConvertMojo.execute();
+            assertEquals(0, kubelessConvertMojo.outputCache.getHits());
+            assertEquals(1, kubelessConvertMojo.outputCache.getStores());
+            assertEquals(1, kubelessConvertMojo.getMetrics().getCalls(ConversionMetrics.Phase.GET_PROJECT_DEPENDENCIES));
+
+            KubelessConvertMojo otherKubelessConvertMojo = createCachingKubelessConvertMojo(secondOutputDirectory.toFile());
+            otherKubelessConvertMojo.execute();
+            assertEquals(1, otherKubelessConvertMojo.outputCache.getHits());
+            assertEquals(0, otherKubelessConvertMojo.outputCache.getStores());
+
+            String bundle = Files.readAllLines(firstOutputDirectory.resolve("dependency-bundle.txt")).get(0).substring("bundle: ".length());
+            for (String file : Arrays.asList("AppFunction.java", "pom.xml", "function.yaml", "dependency-bundle.txt", bundle)) {
+                assertArrayEquals(Files.readAllBytes(firstOutputDirectory.resolve(file)), Files.readAllBytes(secondOutputDirectory.resolve(file)), file);
+            }
+        }
+
+        @Test
+        void whenPluginVersionChangesOutputsAreConvertedAgain() throws MojoFailureException, MojoExecutionException {
+            createLocalRepository(tempDir.resolve("repository"));
+
+            KubelessConvertMojo kubelessConvertMojo = createCachingKubelessConvertMojo(tempDir.resolve("output").toFile());
+            kubelessConvertMojo.execute();
+            kubelessConvertMojo.pluginVersion = "another-version";
+            kubelessConvertMojo.execute();
+
+            assertEquals(0, kubelessConvertMojo.outputCache.getHits());
+            assertEquals(1, kubelessConvertMojo.outputCache.getMisses());
+            assertEquals(1, kubelessConvertMojo.outputCache.getStores());
+        }
+
+        @Test
+        void whenDependencyJarChangesOutputsAreConvertedAgain() throws MojoFailureException, MojoExecutionException, IOException {
+            createLocalRepository(tempDir.resolve("repository"));
+            Path outputDirectory = tempDir.resolve("output");
+
+            KubelessConvertMojo kubelessConvertMojo = createCachingKubelessConvertMojo(outputDirectory.toFile());
+            kubelessConvertMojo.execute();
+            String bundle = Files.readAllLines(outputDirectory.resolve("dependency-bundle.txt")).get(0);
+            createLocalRepository(tempDir.resolve("repository"))
+                    .jar("org.slf4j", "slf4j-api", "1.7.30", "org/slf4j/Logger.class", "org/slf4j/LoggerFactory.class");
+            KubelessConvertMojo otherKubelessConvertMojo = createCachingKubelessConvertMojo(outputDirectory.toFile());
+            otherKubelessConvertMojo.execute();
+
+            assertEquals(0, otherKubelessConvertMojo.outputCache.getHits());
+            assertEquals(1, otherKubelessConvertMojo.outputCache.getMisses());
+            assertNotEquals(bundle, Files.readAllLines(outputDirectory.resolve("dependency-bundle.txt")).get(0));
+        }
+
+        private KubelessConvertMojo createCachingKubelessConvertMojo(File outputDirectory) {
+            KubelessConvertMojo kubelessConvertMojo = createKubelessConvertMojo(outputDirectory, tempDir.resolve("repository"));
+            kubelessConvertMojo.outputCacheDirectory = tempDir.resolve("cache").toFile();
+            kubelessConvertMojo.functionManifest = "yaml";
+            kubelessConvertMojo.dependencyBundle = "zip";
+            return kubelessConvertMojo;
+        }
+    }
+
+    @Nested
+    class DependencyBudgetTest {
+
+        @TempDir
+        Path tempDir;
+
+        @Test
+        void whenDependenciesAreWithinTheBudget() throws MojoFailureException, MojoExecutionException, IOException {
+            createBudgetedLocalRepository();
+
+            KubelessConvertMojo kubelessConvertMojo = createKubelessConvertMojo(tempDir.resolve("output").toFile(), tempDir.resolve("repository"));
+            kubelessConvertMojo.maxClasses = 10;
+            kubelessConvertMojo.maxDependencyDepth = 2;
+            kubelessConvertMojo.dependencyBudgetAction = "fail";
+            kubelessConvertMojo.execute();
+
+            List<String> report = Files.readAllLines(tempDir.resolve("output/dependency-budget-report.txt"));
+            assertEquals("Dependency budget of AppFunction", report.get(0));
+            assertEquals("classes             8  10", report.get(3));
+            assertEquals("depth               2  2", report.get(4));
+            assertEquals("largest 6 of 6 dependencies:", report.get(5));
+            assertTrue(report.get(7).endsWith("        3      1  com.google.guava:guava:28.2-jre"));
+            assertTrue(report.stream().noneMatch(line -> line.startsWith("exceeded: ")));
+            assertEquals(1, kubelessConvertMojo.getMetrics().getCalls(ConversionMetrics.Phase.ANALYZE_DEPENDENCY_BUDGET));
+        }
+
+        @Test
+        void whenDependenciesExceedTheBudget() throws MojoFailureException, MojoExecutionException, IOException {
+            createBudgetedLocalRepository();
+
+            KubelessConvertMojo kubelessConvertMojo = createKubelessConvertMojo(tempDir.resolve("output").toFile(), tempDir.resolve("repository"));
+            kubelessConvertMojo.maxClasses = 5;
+            kubelessConvertMojo.maxDependencyDepth = 1;
+            kubelessConvertMojo.execute();
+
+            List<String> report = Files.readAllLines(tempDir.resolve("output/dependency-budget-report.txt"));
+            assertTrue(report.contains("exceeded: 8 classes exceed maxClasses 5"));
+            assertTrue(report.contains("exceeded: a transitive closure depth of 2 exceeds maxDependencyDepth 1"));
+
+            kubelessConvertMojo.dependencyBudgetAction = "fail";
+            MojoExecutionException exception = assertThrows(MojoExecutionException.class, kubelessConvertMojo::execute);
+            assertTrue(exception.getMessage().startsWith("The dependencies of AppFunction exceed their budget: 8 classes exceed maxClasses 5; " +
+                    "a transitive closure depth of 2 exceeds maxDependencyDepth 1. Largest dependencies: com.google.guava:guava:28.2-jre ("));
+
+            kubelessConvertMojo.dependencyBudgetAction = "ignore";
+            exception = assertThrows(MojoExecutionException.class, kubelessConvertMojo::execute);
+            assertEquals("Invalid dependencyBudgetAction 'ignore', it must be warn or fail", exception.getMessage());
+        }
+
+        private void createBudgetedLocalRepository() {
+            createLocalRepository(tempDir.resolve("repository"))
+                    .jar("com.google.guava", "guava", "28.2-jre", "com/google/common/base/Strings.class",
+                            "com/google/common/base/Joiner.class", "com/google/common/collect/ImmutableList.class", "META-INF/MANIFEST.MF")
+                    .jar("org.slf4j", "slf4j-api", "1.7.30", "org/slf4j/Logger.class", "module-info.class");
+        }
+    }
+
+    @Nested
+    class NativeImageTest {
+
+        @TempDir
+        Path tempDir;
+
+        @Test
+        void whenNativeImageIsEnabled() throws MojoFailureException, MojoExecutionException, IOException, XmlPullParserException {
+            File baseDir = Paths.get("src/test/resources/unit/sources/output-java-class-pom-test/pom.xml").toFile();
+
+            for (boolean fastValidation : Arrays.asList(false, true)) {
+                Path outputDirectory = tempDir.resolve("output-" + fastValidation);
+                KubelessConvertMojo kubelessConvertMojo = createKubelessConvertMojo("AppFunction", outputDirectory.toFile(), baseDir);
+                kubelessConvertMojo.fastValidation = fastValidation;
+                kubelessConvertMojo.nativeImage = true;
+                kubelessConvertMojo.localRepository = tempDir.resolve("repository").toFile();
+                kubelessConvertMojo.execute();
+
+                Path configDirectory = outputDirectory.resolve("META-INF/native-image/io.kubeless/AppFunction");
+                String reflectConfig = new String(Files.readAllBytes(configDirectory.resolve("reflect-config.json")), StandardCharsets.UTF_8);
+                assertTrue(reflectConfig.contains("\"io.kubeless.AppFunction\""));
+                assertTrue(reflectConfig.contains("\"helloWorld\""));
+                assertTrue(reflectConfig.contains("\"io.kubeless.Event\""));
+                assertTrue(Files.exists(configDirectory.resolve("resource-config.json")));
+                assertTrue(Files.exists(configDirectory.resolve("native-image.properties")));
+
+                Model outputPom;
+                try (FileInputStream inputStream = new FileInputStream(outputDirectory.resolve("pom.xml").toFile())) {
+                    outputPom = mavenXpp3Reader.read(inputStream);
+                }
+                assertEquals(1, outputPom.getProfiles().size());
+                assertEquals("native", outputPom.getProfiles().get(0).getId());
+                assertEquals("org.graalvm.buildtools:native-maven-plugin",
+                        outputPom.getProfiles().get(0).getBuild().getPlugins().get(0).getKey());
+                assertEquals(Collections.singletonList("META-INF/native-image/**"),
+                        outputPom.getProfiles().get(0).getBuild().getResources().get(1).getIncludes());
+            }
+        }
+
+        @Test
+        void whenDependenciesShipNativeImageConfigurations() throws MojoFailureException, MojoExecutionException, IOException {
+            Map<String, String> driverEntries = new LinkedHashMap<>();
+            driverEntries.put("org/postgresql/Driver.class", "");
+            driverEntries.put("META-INF/native-image/org.postgresql/postgresql/reflect-config.json",
+                    "[{\"name\": \"org.postgresql.Driver\", \"allPublicConstructors\": true}]");
+            createLocalRepository(tempDir.resolve("repository")).jar("org.postgresql", "postgresql", "42.2.10", driverEntries);
+
+            KubelessConvertMojo kubelessConvertMojo = createKubelessConvertMojo(tempDir.resolve("output").toFile(), tempDir.resolve("repository"));
+            kubelessConvertMojo.nativeImage = true;
+            kubelessConvertMojo.execute();
+
+            Path configDirectory = tempDir.resolve("output/META-INF/native-image/io.kubeless/AppFunction");
+            String reflectConfig = new String(Files.readAllBytes(configDirectory.resolve("reflect-config.json")), StandardCharsets.UTF_8);
+            assertTrue(reflectConfig.contains("\"org.postgresql.Driver\""));
+            String properties = new String(Files.readAllBytes(configDirectory.resolve("native-image.properties")), StandardCharsets.UTF_8);
+            assertTrue(properties.contains("# Merged with the configurations of postgresql-42.2.10.jar\n"));
+            assertEquals(1, kubelessConvertMojo.getMetrics().getCalls(ConversionMetrics.Phase.CREATE_NATIVE_IMAGE_CONFIG));
+        }
+    }
+
+    @Nested
+    @DisplayName("Test the JVM runtime profile")
+    class RuntimeProfileTest {
+
+        private static final String TEST_CLASS_FOLDER = "output-java-class-pom-test";
+
+        @TempDir
+        Path tempDir;
+
+        @Test
+        void whenRuntimeProfileIsLatency() throws MojoFailureException, MojoExecutionException, IOException {
+            File baseDir = Paths.get("src/test/resources/unit/sources/" + TEST_CLASS_FOLDER + "/pom.xml").toFile();
+
+            KubelessConvertMojo kubelessConvertMojo = createKubelessConvertMojo("AppFunction", tempDir.toFile(), baseDir);
+            kubelessConvertMojo.runtimeProfile = "latency";
+            kubelessConvertMojo.resourceLimits = Collections.singletonMap("memory", "512Mi");
+            kubelessConvertMojo.resourceRequests = Collections.singletonMap("cpu", "2");
+            kubelessConvertMojo.execute();
+
+            String envFile = new String(Files.readAllBytes(tempDir.resolve("jvm-options.env")), StandardCharsets.UTF_8);
+            assertTrue(envFile.contains("runtime profile latency, memory limit 512Mi, CPU limit 2, 1 dependencies\n"));
+            assertTrue(envFile.contains("\nJAVA_OPTS=-XX:+ExitOnOutOfMemoryError -XX:ActiveProcessorCount=2 "));
+            assertTrue(envFile.contains(" -XX:+UseG1GC -XX:MaxGCPauseMillis=50\n"));
+            String shellSnippet = new String(Files.readAllBytes(tempDir.resolve("jvm-options.sh")), StandardCharsets.UTF_8);
+            assertTrue(shellSnippet.contains("\nexport MAVEN_OPTS=\"-XX:ActiveProcessorCount=2 "));
+            assertEquals(1, kubelessConvertMojo.getMetrics().getCalls(ConversionMetrics.Phase.CREATE_RUNTIME_PROFILE));
+        }
+
+        @Test
+        void whenRuntimeProfileIsInvalid() {
+            File baseDir = Paths.get("src/test/resources/unit/sources/" + TEST_CLASS_FOLDER + "/pom.xml").toFile();
+
+            KubelessConvertMojo kubelessConvertMojo = createKubelessConvertMojo("AppFunction", tempDir.toFile(), baseDir);
+            kubelessConvertMojo.runtimeProfile = "fastest";
+            MojoExecutionException exception = assertThrows(MojoExecutionException.class, kubelessConvertMojo::execute);
+            assertEquals("Invalid runtimeProfile 'fastest', it must be none, latency, throughput or minimal-memory", exception.getMessage());
+
+            kubelessConvertMojo.runtimeProfile = "throughput";
+            kubelessConvertMojo.resourceLimits = Collections.singletonMap("memory", "a lot");
+            exception = assertThrows(MojoExecutionException.class, kubelessConvertMojo::execute);
+            assertEquals("Unable to compute the JVM options of AppFunction: Invalid memory quantity 'a lot'", exception.getMessage());
+        }
+    }
+
+    @Nested
+    @DisplayName("Test the Kubeless Function manifest")
+    class FunctionManifestTest {
+
+        private static final String TEST_CLASS_FOLDER = "output-java-class-pom-test";
+
+        @Test
+        void whenFunctionManifestIsYaml() throws MojoFailureException, MojoExecutionException, IOException {
+            File outputDirectory = Paths.get("target/test-classes/unit/generated-sources/function-manifest-test").toFile();
+            File baseDir = Paths.get("src/test/resources/unit/sources/" + TEST_CLASS_FOLDER + "/pom.xml").toFile();
+
+            for (boolean fastValidation : Arrays.asList(false, true)) {
+                KubelessConvertMojo kubelessConvertMojo = createKubelessConvertMojo("AppFunction", outputDirectory, baseDir);
+                kubelessConvertMojo.fastValidation = fastValidation;
+                kubelessConvertMojo.functionManifest = "yaml";
+                kubelessConvertMojo.functionNamespace = "serverless";
+                kubelessConvertMojo.resourceLimits = Collections.singletonMap("memory", "256Mi");
+                kubelessConvertMojo.execute();
+
+                String manifest = new String(Files.readAllBytes(Paths.get(outputDirectory + File.separator + "function.yaml")), StandardCharsets.UTF_8);
+                assertTrue(manifest.contains("\n  handler: AppFunction.helloWorld\n"));
+                assertTrue(manifest.contains("\n  runtime: java1.8\n"));
+                assertTrue(manifest.contains("\n  namespace: serverless\n"));
+                assertTrue(manifest.contains("\n    public class AppFunction {\n"));
+                assertTrue(manifest.contains("\n  deps: |\n    <?xml version=\"1.0\"?>\n"));
+                assertTrue(manifest.contains("\n              limits:\n                memory: \"256Mi\"\n"));
+            }
+        }
+
+        @Test
+        void whenFunctionManifestIsInvalid() {
+            File outputDirectory = Paths.get("target/test-classes/unit/generated-sources/function-manifest-invalid-test").toFile();
+            File baseDir = Paths.get("src/test/resources/unit/sources/" + TEST_CLASS_FOLDER + "/pom.xml").toFile();
+
+            KubelessConvertMojo kubelessConvertMojo = createKubelessConvertMojo("AppFunction", outputDirectory, baseDir);
+            kubelessConvertMojo.functionManifest = "xml";
+            Throwable exception = assertThrows(MojoExecutionException.class, kubelessConvertMojo::execute);
+            assertEquals("Invalid functionManifest 'xml', it must be none, yaml or json", exception.getMessage());
+        }
+    }
+
+    @Nested
+    @DisplayName("Test the metrics report")
+    class MetricsTest {
+
+        private static final String TEST_CLASS_FOLDER = "output-java-class-pom-test";
+
+        @Test
+        void whenConversionRunsMetricsAreReported() throws MojoFailureException, MojoExecutionException, IOException {
+            File outputDirectory = Paths.get("target/test-classes/unit/generated-sources/metrics-test").toFile();
+            File baseDir = Paths.get("src/test/resources/unit/sources/" + TEST_CLASS_FOLDER + "/pom.xml").toFile();
+
+            KubelessConvertMojo kubelessConvertMojo = createKubelessConvertMojo("AppFunction", outputDirectory, baseDir);
+            kubelessConvertMojo.execute();
+
+            ConversionMetrics metrics = kubelessConvertMojo.getMetrics();
+            Stream.of(ConversionMetrics.Phase.CHECK_INPUTS_EXIST, ConversionMetrics.Phase.VALIDATE_INPUT_JAVA_CLASS,
+                    ConversionMetrics.Phase.CREATE_OUTPUT_DIRECTORY, ConversionMetrics.Phase.CREATE_OUTPUT_JAVA_CLASS_FILE,
+                    ConversionMetrics.Phase.GET_PROJECT_DEPENDENCIES, ConversionMetrics.Phase.WRITE_OUTPUT_POM_FILE)
+                    .forEach(phase -> assertEquals(1, metrics.getCalls(phase), phase.getMethodName()));
+            assertEquals(0, metrics.getCalls(ConversionMetrics.Phase.COMPUTE_FINGERPRINT));
+
+            long inputJavaClassLength = Paths.get("src/test/resources/unit/sources/" + TEST_CLASS_FOLDER + "/src/main/java/io/kubeless/AppFunction.java").toFile().length();
+            String report = new String(Files.readAllBytes(Paths.get(outputDirectory + File.separator + "kubeless-metrics.json")), StandardCharsets.UTF_8);
+            assertTrue(report.startsWith("{\n  \"execution\": {\n    \"executions\": 1,"));
+            assertTrue(report.contains("\n  \"session\": {\n"));
+            assertTrue(report.contains("\"validateInputJavaClass\": {\n        \"calls\": 1,\n        \"timeMillis\": "));
+            assertTrue(report.contains("\"bytesRead\": " + inputJavaClassLength + ","));
+            assertTrue(kubelessConvertMojo.getSessionMetrics().getExecutions() >= 1);
+        }
     }
 
     //-- Helper Methods
 
+    private List<String> readOutputDependencies(File outputDirectory) throws IOException, XmlPullParserException {
+        File outputPomFile = Paths.get(outputDirectory + File.separator + "pom.xml").toFile();
+        try (FileInputStream inputStream = new FileInputStream(outputPomFile)) {
+            return mavenXpp3Reader.read(inputStream).getDependencies().stream()
+                    .map(d -> d.getGroupId() + ":" + d.getArtifactId())
+                    .collect(Collectors.toList());
+        }
+    }
+
     private KubelessConvertMojo createKubelessConvertMojo(String inputJavaClassName, File outputDirectory, File baseDir) {
         KubelessConvertMojo kubelessConvertMojo = new KubelessConvertMojo();
         kubelessConvertMojo.inputJavaClassName = inputJavaClassName;
@@ -178,6 +850,35 @@ class KubelessConvertMojoTest {
         return kubelessConvertMojo;
     }
 
+    /**
+     * Mojo converting the AppFunction of dependency-pruning-test, whose dependencies are resolved in
+     * {@code localRepository}.
+     */
+    private KubelessConvertMojo createKubelessConvertMojo(File outputDirectory, Path localRepository) {
+        KubelessConvertMojo kubelessConvertMojo = createKubelessConvertMojo("AppFunction", outputDirectory,
+                Paths.get("src/test/resources/unit/sources/dependency-pruning-test/pom.xml").toFile());
+        kubelessConvertMojo.localRepository = localRepository.toFile();
+        return kubelessConvertMojo;
+    }
+
+    /**
+     * Local repository with a jar per dependency of dependency-pruning-test, jackson-databind bringing
+     * jackson-annotations. Tests rewrite or add the entries they need on the returned repository.
+     */
+    private FakeLocalRepository createLocalRepository(Path root) {
+        return new FakeLocalRepository(root)
+                .jar("com.fasterxml.jackson.core", "jackson-databind", "2.10.2", "com/fasterxml/jackson/databind/ObjectMapper.class")
+                .pom("com.fasterxml.jackson.core", "jackson-databind", "2.10.2", "<dependencies>" +
+                        FakeLocalRepository.dependency("com.fasterxml.jackson.core", "jackson-annotations", "${project.version}", null) +
+                        FakeLocalRepository.dependency("junit", "junit", "4.12", "<scope>test</scope>") +
+                        "</dependencies>\n")
+                .jar("com.fasterxml.jackson.core", "jackson-annotations", "2.10.2", "com/fasterxml/jackson/annotation/JsonProperty.class")
+                .jar("org.apache.commons", "commons-lang3", "3.9", "org/apache/commons/lang3/StringUtils.class")
+                .jar("com.google.guava", "guava", "28.2-jre", "com/google/common/base/Strings.class")
+                .jar("org.postgresql", "postgresql", "42.2.10", "org/postgresql/Driver.class")
+                .jar("org.slf4j", "slf4j-api", "1.7.30", "org/slf4j/Logger.class");
+    }
+
     private boolean standardJavaClassValidation(CompilationUnit compilationUnit) {
         return compilationUnit.getPackageDeclaration()
                 .map(packageDeclaration -> packageDeclaration.getName().asString().equals("io.kubeless"))
@@ -0,0 +1,197 @@
+package org.ivanfranchin.kubelessplugin;
+
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KubelessWatchMojoTest {
+
+    @Test
+    void whenInputFilesChange(@TempDir Path baseDir) throws Exception {
+        final SyntheticProject syntheticProject = SyntheticProject.create(baseDir)
+                .withPom(2, 0)
+                .withHandler("AppFunction1", 0)
+                .withHandler("AppFunction2", 0);
+        final Path outputDirectory = baseDir.resolve("target/generated-sources/kubeless");
+        final KubelessWatchMojo kubelessWatchMojo = createKubelessWatchMojo(syntheticProject, outputDirectory);
+
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final Thread thread = new Thread(() -> {
+            try {
+                kubelessWatchMojo.execute();
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        thread.start();
+        try {
+            assertTrue(kubelessWatchMojo.awaitWatching(30, TimeUnit.SECONDS));
+            assertTrue(Files.exists(outputDirectory.resolve("AppFunction1/AppFunction1.java")));
+            assertTrue(Files.exists(outputDirectory.resolve("AppFunction2/pom.xml")));
+            final byte[] initialPom = Files.readAllBytes(outputDirectory.resolve("AppFunction2/pom.xml"));
+
+            syntheticProject.withHandler("AppFunction1", 3);
+            final byte[] changedHandler = Files.readAllBytes(syntheticProject.getInputJavaClassPath("AppFunction1"));
+            awaitCondition(() -> Arrays.equals(changedHandler, readBytes(outputDirectory.resolve("AppFunction1/AppFunction1.java"))));
+            assertTrue(Arrays.equals(initialPom, readBytes(outputDirectory.resolve("AppFunction2/pom.xml"))));
+
+            syntheticProject.withPom(3, 0);
+            awaitCondition(() -> new String(readBytes(outputDirectory.resolve("AppFunction2/pom.xml")), StandardCharsets.UTF_8).contains("library-2"));
+            awaitCondition(() -> new String(readBytes(outputDirectory.resolve("AppFunction1/pom.xml")), StandardCharsets.UTF_8).contains("library-2"));
+
+            syntheticProject.withHandler("AppFunction3", 0);
+            awaitCondition(() -> Files.exists(outputDirectory.resolve("AppFunction3/pom.xml")));
+
+            Files.delete(syntheticProject.getInputJavaClassPath("AppFunction2"));
+            awaitCondition(() -> !Files.exists(outputDirectory.resolve("AppFunction2")));
+
+            awaitCondition(() -> kubelessWatchMojo.getHandledChanges() >= 4);
+        } finally {
+            kubelessWatchMojo.stop();
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        assertFalse(thread.isAlive());
+        assertNull(failure.get());
+    }
+
+    @Test
+    void whenInputJavaClassIsNotAFunction(@TempDir Path baseDir) throws Exception {
+        final SyntheticProject syntheticProject = SyntheticProject.create(baseDir)
+                .withPom(1, 0)
+                .withHandler("AppFunction", 0);
+        final Path outputDirectory = baseDir.resolve("target/generated-sources/kubeless");
+        final KubelessWatchMojo kubelessWatchMojo = createKubelessWatchMojo(syntheticProject, outputDirectory);
+        kubelessWatchMojo.inputJavaClassNames = null;
+        kubelessWatchMojo.inputJavaClassName = "AppFunction";
+
+        final Thread thread = new Thread(() -> {
+            try {
+                kubelessWatchMojo.execute();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        thread.start();
+        try {
+            assertTrue(kubelessWatchMojo.awaitWatching(30, TimeUnit.SECONDS));
+            final byte[] initialOutput = Files.readAllBytes(outputDirectory.resolve("AppFunction.java"));
+
+            Files.write(syntheticProject.getInputJavaClassPath("AppFunction"),
+                    "package io.kubeless;\n\npublic class AppFunction {\n}\n".getBytes(StandardCharsets.UTF_8));
+            awaitCondition(() -> kubelessWatchMojo.getHandledChanges() >= 1);
+            assertTrue(Arrays.equals(initialOutput, Files.readAllBytes(outputDirectory.resolve("AppFunction.java"))));
+            assertTrue(thread.isAlive());
+        } finally {
+            kubelessWatchMojo.stop();
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        assertFalse(thread.isAlive());
+    }
+
+    @Test
+    void whenHandlerIsEditedWithFastValidation(@TempDir Path baseDir) throws Exception {
+        final SyntheticProject syntheticProject = SyntheticProject.create(baseDir).withPom(2, 0);
+        writeHandler(syntheticProject, "com.example.group0.Library0", "handle");
+        new FakeLocalRepository(baseDir.resolve("repository"))
+                .jar("com.example.group0", "library-0", "1.0", "com/example/group0/Library0.class")
+                .jar("com.example.group1", "library-1", "1.1", "com/example/group1/Library1.class");
+        final Path outputDirectory = baseDir.resolve("target/generated-sources/kubeless");
+        final KubelessWatchMojo kubelessWatchMojo = createKubelessWatchMojo(syntheticProject, outputDirectory);
+        kubelessWatchMojo.inputJavaClassNames = null;
+        kubelessWatchMojo.inputJavaClassName = "AppFunction";
+        kubelessWatchMojo.fastValidation = true;
+        kubelessWatchMojo.pruneDependencies = true;
+        kubelessWatchMojo.nativeImage = true;
+        kubelessWatchMojo.localRepository = baseDir.resolve("repository").toFile();
+        final Path outputPom = outputDirectory.resolve("pom.xml");
+        final Path reflectConfig = outputDirectory.resolve("META-INF/native-image/io.kubeless/AppFunction/reflect-config.json");
+
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final Thread thread = new Thread(() -> {
+            try {
+                kubelessWatchMojo.execute();
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        thread.start();
+        try {
+            assertTrue(kubelessWatchMojo.awaitWatching(30, TimeUnit.SECONDS));
+            assertTrue(new String(readBytes(outputPom), StandardCharsets.UTF_8).contains("<artifactId>library-0</artifactId>"));
+            assertFalse(new String(readBytes(outputPom), StandardCharsets.UTF_8).contains("<artifactId>library-1</artifactId>"));
+            assertTrue(new String(readBytes(reflectConfig), StandardCharsets.UTF_8).contains("\"handle\""));
+
+            // the second edit runs on the function kept by the first one
+            final String[][] edits = {{"1", "greet", "handle"}, {"0", "apply", "greet"}};
+            for (String[] edit : edits) {
+                writeHandler(syntheticProject, "com.example.group" + edit[0] + ".Library" + edit[0], edit[1]);
+                awaitCondition(() -> new String(readBytes(reflectConfig), StandardCharsets.UTF_8).contains("\"" + edit[1] + "\""));
+                final String pom = new String(readBytes(outputPom), StandardCharsets.UTF_8);
+                assertTrue(pom.contains("<artifactId>library-" + edit[0] + "</artifactId>"));
+                assertFalse(pom.contains("<artifactId>library-" + (1 - Integer.parseInt(edit[0])) + "</artifactId>"));
+                assertFalse(new String(readBytes(reflectConfig), StandardCharsets.UTF_8).contains("\"" + edit[2] + "\""));
+            }
+        } finally {
+            kubelessWatchMojo.stop();
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        assertFalse(thread.isAlive());
+        assertNull(failure.get());
+    }
+
+    private static void writeHandler(SyntheticProject syntheticProject, String importedClass, String handlerMethodName) throws IOException {
+        Files.write(syntheticProject.getInputJavaClassPath("AppFunction"), String.join("\n",
+                "package io.kubeless;",
+                "",
+                "import " + importedClass + ";",
+                "",
+                "public class AppFunction {",
+                "",
+                "    public String " + handlerMethodName + "(Event event, Context context) {",
+                "        return \"Hello World\";",
+                "    }",
+                "}").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static KubelessWatchMojo createKubelessWatchMojo(SyntheticProject syntheticProject, Path outputDirectory) {
+        final MavenProject project = new MavenProject();
+        project.setFile(syntheticProject.getPomFile());
+        final KubelessWatchMojo kubelessWatchMojo = new KubelessWatchMojo();
+        kubelessWatchMojo.project = project;
+        kubelessWatchMojo.outputDirectory = outputDirectory.toFile();
+        kubelessWatchMojo.inputJavaClassNames = Collections.singletonList("*");
+        return kubelessWatchMojo;
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for the outputs to be updated");
+            Thread.sleep(10);
+        }
+    }
+
+    private static byte[] readBytes(Path path) {
+        try {
+            return Files.exists(path) ? Files.readAllBytes(path) : new byte[0];
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+package org.ivanfranchin.kubelessplugin;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void whenValuesAreUniformPercentilesAreWithinOnePercent() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1_000_000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        assertEquals(1_000_000, histogram.getTotalCount());
+        assertEquals(1000, histogram.getMinNanos());
+        assertEquals(1_000_000_000L, histogram.getMaxNanos());
+        assertEquals(500_000_500, histogram.getMeanNanos(), 1);
+        assertWithinOnePercent(500_000_000L, histogram.getValueAtPercentile(50));
+        assertWithinOnePercent(990_000_000L, histogram.getValueAtPercentile(99));
+        assertWithinOnePercent(999_000_000L, histogram.getValueAtPercentile(99.9));
+        assertEquals(1_000_000_000L, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void whenHistogramsAreAdded() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            first.record(100);
+        }
+        second.record(Long.MAX_VALUE);
+        second.record(-5);
+
+        first.add(second);
+
+        assertEquals(101, first.getTotalCount());
+        assertEquals(0, first.getMinNanos());
+        assertEquals(Long.MAX_VALUE, first.getMaxNanos());
+        assertEquals(100, first.getValueAtPercentile(50));
+        assertEquals(Long.MAX_VALUE, first.getValueAtPercentile(99.9));
+        assertEquals(0, new LatencyHistogram().getValueAtPercentile(99));
+    }
+
+    private static void assertWithinOnePercent(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected / 100, () -> String.format("%d is not within 1%% of %d", actual, expected));
+    }
+
+}
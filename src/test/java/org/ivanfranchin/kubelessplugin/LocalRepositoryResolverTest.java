@@ -0,0 +1,98 @@
+package org.ivanfranchin.kubelessplugin;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Exclusion;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LocalRepositoryResolverTest {
+
+    @TempDir
+    Path localRepository;
+
+    @Test
+    void whenDependenciesHaveTransitiveDependencies() {
+        new FakeLocalRepository(localRepository)
+                .pom("org.example", "parent", "1", "<properties><b.version>2.0</b.version></properties>\n" +
+                        "<dependencyManagement><dependencies>" +
+                        FakeLocalRepository.dependency("org.example", "b", "${b.version}", null) +
+                        FakeLocalRepository.dependency("org.example", "bom", "1", "<type>pom</type><scope>import</scope>") +
+                        "</dependencies></dependencyManagement>\n")
+                .pom("org.example", "bom", "1", "<dependencyManagement><dependencies>" +
+                        FakeLocalRepository.dependency("org.example", "h", "3.0", null) +
+                        "</dependencies></dependencyManagement>\n")
+                .jar("org.example", "a", "1.0").pom("org.example", "a", "1.0", "<parent><groupId>org.example</groupId><artifactId>parent</artifactId><version>1</version></parent>\n" +
+                        "<dependencies>" +
+                        FakeLocalRepository.dependency("org.example", "b", null, null) +
+                        FakeLocalRepository.dependency("org.example", "c", "1.0", "<optional>true</optional>") +
+                        FakeLocalRepository.dependency("org.example", "d", "1.0", "<scope>test</scope>") +
+                        FakeLocalRepository.dependency("org.example", "e", "1.0", null) +
+                        FakeLocalRepository.dependency("org.example", "h", null, "<scope>runtime</scope>") +
+                        "</dependencies>\n")
+                .jar("org.example", "b", "2.0")
+                .jar("org.example", "b", "1.0")
+                .jar("org.example", "c", "1.0")
+                .jar("org.example", "d", "1.0")
+                .jar("org.example", "e", "1.0").pom("org.example", "e", "1.0", "<dependencies>" +
+                        FakeLocalRepository.dependency("org.example", "f", "1.0", null) +
+                        FakeLocalRepository.dependency("org.example", "g", "1.0", null) +
+                        "</dependencies>\n")
+                .jar("org.example", "f", "1.0")
+                .jar("org.example", "g", "1.0").pom("org.example", "g", "1.0", "<dependencies>" +
+                        FakeLocalRepository.dependency("org.example", "b", "1.0", null) +
+                        "</dependencies>\n")
+                .jar("org.example", "h", "3.0");
+
+        Dependency a = createDependency("org.example", "a", "1.0", null);
+        Exclusion exclusion = new Exclusion();
+        exclusion.setGroupId("org.example");
+        exclusion.setArtifactId("f");
+        a.addExclusion(exclusion);
+
+        LocalRepositoryResolver.Resolution resolution = new LocalRepositoryResolver(localRepository.toFile())
+                .resolve(Arrays.asList(a, createDependency("org.example", "provided", "1.0", "provided")));
+
+        // b comes from the dependency management of the parent of a, nearer than the one of g;
+        // h from the imported bom; c is optional, d has test scope and f is excluded
+        assertEquals(Arrays.asList("org.example:a:1.0:compile:1", "org.example:b:2.0:compile:2", "org.example:e:1.0:compile:2",
+                "org.example:h:3.0:runtime:2", "org.example:g:1.0:compile:3"),
+                resolution.getArtifacts().stream()
+                        .map(artifact -> String.join(":", artifact.getCoordinates(), artifact.getScope(), String.valueOf(artifact.getDepth())))
+                        .collect(Collectors.toList()));
+        assertEquals(3, resolution.getMaxDepth());
+        assertEquals(Collections.emptyList(), resolution.getMissingArtifacts());
+    }
+
+    @Test
+    void whenArtifactsAreMissing() {
+        new FakeLocalRepository(localRepository)
+                .jar("org.example", "a", "1.0").pom("org.example", "a", "1.0", "<dependencies>" +
+                        FakeLocalRepository.dependency("org.example", "b", "1.0", null) +
+                        FakeLocalRepository.dependency("org.example", "c", "${undefined.version}", null) +
+                        "</dependencies>\n");
+
+        LocalRepositoryResolver.Resolution resolution = new LocalRepositoryResolver(localRepository.toFile())
+                .resolve(Collections.singletonList(createDependency("org.example", "a", "1.0", null)));
+
+        assertEquals(Collections.singletonList("org.example:a:1.0"),
+                resolution.getArtifacts().stream().map(LocalRepositoryResolver.ResolvedArtifact::getCoordinates).collect(Collectors.toList()));
+        assertEquals(Arrays.asList("org.example:b:1.0", "org.example:c:${undefined.version}"), resolution.getMissingArtifacts());
+    }
+
+    private Dependency createDependency(String groupId, String artifactId, String version, String scope) {
+        Dependency dependency = new Dependency();
+        dependency.setGroupId(groupId);
+        dependency.setArtifactId(artifactId);
+        dependency.setVersion(version);
+        dependency.setScope(scope);
+        return dependency;
+    }
+
+}
@@ -0,0 +1,96 @@
+package org.ivanfranchin.kubelessplugin;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NativeImageConfigTest {
+
+    private static final String SOURCE = "package io.kubeless;\n" +
+            "\n" +
+            "public class AppFunction {\n" +
+            "    public String handle(Event event, Context context) throws Exception {\n" +
+            "        Class.forName(\"org.postgresql.Driver\");\n" +
+            "        getClass().getResourceAsStream(\"greeting.txt\");\n" +
+            "        AppFunction.class.getResource(\"/templates/hello.html\");\n" +
+            "        Thread.currentThread().getContextClassLoader().getResource(\"config/app.properties\");\n" +
+            "        java.util.ResourceBundle.getBundle(\"messages\");\n" +
+            "        return \"Hello\";\n" +
+            "    }\n" +
+            "}\n";
+
+    @Test
+    void whenFunctionLooksUpClassesAndResourcesWithLiterals() throws IOException {
+        NativeImageConfig config = createConfig();
+
+        List<?> reflectConfig = (List<?>) JsonReader.read(new StringReader(new String(config.getReflectConfig(), StandardCharsets.UTF_8)));
+        assertEquals(4, reflectConfig.size());
+        Map<?, ?> functionEntry = (Map<?, ?>) reflectConfig.get(0);
+        assertEquals("io.kubeless.AppFunction", functionEntry.get("name"));
+        assertEquals("[{name=<init>, parameterTypes=[]}, {name=handle, parameterTypes=[io.kubeless.Event, io.kubeless.Context]}]",
+                String.valueOf(functionEntry.get("methods")));
+        assertEquals("io.kubeless.Context", ((Map<?, ?>) reflectConfig.get(1)).get("name"));
+        assertEquals("io.kubeless.Event", ((Map<?, ?>) reflectConfig.get(2)).get("name"));
+        assertEquals("org.postgresql.Driver", ((Map<?, ?>) reflectConfig.get(3)).get("name"));
+
+        Map<?, ?> resourceConfig = (Map<?, ?>) JsonReader.read(new StringReader(new String(config.getResourceConfig(), StandardCharsets.UTF_8)));
+        assertEquals("{includes=[{pattern=\\Qconfig/app.properties\\E}, {pattern=\\Qio/kubeless/greeting.txt\\E}, {pattern=\\Qtemplates/hello.html\\E}]}",
+                String.valueOf(resourceConfig.get("resources")));
+        assertEquals("[{name=messages}]", String.valueOf(resourceConfig.get("bundles")));
+
+        String properties = new String(config.getProperties(), StandardCharsets.UTF_8);
+        assertTrue(properties.contains("\nImageName = appfunction\n"));
+        assertTrue(properties.contains("\nArgs = --no-fallback"));
+    }
+
+    @Test
+    void whenDependencyJarsShipNativeImageConfigurations(@TempDir Path tempDir) throws IOException {
+        Map<String, String> driverEntries = new LinkedHashMap<>();
+        driverEntries.put("org/postgresql/Driver.class", "");
+        driverEntries.put("META-INF/native-image/org.postgresql/postgresql/reflect-config.json",
+                "[{\"name\": \"org.postgresql.Driver\", \"allPublicMethods\": true, \"allPublicConstructors\": false}]");
+        driverEntries.put("META-INF/native-image/org.postgresql/postgresql/resource-config.json",
+                "{\"resources\": [{\"pattern\": \"\\\\QMETA-INF/services/java.sql.Driver\\\\E\"}], \"bundles\": [{\"name\": \"org.postgresql.translation.messages\"}]}");
+        Map<String, String> otherEntries = new LinkedHashMap<>();
+        otherEntries.put("META-INF/native-image/com.example/other/resource-config.json",
+                "{\"resources\": {\"includes\": [{\"pattern\": \"other.txt\"}], \"excludes\": [{\"pattern\": \".*\"}]}}");
+        new FakeLocalRepository(tempDir)
+                .jar("org.postgresql", "postgresql", "42.2.10", driverEntries)
+                .jar("com.example", "other", "1.0", otherEntries)
+                .jar("com.example", "plain", "1.0", "com/example/Plain.class");
+
+        NativeImageConfig config = createConfig();
+        config.mergeJar(tempDir.resolve("org/postgresql/postgresql/42.2.10/postgresql-42.2.10.jar").toFile());
+        config.mergeJar(tempDir.resolve("com/example/other/1.0/other-1.0.jar").toFile());
+        config.mergeJar(tempDir.resolve("com/example/plain/1.0/plain-1.0.jar").toFile());
+
+        assertEquals("[postgresql-42.2.10.jar, other-1.0.jar]", String.valueOf(config.getMergedJars()));
+        List<?> reflectConfig = (List<?>) JsonReader.read(new StringReader(new String(config.getReflectConfig(), StandardCharsets.UTF_8)));
+        assertEquals(4, reflectConfig.size());
+        assertEquals("{name=org.postgresql.Driver, allPublicConstructors=true, allPublicMethods=true}", String.valueOf(reflectConfig.get(3)));
+
+        Map<?, ?> resourceConfig = (Map<?, ?>) JsonReader.read(new StringReader(new String(config.getResourceConfig(), StandardCharsets.UTF_8)));
+        String resources = String.valueOf(resourceConfig.get("resources"));
+        assertTrue(resources.contains("{pattern=\\QMETA-INF/services/java.sql.Driver\\E}"));
+        assertTrue(resources.contains("{pattern=other.txt}"));
+        assertEquals("[{name=messages}, {name=org.postgresql.translation.messages}]", String.valueOf(resourceConfig.get("bundles")));
+    }
+
+    private static NativeImageConfig createConfig() {
+        ClassOrInterfaceDeclaration classDeclaration = StaticJavaParser.parse(SOURCE).getClassByName("AppFunction").get();
+        return NativeImageConfig.of(classDeclaration, classDeclaration.getMethodsByName("handle").get(0));
+    }
+
+}
@@ -0,0 +1,73 @@
+package org.ivanfranchin.kubelessplugin;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutputCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void whenEntryIsStoredItIsRestoredInAnotherFolder() throws IOException {
+        Path outputDirectory = Files.createDirectories(tempDir.resolve("output"));
+        Files.write(outputDirectory.resolve("AppFunction.java"), "class AppFunction {}".getBytes(StandardCharsets.UTF_8));
+        Files.createDirectories(outputDirectory.resolve("bundle/lib"));
+        Files.write(outputDirectory.resolve("bundle/lib/library.jar"), new byte[]{1, 2, 3});
+        Files.write(outputDirectory.resolve("not-cached.txt"), new byte[]{4});
+        OutputCache outputCache = new OutputCache(tempDir.resolve("cache").toFile(), Long.MAX_VALUE);
+
+        assertFalse(outputCache.restore("key", tempDir.resolve("restored").toFile()));
+        assertTrue(outputCache.store("key", outputDirectory.toFile(),
+                Arrays.asList(outputDirectory.resolve("AppFunction.java").toFile(), outputDirectory.resolve("bundle").toFile())));
+        assertFalse(outputCache.store("key", outputDirectory.toFile(), Collections.singletonList(outputDirectory.resolve("AppFunction.java").toFile())));
+        assertTrue(outputCache.restore("key", tempDir.resolve("restored").toFile()));
+
+        assertArrayEquals(Files.readAllBytes(outputDirectory.resolve("AppFunction.java")), Files.readAllBytes(tempDir.resolve("restored/AppFunction.java")));
+        assertArrayEquals(new byte[]{1, 2, 3}, Files.readAllBytes(tempDir.resolve("restored/bundle/lib/library.jar")));
+        assertFalse(Files.exists(tempDir.resolve("restored/not-cached.txt")));
+        assertEquals(1, outputCache.getHits());
+        assertEquals(1, outputCache.getMisses());
+        assertEquals(1, outputCache.getStores());
+    }
+
+    @Test
+    void whenCacheIsFullLeastRecentlyUsedEntriesAreEvicted() throws IOException {
+        Path outputDirectory = Files.createDirectories(tempDir.resolve("output"));
+        File outputFile = Files.write(outputDirectory.resolve("pom.xml"), new byte[100]).toFile();
+        Path cacheDirectory = tempDir.resolve("cache");
+        OutputCache outputCache = new OutputCache(cacheDirectory.toFile(), 250);
+
+        outputCache.store("first", outputDirectory.toFile(), Collections.singletonList(outputFile));
+        outputCache.store("second", outputDirectory.toFile(), Collections.singletonList(outputFile));
+        Files.setLastModifiedTime(cacheDirectory.resolve("first"), FileTime.fromMillis(1000L));
+        Files.setLastModifiedTime(cacheDirectory.resolve("second"), FileTime.fromMillis(2000L));
+        // restoring makes first the most recently used entry
+        assertTrue(outputCache.restore("first", tempDir.resolve("restored").toFile()));
+        outputCache.store("third", outputDirectory.toFile(), Collections.singletonList(outputFile));
+
+        assertTrue(Files.exists(cacheDirectory.resolve("first")));
+        assertFalse(Files.exists(cacheDirectory.resolve("second")));
+        assertTrue(Files.exists(cacheDirectory.resolve("third")));
+        assertEquals(1, outputCache.getEvictions());
+        try (Stream<Path> paths = Files.list(cacheDirectory)) {
+            assertEquals(2, paths.count());
+        }
+    }
+
+}
@@ -0,0 +1,62 @@
+package org.ivanfranchin.kubelessplugin;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutputFilesTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void whenCopiedContentIsUnchangedTargetIsNotTouched() throws IOException {
+        Path source = Files.write(tempDir.resolve("Source.java"), "class Source {}".getBytes(StandardCharsets.UTF_8));
+        Path target = tempDir.resolve("Target.java");
+
+        assertTrue(OutputFiles.copyIfChanged(source, target));
+        assertArrayEquals(Files.readAllBytes(source), Files.readAllBytes(target));
+
+        Files.setLastModifiedTime(target, FileTime.fromMillis(1000L));
+        assertFalse(OutputFiles.copyIfChanged(source, target));
+        assertEquals(1000L, Files.getLastModifiedTime(target).toMillis());
+
+        Files.write(source, "class Source { int changed; }".getBytes(StandardCharsets.UTF_8));
+        assertTrue(OutputFiles.copyIfChanged(source, target));
+        assertArrayEquals(Files.readAllBytes(source), Files.readAllBytes(target));
+        assertNoTemporaryFileLeft();
+    }
+
+    @Test
+    void whenWrittenContentIsUnchangedTargetIsNotTouched() throws IOException {
+        Path target = tempDir.resolve("pom.xml");
+
+        assertTrue(OutputFiles.writeIfChanged(target, "<project/>".getBytes(StandardCharsets.UTF_8)));
+        Files.setLastModifiedTime(target, FileTime.fromMillis(1000L));
+
+        assertFalse(OutputFiles.writeIfChanged(target, "<project/>".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(1000L, Files.getLastModifiedTime(target).toMillis());
+
+        assertTrue(OutputFiles.writeIfChanged(target, "<project></project>".getBytes(StandardCharsets.UTF_8)));
+        assertEquals("<project></project>", new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+        assertNoTemporaryFileLeft();
+    }
+
+    private void assertNoTemporaryFileLeft() throws IOException {
+        try (Stream<Path> paths = Files.list(tempDir)) {
+            assertFalse(paths.anyMatch(path -> path.getFileName().toString().endsWith(".tmp")));
+        }
+    }
+
+}
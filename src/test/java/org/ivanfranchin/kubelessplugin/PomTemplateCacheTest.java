@@ -0,0 +1,50 @@
+package org.ivanfranchin.kubelessplugin;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PomTemplateCacheTest {
+
+    @Test
+    void whenTemplateIsCachedEachCallerGetsItsOwnCopy() throws IOException, XmlPullParserException {
+        byte[] content = "<project><artifactId>cached-function</artifactId></project>".getBytes(StandardCharsets.UTF_8);
+        long misses = PomTemplateCache.getMisses();
+        long hits = PomTemplateCache.getHits();
+
+        Model first = PomTemplateCache.get("cache-test", content);
+        first.addDependency(new Dependency());
+        Model second = PomTemplateCache.get("cache-test", content);
+
+        assertNotSame(first, second);
+        assertEquals("cached-function", second.getArtifactId());
+        assertTrue(second.getDependencies().isEmpty());
+        assertEquals(misses + 1, PomTemplateCache.getMisses());
+        assertEquals(hits + 1, PomTemplateCache.getHits());
+    }
+
+    @Test
+    void whenTemplateContentChangesItIsParsedAgain() throws IOException, XmlPullParserException {
+        PomTemplateCache.get("changing-template", "<project><artifactId>v1</artifactId></project>".getBytes(StandardCharsets.UTF_8));
+        Model model = PomTemplateCache.get("changing-template", "<project><artifactId>v2</artifactId></project>".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("v2", model.getArtifactId());
+    }
+
+    @Test
+    void whenManyTemplatesAreLoadedCacheStaysBounded() throws IOException, XmlPullParserException {
+        for (int i = 0; i < PomTemplateCache.MAX_ENTRIES * 2; i++) {
+            PomTemplateCache.get("template-" + i, ("<project><artifactId>f" + i + "</artifactId></project>").getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals(PomTemplateCache.MAX_ENTRIES, PomTemplateCache.size());
+    }
+
+}
@@ -0,0 +1,172 @@
+package org.ivanfranchin.kubelessplugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Builds a project on the filesystem with a generated {@code pom.xml} and generated classes in
+ * {@code src/main/java/io/kubeless}, so the plugin can be exercised on inputs of any size.
+ */
+final class SyntheticProject {
+
+    private final Path baseDir;
+
+    private SyntheticProject(Path baseDir) {
+        this.baseDir = baseDir;
+    }
+
+    static SyntheticProject create(Path baseDir) {
+        try {
+            Files.createDirectories(baseDir.resolve(FOLDER_PATH_IO_KUBELESS));
+            return new SyntheticProject(baseDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes a {@code pom.xml} with {@code numberOfDependencies} compile dependencies, each one with
+     * {@code exclusionsPerDependency} exclusions, plus one test dependency and the Kubeless runtime.
+     */
+    SyntheticProject withPom(int numberOfDependencies, int exclusionsPerDependency) {
+        final StringBuilder pom = new StringBuilder(256 + numberOfDependencies * (200 + exclusionsPerDependency * 120));
+        pom.append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n")
+                .append("    <modelVersion>4.0.0</modelVersion>\n")
+                .append("    <groupId>org.ivanfranchin</groupId>\n")
+                .append("    <artifactId>synthetic-project</artifactId>\n")
+                .append("    <version>1.0-SNAPSHOT</version>\n")
+                .append("    <dependencies>\n");
+        appendDependency(pom, "de.inoio.kubeless", "jvm-runtime", "0.1", null, 0);
+        appendDependency(pom, "org.junit.jupiter", "junit-jupiter-engine", "5.5.2", "test", 0);
+        for (int i = 0; i < numberOfDependencies; i++) {
+            appendDependency(pom, "com.example.group" + (i % 50), "library-" + i, "1." + i, null, exclusionsPerDependency);
+        }
+        pom.append("    </dependencies>\n")
+                .append("</project>\n");
+        write(baseDir.resolve(POM_XML), pom);
+        return this;
+    }
+
+    /**
+     * Writes a valid handler class with {@code numberOfFillerMethods} extra methods of five lines each.
+     */
+    SyntheticProject withHandler(String className, int numberOfFillerMethods) {
+        final StringBuilder source = newClass(className, numberOfFillerMethods);
+        appendFillerMethods(source, numberOfFillerMethods);
+        source.append("    public String handle(Event event, Context context) {\n")
+                .append("        return \"Hello World\";\n")
+                .append("    }\n")
+                .append("}\n");
+        write(getInputJavaClassPath(className), source);
+        return this;
+    }
+
+    /**
+     * Writes a valid handler class whose handler comes after {@code numberOfNearMisses} methods that almost have
+     * the Kubeless Function signature, and whose body contains deeply nested expressions and comments that look
+     * like code.
+     */
+    SyntheticProject withPathologicalHandler(String className, int numberOfNearMisses) {
+        final StringBuilder source = newClass(className, numberOfNearMisses);
+        for (int i = 0; i < numberOfNearMisses; i++) {
+            switch (i % 4) {
+                case 0:
+                    source.append("    public String nearMiss").append(i).append("(Event event) { return \"}\"; }\n");
+                    break;
+                case 1:
+                    source.append("    public String nearMiss").append(i).append("(Context context, Event event) { return \"{\"; }\n");
+                    break;
+                case 2:
+                    source.append("    /* public String handle(Event event, Context context) { */\n")
+                            .append("    String nearMiss").append(i).append("(Event event, Context context) { return null; }\n");
+                    break;
+                default:
+                    source.append("    public java.util.List<java.util.Map<String, java.util.List<String>>> nearMiss").append(i)
+                            .append("(Event event, Context context, String extra) { return null; }\n");
+            }
+        }
+        source.append("    public String handle(Event event, Context context) {\n")
+                .append("        int value = ");
+        for (int i = 0; i < 40; i++) {
+            source.append("(1 + ");
+        }
+        source.append('1');
+        for (int i = 0; i < 40; i++) {
+            source.append(')');
+        }
+        source.append(";\n")
+                .append("        return \"Hello World \" + value;\n")
+                .append("    }\n")
+                .append("}\n");
+        write(getInputJavaClassPath(className), source);
+        return this;
+    }
+
+    Path getBaseDir() {
+        return baseDir;
+    }
+
+    File getPomFile() {
+        return baseDir.resolve(POM_XML).toFile();
+    }
+
+    Path getInputJavaClassPath(String className) {
+        return baseDir.resolve(FOLDER_PATH_IO_KUBELESS).resolve(className + ".java");
+    }
+
+    private static StringBuilder newClass(String className, int numberOfMethods) {
+        final StringBuilder source = new StringBuilder(256 + numberOfMethods * 160);
+        source.append("package io.kubeless;\n\n")
+                .append("import io.kubeless.Context;\n")
+                .append("import io.kubeless.Event;\n\n")
+                .append("public class ").append(className).append(" {\n\n");
+        return source;
+    }
+
+    private static void appendFillerMethods(StringBuilder source, int numberOfFillerMethods) {
+        for (int i = 0; i < numberOfFillerMethods; i++) {
+            source.append("    private int filler").append(i).append("(int value) {\n")
+                    .append("        // filler method ").append(i).append('\n')
+                    .append("        return value * ").append(i).append(" + \"").append(i).append("\".length();\n")
+                    .append("    }\n\n");
+        }
+    }
+
+    private static void appendDependency(StringBuilder pom, String groupId, String artifactId, String version,
+                                         String scope, int numberOfExclusions) {
+        pom.append("        <dependency>\n")
+                .append("            <groupId>").append(groupId).append("</groupId>\n")
+                .append("            <artifactId>").append(artifactId).append("</artifactId>\n")
+                .append("            <version>").append(version).append("</version>\n");
+        if (scope != null) {
+            pom.append("            <scope>").append(scope).append("</scope>\n");
+        }
+        if (numberOfExclusions > 0) {
+            pom.append("            <exclusions>\n");
+            for (int i = 0; i < numberOfExclusions; i++) {
+                pom.append("                <exclusion>\n")
+                        .append("                    <groupId>com.example.excluded</groupId>\n")
+                        .append("                    <artifactId>excluded-").append(i).append("</artifactId>\n")
+                        .append("                </exclusion>\n");
+            }
+            pom.append("            </exclusions>\n");
+        }
+        pom.append("        </dependency>\n");
+    }
+
+    private static void write(Path path, CharSequence content) {
+        try {
+            Files.write(path, content.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final String POM_XML = "pom.xml";
+    private static final String FOLDER_PATH_IO_KUBELESS = "src/main/java/io/kubeless";
+
+}
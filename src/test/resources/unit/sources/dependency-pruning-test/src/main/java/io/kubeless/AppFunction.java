@@ -0,0 +1,10 @@
+package io.kubeless;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class AppFunction {
+    public String helloWorld(Event event, Context context) throws Exception {
+        String name = org.apache.commons.lang3.StringUtils.capitalize(event.Data);
+        return new ObjectMapper().writeValueAsString("Hello " + name);
+    }
+}
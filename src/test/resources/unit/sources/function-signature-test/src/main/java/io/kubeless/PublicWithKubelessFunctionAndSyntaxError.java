@@ -0,0 +1,13 @@
+package io.kubeless;
+
+import io.kubeless.Context;
+import io.kubeless.Event;
+
+public class PublicWithKubelessFunctionAndSyntaxError {
+    public String helloWorld(Event event, Context context) {
+        return "Hello World";
+    }
+
+    private String unfinished() {
+        return "Hello";
+}
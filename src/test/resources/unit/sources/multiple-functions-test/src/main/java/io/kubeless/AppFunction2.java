@@ -0,0 +1,7 @@
+package io.kubeless;
+
+public class AppFunction2 {
+    public String helloWorld(Event event, Context context) {
+        return "Hello World 2";
+    }
+}
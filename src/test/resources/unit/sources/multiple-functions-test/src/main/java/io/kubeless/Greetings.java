@@ -0,0 +1,7 @@
+package io.kubeless;
+
+public class Greetings {
+    public static String greet(String name) {
+        return "Hello " + name;
+    }
+}